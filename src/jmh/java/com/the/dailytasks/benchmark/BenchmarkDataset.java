@@ -0,0 +1,66 @@
+package com.the.dailytasks.benchmark;
+
+import com.the.dailytasks.DailyTasksApplication;
+import com.the.dailytasks.service.TaskSearchIndex;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Запуск приложения на встроенной H2 и заполнение ее тестовыми задачами для бенчмарков.
+ * Строки генерируются одним INSERT ... SELECT на стороне базы, без загрузки в память приложения.
+ * Даты выполнения равномерно распределены на год назад и год вперед, каждая третья задача выполнена.
+ */
+final class BenchmarkDataset {
+
+    /**
+     * Количество дней, по которым распределяются даты выполнения.
+     */
+    static final int DATE_SPREAD_DAYS = 730;
+
+    private static final String SEED_SQL = """
+            INSERT INTO task (id, title, description, completed, due_date, version)
+            SELECT x,
+                   CASE MOD(x, 5) WHEN 0 THEN 'Report' WHEN 1 THEN 'Review' WHEN 2 THEN 'Meeting'
+                                  WHEN 3 THEN 'Invoice' ELSE 'Deploy' END || ' ' || x,
+                   'Benchmark task ' || x,
+                   MOD(x, 3) = 0,
+                   DATEADD('DAY', MOD(x, %d) - %d, CURRENT_DATE),
+                   0
+            FROM SYSTEM_RANGE(1, %d)
+            """;
+
+    private BenchmarkDataset() {
+    }
+
+    /**
+     * Запускает приложение без веб-сервера и заполняет базу.
+     *
+     * @param rows количество задач
+     * @return контекст приложения (закрывается вызывающим)
+     */
+    static ConfigurableApplicationContext start(int rows) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DailyTasksApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driverClassName=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.threads.virtual.enabled=false",
+                        // Измеряется запрос к базе, а не попадание в кеш окон
+                        "--tasks.cache.windows.enabled=false");
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.execute(SEED_SQL.formatted(DATE_SPREAD_DAYS, DATE_SPREAD_DAYS / 2, rows));
+        // pooled-lo: следующее значение последовательности — начало следующего свободного диапазона
+        jdbcTemplate.execute("ALTER SEQUENCE task_seq RESTART WITH " + (rows + 1));
+
+        // Индекс загружается при старте, когда база еще пуста
+        context.getBean(TaskSearchIndex.class).load();
+        return context;
+    }
+}
@@ -0,0 +1,109 @@
+package com.the.dailytasks.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.the.dailytasks.config.EpochDayModule;
+import com.the.dailytasks.dto.TaskSummary;
+import com.the.dailytasks.model.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Бенчмарк сериализации ответов списочных эндпоинтов в JSON, CBOR и Smile
+ * с настройками ObjectMapper, как в Spring MVC (для бинарных форматов — с датами в epoch day).
+ * Размеры ответа в каждом формате, без сжатия и после gzip, выводятся при подготовке.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TaskFormatBenchmark {
+
+    @Param({"20", "1000", "10000"})
+    private int size;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectWriter writer;
+    private List<TaskSummary> summaries;
+    private PageImpl<TaskSummary> page;
+
+    @Setup
+    public void setUp() throws IOException {
+        writer = mapper(format).writer();
+        List<Task> tasks = new ArrayList<>(size);
+        LocalDate today = LocalDate.now();
+        for (int i = 1; i <= size; i++) {
+            tasks.add(new Task((long) i, "Task " + i, "Description of task " + i, i % 3 == 0,
+                    today.plusDays(i % 30), 0L));
+        }
+        summaries = tasks.stream().map(TaskSummary::of).toList();
+        page = new PageImpl<>(summaries, PageRequest.of(0, size), size * 10L);
+        byte[] list = serializeSummaries();
+        System.out.printf("%n%s, %d summaries: %d bytes, gzip %d bytes; page: %d bytes%n",
+                format, size, list.length, gzipSize(list), serializePage().length);
+    }
+
+    @Benchmark
+    public byte[] serializeSummaries() throws JsonProcessingException {
+        return writer.writeValueAsBytes(summaries);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return writer.writeValueAsBytes(page);
+    }
+
+    private static ObjectMapper mapper(String format) {
+        return switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json().build();
+            case "cbor" -> binaryMapper(new CBORFactory());
+            case "smile" -> binaryMapper(new SmileFactory());
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+    }
+
+    private static ObjectMapper binaryMapper(JsonFactory factory) {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().factory(factory).build();
+        mapper.registerModule(new EpochDayModule());
+        return mapper;
+    }
+
+    private static int gzipSize(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.size();
+    }
+}
@@ -0,0 +1,65 @@
+package com.the.dailytasks.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.the.dailytasks.dto.TaskSummary;
+import com.the.dailytasks.model.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк сериализации списков задач в JSON с настройками ObjectMapper, как в Spring MVC.
+ * Сравнивает полные сущности {@link Task} и краткие представления {@link TaskSummary}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TaskJsonBenchmark {
+
+    @Param({"20", "1000", "10000"})
+    private int size;
+
+    private ObjectWriter writer;
+    private List<Task> tasks;
+    private List<TaskSummary> summaries;
+
+    @Setup
+    public void setUp() {
+        writer = Jackson2ObjectMapperBuilder.json().build().writer();
+        tasks = new ArrayList<>(size);
+        LocalDate today = LocalDate.now();
+        for (int i = 1; i <= size; i++) {
+            tasks.add(new Task((long) i, "Task " + i, "Description of task " + i, i % 3 == 0,
+                    today.plusDays(i % 30)));
+        }
+        summaries = tasks.stream().map(TaskSummary::of).toList();
+    }
+
+    @Benchmark
+    public byte[] serializeTasks() throws JsonProcessingException {
+        return writer.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public byte[] serializeSummaries() throws JsonProcessingException {
+        return writer.writeValueAsBytes(summaries);
+    }
+}
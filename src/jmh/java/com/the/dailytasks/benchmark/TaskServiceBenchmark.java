@@ -0,0 +1,101 @@
+package com.the.dailytasks.benchmark;
+
+import com.the.dailytasks.dto.TaskSummary;
+import com.the.dailytasks.model.Task;
+import com.the.dailytasks.service.SearchMode;
+import com.the.dailytasks.service.TaskService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарки основных операций {@link TaskService} на встроенной H2.
+ * Размер набора данных задается параметром rows (по умолчанию в профиле benchmark — 10 000).
+ * Для 10 000 000 строк нужна куча порядка нескольких гигабайт (-jvmArgs -Xmx8g).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TaskServiceBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private LocalDate start;
+    private LocalDate end;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDataset.start(rows);
+        taskService = context.getBean(TaskService.class);
+        start = LocalDate.now();
+        end = start.plusDays(30);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<TaskSummary> getTasks() {
+        return taskService.getTasks(start, end, false, PageRequest.of(0, 20));
+    }
+
+    @Benchmark
+    public Page<TaskSummary> getTasksUnfiltered() {
+        return taskService.getTasks(null, null, null, PageRequest.of(0, 20));
+    }
+
+    @Benchmark
+    public List<TaskSummary> getWeekTasks() {
+        return taskService.getWeekTasks(false);
+    }
+
+    @Benchmark
+    public List<TaskSummary> searchTasksByTitlePrefix() {
+        return taskService.searchTasksByTitle("review 12", SearchMode.PREFIX, true, 50);
+    }
+
+    @Benchmark
+    public List<TaskSummary> searchTasksByTitleFuzzy() {
+        return taskService.searchTasksByTitle("reviwe 1234", SearchMode.FUZZY, true, 50);
+    }
+
+    @Benchmark
+    public Task createTask() {
+        return taskService.createTask(Task.builder()
+                .title("Benchmark task")
+                .description("Created by benchmark")
+                .dueDate(start.plusDays(1))
+                .build());
+    }
+
+    @Benchmark
+    public Task toggleCompletion() {
+        return taskService.toggleCompletion(ThreadLocalRandom.current().nextLong(1, rows + 1));
+    }
+}
@@ -0,0 +1,37 @@
+package com.the.dailytasks.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Бинарные форматы ответов и запросов REST API: CBOR (application/cbor)
+ * и Smile (application/x-jackson-smile), выбираются по заголовкам Accept и Content-Type.
+ * Структура та же, что в JSON, с настройками Jackson приложения, но даты передаются
+ * числом дней от 1970-01-01 ({@link EpochDayModule}). Конвертеры заменяют стандартные
+ * конвертеры Spring MVC для этих форматов.
+ */
+@Configuration
+public class BinaryFormatConfig {
+
+    @Bean
+    MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(binaryMapper(builder.factory(new CBORFactory())));
+    }
+
+    @Bean
+    MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(binaryMapper(builder.factory(new SmileFactory())));
+    }
+
+    private static ObjectMapper binaryMapper(Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper mapper = builder.build();
+        mapper.registerModule(new EpochDayModule());
+        return mapper;
+    }
+}
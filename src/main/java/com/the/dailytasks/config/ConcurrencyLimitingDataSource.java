@@ -0,0 +1,150 @@
+package com.the.dailytasks.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Источник данных, ограничивающий число одновременно выданных соединений.
+ * Разрешение семафора берется при получении соединения и возвращается при его закрытии,
+ * поэтому число одновременных транзакций не превышает размер пула. Ожидающие потоки
+ * (в том числе виртуальные) стоят в очереди семафора ограниченной длины, а не в очереди пула:
+ * при переполнении очереди или по таймауту запрос сразу завершается ошибкой.
+ * Метрики помечаются тегом pool, чтобы ограничители разных пулов не смешивались.
+ */
+public class ConcurrencyLimitingDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final int maxPermits;
+    private final int maxQueue;
+    private final long timeoutMillis;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    /**
+     * @param target исходный источник данных
+     * @param pool имя пула для тега метрик
+     * @param maxPermits максимальное число одновременно выданных соединений
+     * @param maxQueue максимальное число ожидающих потоков
+     * @param timeoutMillis максимальное время ожидания разрешения, мс
+     * @param registry реестр метрик
+     */
+    public ConcurrencyLimitingDataSource(DataSource target, String pool, int maxPermits, int maxQueue,
+                                         long timeoutMillis, MeterRegistry registry) {
+        super(target);
+        this.permits = new Semaphore(maxPermits, true);
+        this.maxPermits = maxPermits;
+        this.maxQueue = maxQueue;
+        this.timeoutMillis = timeoutMillis;
+        this.waitTimer = Timer.builder("tasks.db.limiter.wait")
+                .description("Time spent waiting for a database concurrency permit")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .tag("pool", pool)
+                .register(registry);
+        this.rejected = Counter.builder("tasks.db.limiter.rejected")
+                .description("Connection requests rejected by the database concurrency limiter")
+                .tag("pool", pool)
+                .register(registry);
+        Gauge.builder("tasks.db.limiter.queue.depth", waiting, AtomicInteger::get)
+                .description("Threads waiting for a database concurrency permit")
+                .tag("pool", pool)
+                .register(registry);
+        Gauge.builder("tasks.db.limiter.active", permits, semaphore -> maxPermits - semaphore.availablePermits())
+                .description("Database concurrency permits in use")
+                .tag("pool", pool)
+                .register(registry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasing(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasing(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Возвращает число ожидающих потоков.
+     *
+     * @return длина очереди
+     */
+    public int getQueueDepth() {
+        return waiting.get();
+    }
+
+    private void acquire() throws SQLException {
+        if (waiting.incrementAndGet() > maxQueue) {
+            waiting.decrementAndGet();
+            rejected.increment();
+            throw new SQLTransientConnectionException("Database concurrency limiter queue is full (" + maxQueue + ")");
+        }
+        long started = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                throw new SQLTransientConnectionException(
+                        "Timed out after " + timeoutMillis + " ms waiting for one of " + maxPermits + " database permits");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database permit", e);
+        } finally {
+            waiting.decrementAndGet();
+            waitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Оборачивает соединение так, чтобы при первом закрытии возвращалось разрешение семафора.
+     */
+    private Connection releasing(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        } finally {
+                            permits.release();
+                        }
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,80 @@
+package com.the.dailytasks.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Признак текущего потока «читать с основной базы», учитываемый {@link ReplicaRoutingDataSource}.
+ * Read-only транзакции по умолчанию уходят на реплику; внутри {@link #onPrimary} и для клиентов
+ * в окне read-your-writes они выполняются на основной базе. Используется для чтений,
+ * результат которых нельзя получить с отставанием: заполнение кешей и индексов в памяти
+ * и выборка журнала изменений по курсору. Без реплик признак ни на что не влияет.
+ */
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    /**
+     * Выполняет действие, направляя read-only транзакции потока на основную базу.
+     * Соединение транзакции выбирается при первом запросе, поэтому действие может выполняться
+     * и внутри уже начатой read-only транзакции, если в ней еще не было запросов.
+     *
+     * @param action действие
+     * @return результат действия
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = requirePrimary();
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Выполняет действие, направляя read-only транзакции потока на основную базу.
+     *
+     * @param action действие
+     */
+    public static void onPrimary(Runnable action) {
+        onPrimary(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Проверяет, должны ли read-only транзакции потока выполняться на основной базе.
+     *
+     * @return true, если реплики для потока отключены
+     */
+    public static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY.get());
+    }
+
+    /**
+     * Включает признак для потока.
+     *
+     * @return прежнее значение для {@link #restore}
+     */
+    static Boolean requirePrimary() {
+        Boolean previous = PRIMARY.get();
+        PRIMARY.set(Boolean.TRUE);
+        return previous;
+    }
+
+    /**
+     * Восстанавливает прежнее значение признака.
+     *
+     * @param previous значение, возвращенное {@link #requirePrimary}
+     */
+    static void restore(Boolean previous) {
+        if (previous == null) {
+            PRIMARY.remove();
+        } else {
+            PRIMARY.set(previous);
+        }
+    }
+}
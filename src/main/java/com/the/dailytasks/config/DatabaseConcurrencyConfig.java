@@ -0,0 +1,64 @@
+package com.the.dailytasks.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Конфигурация ограничителя параллельных обращений к базе данных.
+ * Оборачивает источник данных в {@link ConcurrencyLimitingDataSource} с числом разрешений,
+ * равным размеру пула Hikari. С репликами у каждого пула (основной базы и каждой реплики) свой
+ * ограничитель внутри {@link ReplicaRoutingDataSource}, поэтому здесь маршрутизатор не оборачивается.
+ * Нужна прежде всего в режиме виртуальных потоков (spring.threads.virtual.enabled), когда число
+ * одновременных запросов не ограничено пулом потоков.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tasks.db.limiter.enabled", havingValue = "true", matchIfMissing = true)
+public class DatabaseConcurrencyConfig {
+
+    @Bean
+    static BeanPostProcessor concurrencyLimitingDataSourcePostProcessor(Environment environment,
+                                                                        ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConcurrencyLimitingDataSource
+                        || bean instanceof ReplicaRoutingDataSource) {
+                    return bean;
+                }
+                int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+                return limit(dataSource, "primary", poolSize, environment, registry.getObject());
+            }
+        };
+    }
+
+    /**
+     * Оборачивает пул в ограничитель, если он включен (tasks.db.limiter.enabled).
+     * Для основной базы число разрешений можно задать явно (tasks.db.limiter.max-concurrent).
+     *
+     * @param dataSource пул соединений
+     * @param pool имя пула
+     * @param poolSize размер пула — число разрешений по умолчанию
+     * @param environment окружение с настройками ограничителя
+     * @param registry реестр метрик
+     * @return ограничитель поверх пула или сам пул
+     */
+    static DataSource limit(DataSource dataSource, String pool, int poolSize, Environment environment,
+                            MeterRegistry registry) {
+        if (!environment.getProperty("tasks.db.limiter.enabled", Boolean.class, true)) {
+            return dataSource;
+        }
+        int maxPermits = "primary".equals(pool)
+                ? environment.getProperty("tasks.db.limiter.max-concurrent", Integer.class, poolSize)
+                : poolSize;
+        int maxQueue = environment.getProperty("tasks.db.limiter.max-queue", Integer.class, 1000);
+        long timeout = environment.getProperty("tasks.db.limiter.timeout-ms", Long.class, 30_000L);
+        return new ConcurrencyLimitingDataSource(dataSource, pool, maxPermits, maxQueue, timeout, registry);
+    }
+}
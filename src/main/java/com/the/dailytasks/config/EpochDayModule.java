@@ -0,0 +1,41 @@
+package com.the.dailytasks.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Модуль Jackson для бинарных форматов: {@link LocalDate} записывается целым числом дней
+ * от 1970-01-01 (epoch day) вместо строки ISO. Чтение принимает то же число.
+ * Регистрируется после стандартных модулей, чтобы заменить сериализацию дат из JavaTimeModule.
+ */
+public class EpochDayModule extends SimpleModule {
+
+    public EpochDayModule() {
+        super("EpochDayModule");
+        addSerializer(LocalDate.class, new JsonSerializer<>() {
+            @Override
+            public void serialize(LocalDate value, JsonGenerator generator, SerializerProvider provider)
+                    throws IOException {
+                generator.writeNumber(value.toEpochDay());
+            }
+        });
+        addDeserializer(LocalDate.class, new JsonDeserializer<>() {
+            @Override
+            public LocalDate deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+                if (parser.currentToken() != JsonToken.VALUE_NUMBER_INT) {
+                    return (LocalDate) context.handleUnexpectedToken(LocalDate.class, parser);
+                }
+                return LocalDate.ofEpochDay(parser.getLongValue());
+            }
+        });
+    }
+}
@@ -0,0 +1,64 @@
+package com.the.dailytasks.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.util.StringUtils;
+
+/**
+ * Конфигурация реактивного варианта списочных эндпоинтов (профиль reactive).
+ * Пул R2DBC строится из tasks.reactive.r2dbc.* и наружу отдается только {@link DatabaseClient}:
+ * бин ConnectionFactory заставил бы Spring Boot отказаться от JDBC DataSource,
+ * на котором в том же приложении работают JPA, Flyway и фоновые задачи.
+ * Сервер — Reactor Netty: при наличии Tomcat в classpath Spring Boot выбрал бы его.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig implements DisposableBean {
+
+    private final ConnectionPool pool;
+
+    public ReactiveConfig(Environment environment) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions
+                .parse(environment.getRequiredProperty("tasks.reactive.r2dbc.url"))
+                .mutate();
+        String username = environment.getProperty("tasks.reactive.r2dbc.username");
+        if (StringUtils.hasLength(username)) {
+            options.option(ConnectionFactoryOptions.USER, username);
+        }
+        String password = environment.getProperty("tasks.reactive.r2dbc.password");
+        if (StringUtils.hasLength(password)) {
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        int poolSize = environment.getProperty("tasks.reactive.r2dbc.pool-size", Integer.class, 10);
+        this.pool = new ConnectionPool(ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options.build()))
+                .name("reactive")
+                .initialSize(poolSize)
+                .maxSize(poolSize)
+                .build());
+    }
+
+    @Bean
+    DatabaseClient databaseClient() {
+        return DatabaseClient.create(pool);
+    }
+
+    @Bean
+    NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Override
+    public void destroy() {
+        pool.dispose();
+    }
+}
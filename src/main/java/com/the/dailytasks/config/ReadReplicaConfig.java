@@ -0,0 +1,100 @@
+package com.the.dailytasks.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Конфигурация чтения с реплик.
+ * Заменяет источник данных Spring Boot на {@link ReplicaRoutingDataSource}: пул основной базы строится
+ * из spring.datasource.*, пулы реплик — из tasks.db.replicas.urls с теми же настройками Hikari.
+ * Клиенту, который недавно выполнял запись, чтения некоторое время отдаются с основной базы
+ * ({@link ReadYourWritesFilter}). Ограничитель параллельных обращений ставится на каждый пул отдельно.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tasks.db.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    /**
+     * Запрос отставания реплики PostgreSQL в миллисекундах. Реплика без активного потока WAL
+     * (приемник журнала не в состоянии streaming) возвращает NULL и считается недоступной:
+     * совпадение полученной и воспроизведенной позиций журнала тогда ничего не говорит об отставании.
+     * Реплика с работающим потоком, воспроизведшая весь полученный журнал, считается не отстающей,
+     * даже если на основной базе давно не было записей.
+     */
+    static final String POSTGRES_LAG_QUERY = """
+            SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0
+                        WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN NULL
+                        WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                        ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END""";
+
+    @Bean
+    ReplicaRoutingDataSource dataSource(DataSourceProperties properties, Environment environment,
+                                        ObjectProvider<MeterRegistry> registry) {
+        Binder binder = Binder.get(environment);
+        MeterRegistry meterRegistry = registry.getObject();
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        configurePool(primary, binder, meterRegistry, "primary");
+
+        String[] urls = environment.getProperty("tasks.db.replicas.urls", String[].class, new String[0]);
+        String username = environment.getProperty("tasks.db.replicas.username", properties.determineUsername());
+        String password = environment.getProperty("tasks.db.replicas.password", properties.determinePassword());
+        Integer poolSize = environment.getProperty("tasks.db.replicas.pool-size", Integer.class);
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.length; i++) {
+            HikariDataSource replica = DataSourceBuilder.create(properties.getClassLoader())
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(urls[i].trim())
+                    .username(username)
+                    .password(password)
+                    .build();
+            configurePool(replica, binder, meterRegistry, "replica-" + (i + 1));
+            if (poolSize != null) {
+                replica.setMaximumPoolSize(poolSize);
+            }
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+
+        ReplicaRoutingDataSource.Balance balance = ReplicaRoutingDataSource.Balance.valueOf(
+                environment.getProperty("tasks.db.replicas.balance", "round-robin")
+                        .toUpperCase(Locale.ROOT).replace('-', '_'));
+        return new ReplicaRoutingDataSource(primary, replicas, balance,
+                environment.getProperty("tasks.db.replicas.max-lag-ms", Long.class, 1000L),
+                environment.getProperty("tasks.db.replicas.lag-query", POSTGRES_LAG_QUERY),
+                environment.getProperty("tasks.db.replicas.check-interval-ms", Long.class, 1000L),
+                meterRegistry,
+                pool -> DatabaseConcurrencyConfig.limit(pool, pool.getPoolName(), pool.getMaximumPoolSize(),
+                        environment, meterRegistry));
+    }
+
+    @Bean
+    ReadYourWritesFilter readYourWritesFilter(Environment environment) {
+        return new ReadYourWritesFilter(
+                environment.getProperty("tasks.db.replicas.read-your-writes-ms", Long.class, 5000L));
+    }
+
+    /**
+     * Применяет к пулу настройки spring.datasource.hikari.* и подключает метрики Hikari.
+     */
+    private static void configurePool(HikariDataSource pool, Binder binder, MeterRegistry registry, String name) {
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+    }
+}
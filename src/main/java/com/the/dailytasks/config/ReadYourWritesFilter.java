@@ -0,0 +1,75 @@
+package com.the.dailytasks.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Окно read-your-writes для чтения с реплик.
+ * На запрос записи (любой метод, кроме GET, HEAD и OPTIONS) клиент получает cookie со временем
+ * окончания окна; пока окно не истекло, его запросы читают с основной базы и видят свои изменения
+ * независимо от отставания реплик. Cookie хранится на клиенте, поэтому окно действует
+ * на любом экземпляре приложения.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE_NAME = "tasks-primary-until";
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final long windowMillis;
+
+    /**
+     * @param windowMillis длительность окна после записи, мс
+     */
+    public ReadYourWritesFilter(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        boolean write = !READ_METHODS.contains(request.getMethod());
+        if (write) {
+            Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(now + windowMillis));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, (windowMillis + 999) / 1000));
+            response.addCookie(cookie);
+        }
+        if (!write && !insideWindow(request, now)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        Boolean previous = DataSourceRouting.requirePrimary();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            DataSourceRouting.restore(previous);
+        }
+    }
+
+    private static boolean insideWindow(HttpServletRequest request, long now) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue()) > now;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
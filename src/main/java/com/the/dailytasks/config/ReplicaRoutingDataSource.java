@@ -0,0 +1,229 @@
+package com.the.dailytasks.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Источник данных, направляющий read-only транзакции на реплики, а остальные — на основную базу.
+ * Соединение выбирается при первом запросе транзакции (ленивый прокси), когда признак read-only
+ * уже установлен менеджером транзакций. Реплика выбирается по кругу или по наименьшему числу
+ * занятых соединений среди исправных. Отставание реплик периодически проверяется запросом;
+ * реплика с отставанием больше допустимого, недоступная или вернувшая NULL (нет потока репликации)
+ * исключается до следующей проверки.
+ * Если исправных реплик нет, а также для потоков с {@link DataSourceRouting#isPrimaryRequired()},
+ * используется основная база. Каждый пул (основной базы и каждой реплики) может быть обернут
+ * своим ограничителем параллельных обращений, так что нагрузка на реплики не расходует
+ * разрешения основной базы и наоборот.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements DisposableBean {
+
+    /**
+     * Способ выбора реплики.
+     */
+    public enum Balance {
+        /** По кругу. */
+        ROUND_ROBIN,
+        /** С наименьшим числом занятых соединений. */
+        LEAST_LOADED
+    }
+
+    private static final String PRIMARY = "primary";
+    private static final long UNAVAILABLE = Long.MAX_VALUE;
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final Balance balance;
+    private final long maxLagMillis;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService lagChecker = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("replica-lag-check").daemon().factory());
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+
+    /**
+     * Реплика и результат последней проверки отставания.
+     */
+    private static final class Replica {
+        private final String name;
+        private final HikariDataSource pool;
+        private volatile long lagMillis = UNAVAILABLE;
+
+        Replica(String name, HikariDataSource pool) {
+            this.name = name;
+            this.pool = pool;
+        }
+
+        int activeConnections() {
+            HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+            return bean != null ? bean.getActiveConnections() : 0;
+        }
+    }
+
+    /**
+     * @param primary пул основной базы
+     * @param replicaPools пулы реплик
+     * @param balance способ выбора реплики
+     * @param maxLagMillis максимально допустимое отставание реплики, мс
+     * @param lagQuery запрос, возвращающий отставание реплики в миллисекундах (NULL — реплика не получает журнал)
+     * @param checkIntervalMillis период проверки отставания, мс
+     * @param registry реестр метрик
+     * @param limiter оборачивает пул перед регистрацией в маршрутизаторе (ограничитель пула)
+     */
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicaPools, Balance balance,
+                                    long maxLagMillis, String lagQuery, long checkIntervalMillis,
+                                    MeterRegistry registry, Function<HikariDataSource, DataSource> limiter) {
+        this.primary = primary;
+        this.balance = balance;
+        this.maxLagMillis = maxLagMillis;
+        this.lagQuery = lagQuery;
+        List<Replica> created = new ArrayList<>();
+        for (HikariDataSource pool : replicaPools) {
+            Replica replica = new Replica(pool.getPoolName(), pool);
+            created.add(replica);
+            Gauge.builder("tasks.db.replica.lag", replica,
+                            r -> r.lagMillis == UNAVAILABLE ? Double.NaN : r.lagMillis)
+                    .description("Replication lag of a read replica, ms (NaN if unavailable)")
+                    .tag("replica", replica.name)
+                    .register(registry);
+        }
+        this.replicas = List.copyOf(created);
+        this.primaryConnections = Counter.builder("tasks.db.routing.connections")
+                .description("Connections routed to the primary database or a read replica")
+                .tag("target", PRIMARY)
+                .register(registry);
+        this.replicaConnections = Counter.builder("tasks.db.routing.connections")
+                .description("Connections routed to the primary database or a read replica")
+                .tag("target", "replica")
+                .register(registry);
+
+        Router router = new Router();
+        Map<Object, Object> targets = new HashMap<>();
+        DataSource primaryTarget = limiter.apply(primary);
+        targets.put(PRIMARY, primaryTarget);
+        replicas.forEach(replica -> targets.put(replica.name, limiter.apply(replica.pool)));
+        router.setTargetDataSources(targets);
+        router.setDefaultTargetDataSource(primaryTarget);
+        router.setLenientFallback(false);
+        router.afterPropertiesSet();
+        setTargetDataSource(router);
+
+        checkReplicas();
+        lagChecker.scheduleWithFixedDelay(this::checkReplicas, checkIntervalMillis, checkIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        lagChecker.shutdownNow();
+        replicas.forEach(replica -> replica.pool.close());
+        primary.close();
+    }
+
+    /**
+     * Выбирает источник данных для нового физического соединения.
+     */
+    private final class Router extends AbstractRoutingDataSource {
+        @Override
+        protected Object determineCurrentLookupKey() {
+            if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                    && !DataSourceRouting.isPrimaryRequired()) {
+                Replica replica = chooseReplica();
+                if (replica != null) {
+                    replicaConnections.increment();
+                    return replica.name;
+                }
+            }
+            primaryConnections.increment();
+            return PRIMARY;
+        }
+    }
+
+    private Replica chooseReplica() {
+        List<Replica> healthy = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            if (replica.lagMillis <= maxLagMillis) {
+                healthy.add(replica);
+            }
+        }
+        if (healthy.isEmpty()) {
+            return null;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), healthy.size());
+        if (balance == Balance.ROUND_ROBIN) {
+            return healthy.get(start);
+        }
+        // Обход начинается с очередной реплики, чтобы при равной нагрузке выбор чередовался
+        Replica best = null;
+        int bestActive = Integer.MAX_VALUE;
+        for (int i = 0; i < healthy.size(); i++) {
+            Replica replica = healthy.get((start + i) % healthy.size());
+            int active = replica.activeConnections();
+            if (active < bestActive) {
+                best = replica;
+                bestActive = active;
+            }
+        }
+        return best;
+    }
+
+    private void checkReplicas() {
+        for (Replica replica : replicas) {
+            long lag;
+            boolean failed = false;
+            try (Connection connection = replica.pool.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(5);
+                try (ResultSet result = statement.executeQuery(lagQuery)) {
+                    lag = UNAVAILABLE;
+                    if (result.next()) {
+                        double value = result.getDouble(1);
+                        if (!result.wasNull()) {
+                            lag = Math.max(0, (long) value);
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (replica.lagMillis != UNAVAILABLE) {
+                    log.warn("Read replica {} is unavailable: {}", replica.name, e.getMessage());
+                }
+                lag = UNAVAILABLE;
+                failed = true;
+            }
+            boolean wasHealthy = replica.lagMillis <= maxLagMillis;
+            boolean healthy = lag <= maxLagMillis;
+            replica.lagMillis = lag;
+            if (healthy && !wasHealthy) {
+                log.info("Read replica {} is in service (lag {} ms)", replica.name, lag);
+            } else if (!healthy && wasHealthy && lag != UNAVAILABLE) {
+                log.warn("Read replica {} is out of service: lag {} ms exceeds {} ms", replica.name, lag, maxLagMillis);
+            } else if (!healthy && wasHealthy && !failed) {
+                log.warn("Read replica {} is out of service: replication stream is not active", replica.name);
+            }
+        }
+    }
+}
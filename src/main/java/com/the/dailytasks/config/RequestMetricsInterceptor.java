@@ -0,0 +1,71 @@
+package com.the.dailytasks.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Перехватчик, публикующий число SQL-операторов, выполненных за HTTP-запрос
+ * (метрика tasks.http.sql.statements с тегом endpoint).
+ */
+@Component
+public class RequestMetricsInterceptor implements HandlerInterceptor {
+
+    /**
+     * Значение тега endpoint для вызовов вне HTTP-запроса (загрузка индекса, асинхронная выгрузка).
+     */
+    static final String NO_ENDPOINT = "none";
+
+    private final ObjectProvider<MeterRegistry> registry;
+
+    public RequestMetricsInterceptor(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlStatementCounter.reset();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        MeterRegistry meterRegistry = registry.getIfAvailable();
+        if (meterRegistry != null) {
+            DistributionSummary.builder("tasks.http.sql.statements")
+                    .description("SQL statements prepared by Hibernate per HTTP request")
+                    .tag("endpoint", endpoint(request))
+                    .register(meterRegistry)
+                    .record(SqlStatementCounter.get());
+        }
+        SqlStatementCounter.clear();
+    }
+
+    /**
+     * Возвращает метку текущего эндпоинта в виде "GET /tasks/{id}".
+     * Используется шаблон пути, а не фактический путь, чтобы число значений тега было ограничено.
+     *
+     * @return метка эндпоинта или {@link #NO_ENDPOINT} вне HTTP-запроса
+     */
+    static String currentEndpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            return endpoint(servletAttributes.getRequest());
+        }
+        return NO_ENDPOINT;
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? NO_ENDPOINT : request.getMethod() + " " + pattern;
+    }
+}
@@ -0,0 +1,12 @@
+package com.the.dailytasks.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Включает выполнение задач по расписанию (обслуживание секций таблицы задач).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
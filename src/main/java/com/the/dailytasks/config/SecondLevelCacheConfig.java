@@ -0,0 +1,93 @@
+package com.the.dailytasks.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.OptionalLong;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Кеш второго уровня Hibernate на JCache (Caffeine).
+ * Регионы создаются здесь с ограничением размера и сроком жизни из tasks.cache.l2.*:
+ * task — задачи по идентификатору, регион результатов запросов — выборки, помеченные как кешируемые.
+ * Регион временных меток изменения таблиц не ограничивается и не истекает: по нему Hibernate
+ * определяет, что кешированный результат запроса устарел.
+ * Включение кешей в Hibernate задается в application.properties тем же флагом tasks.cache.l2.enabled.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tasks.cache.l2.enabled", havingValue = "true")
+public class SecondLevelCacheConfig {
+
+    /**
+     * Регион кеша сущностей {@link com.the.dailytasks.model.Task} (как в ее аннотации @Cache).
+     */
+    public static final String TASK_REGION = "task";
+
+    /**
+     * Момент, от которого отсчитывается срок жизни записи.
+     */
+    enum Expiry {
+        /** С момента записи в кеш. */
+        AFTER_WRITE,
+        /** С момента последнего обращения. */
+        AFTER_ACCESS
+    }
+
+    @Bean(destroyMethod = "close")
+    CacheManager hibernateCacheManager(Environment environment) {
+        // Отдельный менеджер на каждый контекст: имена регионов у всех контекстов одинаковые
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("urn:dailytasks:hibernate:" + UUID.randomUUID()),
+                        getClass().getClassLoader(), new Properties());
+        cacheManager.createCache(TASK_REGION, region(environment, "task", 100_000, Duration.ofMinutes(10)));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                region(environment, "query", 1_000, Duration.ofMinutes(5)));
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    /**
+     * Настройки региона из tasks.cache.l2.{name}.maximum-size, ttl и expiry.
+     */
+    private static CaffeineConfiguration<Object, Object> region(Environment environment, String name,
+                                                                long defaultSize, Duration defaultTtl) {
+        String prefix = "tasks.cache.l2." + name + ".";
+        long maximumSize = environment.getProperty(prefix + "maximum-size", Long.class, defaultSize);
+        Duration ttl = environment.getProperty(prefix + "ttl", Duration.class, defaultTtl);
+        Expiry expiry = Expiry.valueOf(environment.getProperty(prefix + "expiry", "after-write")
+                .toUpperCase(Locale.ROOT).replace('-', '_'));
+
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        if (expiry == Expiry.AFTER_WRITE) {
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        } else {
+            configuration.setExpireAfterAccess(OptionalLong.of(ttl.toNanos()));
+        }
+        return configuration;
+    }
+}
@@ -0,0 +1,280 @@
+package com.the.dailytasks.config;
+
+import com.the.dailytasks.dto.SlowQueryView;
+import net.ttddyy.dsproxy.ConnectionInfo;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.lifecycle.JdbcLifecycleEventListenerAdapter;
+import net.ttddyy.dsproxy.proxy.JdbcProxyFactory;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.proxy.jdk.JdkJdbcProxyFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Слушатель datasource-proxy, отбирающий запросы для {@link SlowQueryLog}.
+ * В журнал попадают запросы, выполнявшиеся дольше порога, и заданная доля остальных.
+ * Для изменяющих запросов число строк берется из результата выполнения; для выборок
+ * строки считаются по мере чтения, и запись публикуется при закрытии ResultSet, его оператора
+ * или соединения. Прокси получает только ResultSet отобранной выборки (см. {@link #proxyFactory()}):
+ * строки остальных читаются прямо из драйвера. Значения параметров обрезаются до {@value #MAX_PARAMETER_LENGTH} символов.
+ * Вызвавший метод определяется по стеку только для отобранных запросов.
+ */
+class SlowQueryListener extends JdbcLifecycleEventListenerAdapter {
+
+    private static final String SERVICE_PACKAGE = "com.the.dailytasks.service.";
+    private static final int MAX_PARAMETER_SETS = 10;
+    private static final int MAX_PARAMETER_LENGTH = 64;
+
+    /**
+     * Максимум одновременно читаемых отобранных выборок в потоке; сверх него число строк не считается.
+     */
+    private static final int MAX_PENDING = 64;
+
+    /**
+     * Отобранные выборки, результат которых еще читается, по прокси их ResultSet.
+     */
+    private static final ThreadLocal<Map<ResultSet, PendingQuery>> PENDING =
+            ThreadLocal.withInitial(IdentityHashMap::new);
+
+    private final SlowQueryLog slowQueryLog;
+    private final long thresholdMillis;
+    private final double sampleRate;
+
+    /**
+     * Выполняемый в потоке запрос этого источника данных.
+     */
+    private final ThreadLocal<Execution> execution = ThreadLocal.withInitial(Execution::new);
+
+    /**
+     * Начало выполнения запроса и решение об его отборе.
+     */
+    private static final class Execution {
+        private long startedNanos;
+        private boolean sampled;
+        private boolean selected;
+        private boolean slow;
+    }
+
+    private static final class PendingQuery {
+        private final SlowQueryView query;
+        private final String connectionId;
+        private long rows;
+
+        PendingQuery(SlowQueryView query, String connectionId) {
+            this.query = query;
+            this.connectionId = connectionId;
+        }
+    }
+
+    SlowQueryListener(SlowQueryLog slowQueryLog, long thresholdMillis, double sampleRate) {
+        this.slowQueryLog = slowQueryLog;
+        this.thresholdMillis = thresholdMillis;
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Возвращает фабрику прокси, которая оборачивает ResultSet только отобранной выборки.
+     * ResultSet создается до {@link #afterQuery}, поэтому выборка отбирается здесь: по времени
+     * с начала выполнения и по решению о выборочной записи, принятому в {@link #beforeQuery}.
+     */
+    JdbcProxyFactory proxyFactory() {
+        return new JdkJdbcProxyFactory() {
+            @Override
+            public ResultSet createResultSet(ResultSet resultSet, ConnectionInfo connectionInfo,
+                                             ProxyConfig proxyConfig) {
+                Execution current = execution.get();
+                current.slow = System.nanoTime() - current.startedNanos >= thresholdMillis * 1_000_000;
+                current.selected = current.slow || current.sampled;
+                return current.selected ? super.createResultSet(resultSet, connectionInfo, proxyConfig) : resultSet;
+            }
+        };
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Execution current = execution.get();
+        current.startedNanos = System.nanoTime();
+        current.sampled = sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+        current.selected = false;
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Execution current = execution.get();
+        Object result = execInfo.getResult();
+        boolean slow;
+        if (result instanceof ResultSet) {
+            // Выборку уже отобрала фабрика прокси: ResultSet остальных не обернут, и строки не считаются
+            if (!current.selected) {
+                return;
+            }
+            slow = current.slow;
+        } else {
+            slow = execInfo.getElapsedTime() >= thresholdMillis;
+            if (!slow && !current.sampled) {
+                return;
+            }
+        }
+        StringJoiner sql = new StringJoiner("; ");
+        List<String> parameters = new ArrayList<>();
+        for (QueryInfo queryInfo : queryInfoList) {
+            sql.add(queryInfo.getQuery());
+            for (List<ParameterSetOperation> parameterSet : queryInfo.getParametersList()) {
+                if (parameters.size() < MAX_PARAMETER_SETS) {
+                    parameters.add(format(parameterSet));
+                }
+            }
+        }
+        SlowQueryView query = new SlowQueryView(Instant.now(), execInfo.getElapsedTime(), sql.toString(),
+                parameters, null, caller(), slow);
+
+        Map<ResultSet, PendingQuery> pending = PENDING.get();
+        if (result instanceof ResultSet resultSet && pending.size() < MAX_PENDING) {
+            pending.put(resultSet, new PendingQuery(query, execInfo.getConnectionId()));
+        } else {
+            slowQueryLog.record(withRows(query, updateCount(result)));
+        }
+    }
+
+    @Override
+    public void afterNext(MethodExecutionContext executionContext) {
+        Map<ResultSet, PendingQuery> pending = PENDING.get();
+        if (!pending.isEmpty() && Boolean.TRUE.equals(executionContext.getResult())) {
+            PendingQuery query = pending.get(executionContext.getProxy());
+            if (query != null) {
+                query.rows++;
+            }
+        }
+    }
+
+    /**
+     * Публикует отобранную выборку при закрытии ее ResultSet или закрытии оператора либо соединения,
+     * которое неявно закрывает его ResultSet. Незакрытый ResultSet не остается в потоке
+     * после возврата соединения в пул.
+     */
+    @Override
+    public void afterClose(MethodExecutionContext executionContext) {
+        Map<ResultSet, PendingQuery> pending = PENDING.get();
+        if (pending.isEmpty()) {
+            return;
+        }
+        Object target = executionContext.getTarget();
+        if (target instanceof ResultSet) {
+            publish(pending.remove(executionContext.getProxy()));
+        } else if (target instanceof Statement statement) {
+            pending.entrySet().removeIf(entry -> {
+                if (statementOf(entry.getKey()) == statement) {
+                    publish(entry.getValue());
+                    return true;
+                }
+                return false;
+            });
+        } else if (target instanceof Connection) {
+            String connectionId = executionContext.getConnectionInfo().getConnectionId();
+            pending.entrySet().removeIf(entry -> {
+                if (connectionId.equals(entry.getValue().connectionId)) {
+                    publish(entry.getValue());
+                    return true;
+                }
+                return false;
+            });
+        }
+    }
+
+    private void publish(PendingQuery query) {
+        if (query != null) {
+            slowQueryLog.record(withRows(query.query, query.rows));
+        }
+    }
+
+    private static Statement statementOf(ResultSet resultSet) {
+        try {
+            return resultSet.getStatement();
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    private static SlowQueryView withRows(SlowQueryView query, Long rows) {
+        return new SlowQueryView(query.timestamp(), query.elapsedMillis(), query.sql(), query.parameters(),
+                rows, query.caller(), query.slow());
+    }
+
+    /**
+     * Возвращает число измененных строк по результату executeUpdate/executeBatch.
+     */
+    private static Long updateCount(Object result) {
+        if (result instanceof Number number) {
+            return number.longValue();
+        } else if (result instanceof int[] counts) {
+            long total = 0;
+            for (int count : counts) {
+                total += Math.max(count, 0);
+            }
+            return total;
+        } else if (result instanceof long[] counts) {
+            long total = 0;
+            for (long count : counts) {
+                total += Math.max(count, 0);
+            }
+            return total;
+        }
+        return null;
+    }
+
+    private static String format(List<ParameterSetOperation> parameterSet) {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (ParameterSetOperation operation : parameterSet) {
+            Object[] args = operation.getArgs();
+            joiner.add(args[0] + "=" + (ParameterSetOperation.isSetNullParameterOperation(operation)
+                    ? "null" : truncate(String.valueOf(args[1]))));
+        }
+        return joiner.toString();
+    }
+
+    private static String truncate(String value) {
+        return value.length() <= MAX_PARAMETER_LENGTH ? value
+                : value.substring(0, MAX_PARAMETER_LENGTH) + "...(" + value.length() + " chars)";
+    }
+
+    /**
+     * Находит в стеке ближайший метод сервисного слоя. Если запрос выполняется при фиксации
+     * транзакции, в стеке остается только прокси Spring, и берется его метод.
+     */
+    private static String caller() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(SERVICE_PACKAGE))
+                .findFirst()
+                .map(frame -> simpleName(frame.getClassName()) + "." + methodName(frame.getMethodName()))
+                .orElse(null));
+    }
+
+    private static String simpleName(String className) {
+        int proxySuffix = className.indexOf("$$");
+        return className.substring(SERVICE_PACKAGE.length(), proxySuffix < 0 ? className.length() : proxySuffix);
+    }
+
+    /**
+     * Приводит имя синтетического метода лямбды (lambda$getWeekTasks$1) к имени исходного метода.
+     */
+    private static String methodName(String name) {
+        if (name.startsWith("lambda$")) {
+            int end = name.indexOf('$', "lambda$".length());
+            return name.substring("lambda$".length(), end < 0 ? name.length() : end);
+        }
+        return name;
+    }
+}
@@ -0,0 +1,61 @@
+package com.the.dailytasks.config;
+
+import com.the.dailytasks.dto.SlowQueryView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Кольцевой буфер последних медленных (и выборочно — быстрых) SQL-запросов.
+ * Заполняется {@link SlowQueryListener}; запросы сверх порога дополнительно пишутся в лог
+ * без значений параметров (они доступны только в буфере).
+ */
+@Slf4j
+@Component
+public class SlowQueryLog {
+
+    private final SlowQueryView[] buffer;
+    private long written;
+
+    public SlowQueryLog(@Value("${tasks.sql.slow-log.capacity:200}") int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("tasks.sql.slow-log.capacity must be at least 1: " + capacity);
+        }
+        this.buffer = new SlowQueryView[capacity];
+    }
+
+    /**
+     * Добавляет запись, вытесняя самую старую при заполнении буфера.
+     *
+     * @param query запись о запросе
+     */
+    public void record(SlowQueryView query) {
+        if (query.slow()) {
+            log.warn("Slow query {} ms, {} rows, {} parameter sets, caller {}: {}",
+                    query.elapsedMillis(), query.rows(), query.parameters().size(), query.caller(), query.sql());
+        }
+        synchronized (buffer) {
+            buffer[(int) (written++ % buffer.length)] = query;
+        }
+    }
+
+    /**
+     * Возвращает записи буфера, начиная с самой новой.
+     *
+     * @param limit максимальное количество записей
+     * @return список записей
+     */
+    public List<SlowQueryView> recent(int limit) {
+        synchronized (buffer) {
+            int count = (int) Math.min(Math.min(written, buffer.length), Math.max(limit, 0));
+            List<SlowQueryView> result = new ArrayList<>(count);
+            for (long i = written - 1; i >= written - count; i--) {
+                result.add(buffer[(int) (i % buffer.length)]);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.the.dailytasks.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Конфигурация журнала медленных SQL-запросов.
+ * Оборачивает источник данных прокси datasource-proxy со слушателем {@link SlowQueryListener};
+ * ResultSet оборачивается только у выборок, отобранных в журнал.
+ * Заменяет spring.jpa.show-sql, который синхронно печатал каждый запрос.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tasks.sql.slow-log.enabled", havingValue = "true", matchIfMissing = true)
+public class SlowQueryLogConfig {
+
+    @Bean
+    static BeanPostProcessor slowQueryLogDataSourcePostProcessor(Environment environment,
+                                                                 ObjectProvider<SlowQueryLog> slowQueryLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                long threshold = environment.getProperty("tasks.sql.slow-log.threshold-ms", Long.class, 100L);
+                double sampleRate = environment.getProperty("tasks.sql.slow-log.sample-rate", Double.class, 0.0);
+                SlowQueryListener listener = new SlowQueryListener(slowQueryLog.getObject(), threshold, sampleRate);
+                return ProxyDataSourceBuilder.create(beanName, dataSource)
+                        .listener(listener)
+                        .proxyResultSet()
+                        .jdbcProxyFactory(listener.proxyFactory())
+                        .build();
+            }
+        };
+    }
+}
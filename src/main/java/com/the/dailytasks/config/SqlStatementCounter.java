@@ -0,0 +1,43 @@
+package com.the.dailytasks.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Счетчик SQL-операторов, подготовленных Hibernate в текущем потоке.
+ * Подключается как hibernate.session_factory.statement_inspector; обнуляется в начале каждого
+ * HTTP-запроса {@link RequestMetricsInterceptor}, поэтому к концу запроса содержит число
+ * выполненных им операторов. Текст операторов не изменяется.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    /**
+     * Обнуляет счетчик текущего потока.
+     */
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    /**
+     * Возвращает число операторов, подготовленных в текущем потоке после последнего обнуления.
+     *
+     * @return число операторов
+     */
+    public static int get() {
+        return COUNT.get()[0];
+    }
+
+    /**
+     * Освобождает счетчик текущего потока.
+     */
+    public static void clear() {
+        COUNT.remove();
+    }
+}
@@ -0,0 +1,121 @@
+package com.the.dailytasks.config;
+
+import com.the.dailytasks.dto.CursorPage;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Аспект, измеряющий вызовы публичных методов {@link com.the.dailytasks.service.TaskService}
+ * и всех методов {@link com.the.dailytasks.repository.TaskRepository}.
+ * Публикует таймеры tasks.service.calls и tasks.repository.calls и распределения
+ * tasks.service.rows и tasks.repository.rows (число возвращенных строк).
+ * Теги: method, endpoint (шаблон пути HTTP-запроса), outcome, а для сервиса — filter,
+ * набор заданных фильтров (например, "start,end,completed"), по которому видно,
+ * какая ветвь выборки была выбрана. Процентили настраиваются свойствами
+ * management.metrics.distribution.*.
+ * Аспект оборачивает транзакцию, поэтому время вызова сервиса включает фиксацию.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class TaskMetricsAspect {
+
+    /**
+     * Параметры методов сервиса, которые считаются фильтрами выборки.
+     */
+    private static final Set<String> FILTER_PARAMETERS = Set.of("start", "end", "completed", "cursor");
+
+    private final MeterRegistry registry;
+
+    @Around("execution(public * com.the.dailytasks.service.TaskService.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return measure(joinPoint, "tasks.service", Tags.of("filter", filter(joinPoint)));
+    }
+
+    @Around("execution(* com.the.dailytasks.repository.TaskRepository+.*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return measure(joinPoint, "tasks.repository", Tags.empty());
+    }
+
+    private Object measure(ProceedingJoinPoint joinPoint, String prefix, Tags extraTags) throws Throwable {
+        Tags tags = Tags.of("method", joinPoint.getSignature().getName(),
+                        "endpoint", RequestMetricsInterceptor.currentEndpoint())
+                .and(extraTags);
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "success";
+        try {
+            Object result = joinPoint.proceed();
+            long rows = rows(result);
+            if (rows >= 0) {
+                DistributionSummary.builder(prefix + ".rows")
+                        .description("Rows returned per call")
+                        .tags(tags)
+                        .register(registry)
+                        .record(rows);
+            }
+            return result;
+        } catch (Throwable e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(prefix + ".calls")
+                    .description("Call latency")
+                    .tags(tags)
+                    .tag("outcome", outcome)
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Возвращает набор заданных (не null) фильтров вызова.
+     */
+    private static String filter(ProceedingJoinPoint joinPoint) {
+        String[] names = ((MethodSignature) joinPoint.getSignature()).getParameterNames();
+        Object[] args = joinPoint.getArgs();
+        StringJoiner filter = new StringJoiner(",");
+        for (int i = 0; names != null && i < names.length; i++) {
+            if (FILTER_PARAMETERS.contains(names[i]) && args[i] != null && !"".equals(args[i])) {
+                filter.add(names[i]);
+            }
+        }
+        return filter.length() == 0 ? "none" : filter.toString();
+    }
+
+    /**
+     * Определяет число строк в результате вызова.
+     *
+     * @return число строк или -1, если результат не является выборкой
+     */
+    private static long rows(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        } else if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        } else if (result instanceof Window<?> window) {
+            return window.size();
+        } else if (result instanceof CursorPage<?> page) {
+            return page.content().size();
+        } else if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,20 @@
+package com.the.dailytasks.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Регистрирует перехватчик метрик HTTP-запросов.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebMetricsConfig implements WebMvcConfigurer {
+    private final RequestMetricsInterceptor requestMetricsInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(requestMetricsInterceptor);
+    }
+}
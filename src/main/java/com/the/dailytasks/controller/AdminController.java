@@ -0,0 +1,77 @@
+package com.the.dailytasks.controller;
+
+import com.the.dailytasks.config.SlowQueryLog;
+import com.the.dailytasks.dto.CacheStatsView;
+import com.the.dailytasks.dto.SlowQueryView;
+import com.the.dailytasks.service.TaskArchiver;
+import com.the.dailytasks.service.TaskStatsRollup;
+import com.the.dailytasks.service.TaskWindowCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Служебный контроллер для диагностики работы приложения.
+ * Предоставляет статистику внутренних кешей и индексов, журнал медленных SQL-запросов
+ * пересчет сводной статистики и запуск архивации.
+ */
+@RestController
+@RequestMapping("/admin")
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class AdminController {
+    private final TaskWindowCache windowCache;
+    private final SlowQueryLog slowQueryLog;
+    private final TaskStatsRollup statsRollup;
+    private final TaskArchiver archiver;
+
+    /**
+     * Получает статистику кеша выборок за сегодня/неделю/месяц.
+     *
+     * @return статистика попаданий, промахов и вытеснений и статус OK
+     */
+    @GetMapping("/cache/windows")
+    public ResponseEntity<CacheStatsView> getWindowCacheStats() {
+        return ResponseEntity.ok(windowCache.stats());
+    }
+
+    /**
+     * Получает последние записи журнала медленных SQL-запросов.
+     *
+     * @param limit максимальное количество записей (по умолчанию 50)
+     * @return записи, начиная с самой новой, и статус OK
+     */
+    @GetMapping("/sql/slow")
+    public ResponseEntity<List<SlowQueryView>> getSlowQueries(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(slowQueryLog.recent(limit));
+    }
+
+    /**
+     * Пересчитывает сводную статистику выполнения задач из таблицы задач.
+     * Используется для устранения расхождений.
+     *
+     * @return количество дней в пересчитанной статистике и статус OK
+     */
+    @PostMapping("/stats/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildStats() {
+        return ResponseEntity.ok(Map.of("days", statsRollup.rebuild()));
+    }
+
+    /**
+     * Переносит в архив выполненные задачи старше заданного возраста, не дожидаясь расписания.
+     *
+     * @return количество перенесенных задач и статус OK
+     */
+    @PostMapping("/archive/run")
+    public ResponseEntity<Map<String, Integer>> runArchive() {
+        return ResponseEntity.ok(Map.of("archived", archiver.archive()));
+    }
+}
@@ -0,0 +1,99 @@
+package com.the.dailytasks.controller;
+
+import com.the.dailytasks.model.Task;
+import com.the.dailytasks.repository.ReactiveTaskRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+
+/**
+ * Реактивный вариант списочных эндпоинтов {@link TaskController} (WebFlux + R2DBC).
+ * Работает в профиле reactive, в котором приложение запускается как реактивное
+ * и обслуживает только эти эндпоинты; предназначен для сравнения с основным стеком под одинаковой нагрузкой.
+ * Задачи отдаются потоком по мере чтения из базы: в формате application/json — массивом,
+ * в формате application/x-ndjson — по одной задаче в строке.
+ * Кеши, индекс в памяти и архив основного стека не используются.
+ */
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/tasks")
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveTaskController {
+
+    /** Наибольший размер страницы, как у пагинации Spring Data по умолчанию. */
+    static final int MAX_PAGE_SIZE = 2000;
+
+    private final ReactiveTaskRepository reactiveTaskRepository;
+
+    /**
+     * Получает страницу задач с возможностью фильтрации по датам и статусу выполнения.
+     * Задачи упорядочены по дате выполнения и идентификатору; общее количество не возвращается.
+     *
+     * @param start начальная дата диапазона (необязательный параметр)
+     * @param end конечная дата диапазона (необязательный параметр)
+     * @param completed статус выполнения (необязательный параметр)
+     * @param page номер страницы (по умолчанию 0)
+     * @param size размер страницы (по умолчанию 20)
+     * @return поток задач страницы
+     * @throws ServerWebInputException если номер или размер страницы вне допустимых границ (400)
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Task> getAllTasks(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @RequestParam(required = false) Boolean completed,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (page < 0) {
+            throw new ServerWebInputException("Page index must not be negative");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ServerWebInputException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return reactiveTaskRepository.findTasks(start, end, completed, (long) page * size, size);
+    }
+
+    /**
+     * Получает задачи на текущий день.
+     *
+     * @param includeCompleted включать ли выполненные задачи (по умолчанию false)
+     * @return поток задач
+     */
+    @GetMapping(value = "/today", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Task> getTodayTasks(@RequestParam(defaultValue = "false") boolean includeCompleted) {
+        return reactiveTaskRepository.findTodayTasks(includeCompleted);
+    }
+
+    /**
+     * Получает задачи на текущую неделю.
+     *
+     * @param includeCompleted включать ли выполненные задачи (по умолчанию false)
+     * @return поток задач
+     */
+    @GetMapping(value = "/week", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Task> getWeekTasks(@RequestParam(defaultValue = "false") boolean includeCompleted) {
+        return reactiveTaskRepository.findWeekTasks(includeCompleted);
+    }
+
+    /**
+     * Получает задачи на текущий месяц.
+     *
+     * @param includeCompleted включать ли выполненные задачи (по умолчанию false)
+     * @return поток задач
+     */
+    @GetMapping(value = "/month", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Task> getMonthTasks(@RequestParam(defaultValue = "false") boolean includeCompleted) {
+        return reactiveTaskRepository.findMonthTasks(includeCompleted);
+    }
+}
@@ -1,29 +1,50 @@
 package com.the.dailytasks.controller;
 
+import com.the.dailytasks.dto.CompletionStats;
+import com.the.dailytasks.dto.CursorPage;
+import com.the.dailytasks.dto.DailyTaskStats;
+import com.the.dailytasks.dto.TaskChangesPage;
+import com.the.dailytasks.dto.TaskSummary;
+import com.the.dailytasks.exception.InvalidCursorException;
 import com.the.dailytasks.model.Task;
+import com.the.dailytasks.service.SearchMode;
+import com.the.dailytasks.service.StatsPeriod;
 import com.the.dailytasks.service.TaskService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 /**
  * Контроллер для работы с задачами через REST API.
  * Предоставляет эндпоинты для всех операций CRUD с задачами,
  * а также дополнительные методы для фильтрации и поиска задач.
+ * Списочные методы возвращают краткие представления задач без описания,
+ * полная задача доступна по идентификатору.
  * Все методы возвращают данные в формате JSON.
  */
 @CrossOrigin(origins = "http://localhost:5173")
 @RestController
 @RequestMapping("/tasks")
+@Profile("!reactive")
 @RequiredArgsConstructor
 public class TaskController {
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
     private final TaskService taskService;
 
     /**
@@ -34,10 +55,10 @@ public class TaskController {
      * @param end конечная дата диапазона (необязательный параметр)
      * @param completed статус выполнения (необязательный параметр)
      * @param pageable параметры пагинации и сортировки
-     * @return страница с задачами и статус OK
+     * @return страница с краткими представлениями задач и статус OK
      */
     @GetMapping
-    public ResponseEntity<Page<Task>> getAllTasks(
+    public ResponseEntity<Page<TaskSummary>> getAllTasks(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
             @RequestParam(required = false) Boolean completed,
@@ -45,52 +66,177 @@ public class TaskController {
         return ResponseEntity.ok(taskService.getTasks(start, end, completed, pageable));
     }
 
+    /**
+     * Получает задачи курсорной (keyset) пагинацией без запроса общего количества.
+     * Режим включается наличием параметра cursor; для первой порции передается пустой курсор,
+     * для следующих — значение nextCursor из предыдущего ответа.
+     *
+     * @param start начальная дата диапазона (необязательный параметр)
+     * @param end конечная дата диапазона (необязательный параметр)
+     * @param completed статус выполнения (необязательный параметр)
+     * @param cursor курсор предыдущей порции (пустой для первой порции)
+     * @param size размер порции (по умолчанию 20)
+     * @param includeTotal подсчитывать ли общее количество задач (по умолчанию false)
+     * @return порция кратких представлений задач и статус OK
+     * @throws InvalidCursorException если курсор поврежден (400)
+     */
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPage<TaskSummary>> scrollTasks(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @RequestParam(required = false) Boolean completed,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(taskService.scrollTasks(start, end, completed, cursor, size, includeTotal));
+    }
+
     /**
      * Получает задачи на текущий день.
+     * Поддерживает условный запрос: при совпадении If-None-Match с текущим ETag
+     * возвращается NOT_MODIFIED без выборки задач. ETag зависит от формата ответа (Vary: Accept).
      *
      * @param includeCompleted включать ли выполненные задачи (по умолчанию false)
-     * @return список задач и статус OK
+     * @param ifNoneMatch значение заголовка If-None-Match (необязательный параметр)
+     * @return список кратких представлений задач и статус OK или статус NOT_MODIFIED
      */
     @GetMapping("/today")
-    public ResponseEntity<List<Task>> getTodayTasks(
-            @RequestParam(defaultValue = "false") boolean includeCompleted) {
-        return ResponseEntity.ok(taskService.getTodayTasks(includeCompleted));
+    public ResponseEntity<List<TaskSummary>> getTodayTasks(
+            @RequestParam(defaultValue = "false") boolean includeCompleted,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = representation(taskService.getTodayTasksETag(includeCompleted));
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        List<TaskSummary> tasks = taskService.getTodayTasks(includeCompleted);
+        return etag != null
+                ? ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(tasks)
+                : ResponseEntity.ok(tasks);
     }
 
     /**
      * Получает задачи на текущую неделю.
+     * Поддерживает условный запрос: при совпадении If-None-Match с текущим ETag
+     * возвращается NOT_MODIFIED без выборки задач. ETag зависит от формата ответа (Vary: Accept).
      *
      * @param includeCompleted включать ли выполненные задачи (по умолчанию false)
-     * @return список задач и статус OK
+     * @param ifNoneMatch значение заголовка If-None-Match (необязательный параметр)
+     * @return список кратких представлений задач и статус OK или статус NOT_MODIFIED
      */
     @GetMapping("/week")
-    public ResponseEntity<List<Task>> getWeekTasks(
-            @RequestParam(defaultValue = "false") boolean includeCompleted) {
-        return ResponseEntity.ok(taskService.getWeekTasks(includeCompleted));
+    public ResponseEntity<List<TaskSummary>> getWeekTasks(
+            @RequestParam(defaultValue = "false") boolean includeCompleted,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = representation(taskService.getWeekTasksETag(includeCompleted));
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        List<TaskSummary> tasks = taskService.getWeekTasks(includeCompleted);
+        return etag != null
+                ? ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(tasks)
+                : ResponseEntity.ok(tasks);
     }
 
     /**
      * Получает задачи на текущий месяц.
+     * Поддерживает условный запрос: при совпадении If-None-Match с текущим ETag
+     * возвращается NOT_MODIFIED без выборки задач. ETag зависит от формата ответа (Vary: Accept).
      *
      * @param includeCompleted включать ли выполненные задачи (по умолчанию false)
-     * @return список задач и статус OK
+     * @param ifNoneMatch значение заголовка If-None-Match (необязательный параметр)
+     * @return список кратких представлений задач и статус OK или статус NOT_MODIFIED
      */
     @GetMapping("/month")
-    public ResponseEntity<List<Task>> getMonthTasks(
-            @RequestParam(defaultValue = "false") boolean includeCompleted) {
-        return ResponseEntity.ok(taskService.getMonthTasks(includeCompleted));
+    public ResponseEntity<List<TaskSummary>> getMonthTasks(
+            @RequestParam(defaultValue = "false") boolean includeCompleted,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = representation(taskService.getMonthTasksETag(includeCompleted));
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        List<TaskSummary> tasks = taskService.getMonthTasks(includeCompleted);
+        return etag != null
+                ? ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(tasks)
+                : ResponseEntity.ok(tasks);
+    }
+
+    /**
+     * Получает количество задач по дням диапазона для календаря.
+     * Дни без задач в ответ не попадают.
+     *
+     * @param start начальная дата диапазона
+     * @param end конечная дата диапазона
+     * @return статистика по дням (всего, выполненных, невыполненных) и статус OK
+     * @throws IllegalArgumentException если начальная дата позже конечной
+     */
+    @GetMapping("/stats/daily")
+    public ResponseEntity<List<DailyTaskStats>> getDailyStats(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+        return ResponseEntity.ok(taskService.getDailyStats(start, end));
+    }
+
+    /**
+     * Получает статистику выполнения задач по периодам за всю историю или за диапазон дат.
+     *
+     * @param period период группировки: DAY, WEEK, MONTH или YEAR (по умолчанию WEEK)
+     * @param start начальная дата диапазона (необязательный параметр)
+     * @param end конечная дата диапазона (необязательный параметр)
+     * @return статистика по периодам (всего, выполненных, невыполненных, доля выполненных) и статус OK
+     * @throws IllegalArgumentException если начальная дата позже конечной
+     */
+    @GetMapping("/stats/completion")
+    public ResponseEntity<List<CompletionStats>> getCompletionStats(
+            @RequestParam(defaultValue = "WEEK") StatsPeriod period,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+        return ResponseEntity.ok(taskService.getCompletionStats(period, start, end));
+    }
+
+    /**
+     * Получает изменения задач после курсора для инкрементальной синхронизации.
+     * Удаленные задачи возвращаются отметками удаления. Клиент сохраняет курсор из ответа
+     * и передает его в следующем запросе; при hasMore следующую порцию можно запросить сразу.
+     *
+     * @param since курсор из предыдущего ответа (без параметра — все задачи с начала журнала)
+     * @param limit максимальное количество изменений (по умолчанию 500)
+     * @return порция изменений с курсором и статус OK
+     * @throws IllegalArgumentException если курсор некорректен
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<TaskChangesPage> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(taskService.getChanges(since, limit));
     }
 
     /**
      * Получает задачу по идентификатору.
      *
+     * В заголовке ETag возвращается версия задачи (для CBOR и Smile — с суффиксом формата).
+     * Если версия из If-None-Match совпадает с текущей, возвращается NOT_MODIFIED без загрузки задачи.
+     *
      * @param id идентификатор задачи
-     * @return найденная задача и статус OK
+     * @param ifNoneMatch значение заголовка If-None-Match (необязательный параметр)
+     * @return найденная задача и статус OK или статус NOT_MODIFIED
      * @throws com.the.dailytasks.exception.TaskNotFoundException если задача не найдена
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Task> getTaskById(@PathVariable Long id) {
-        return ResponseEntity.ok(taskService.getTaskById(id));
+    public ResponseEntity<Task> getTaskById(@PathVariable Long id,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Long known = taskService.getKnownTaskVersion(id);
+            String etag = known != null ? representation(String.valueOf(known)) : null;
+            if (matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+            }
+        }
+        Task task = taskService.getTaskById(id);
+        String etag = task.getVersion() != null ? representation(String.valueOf(task.getVersion())) : null;
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        return withETag(task);
     }
 
     /**
@@ -106,18 +252,68 @@ public class TaskController {
                 .body(taskService.createTask(task));
     }
 
+    /**
+     * Создает задачи пакетом. Все задачи проверяются до начала записи,
+     * вставка выполняется JDBC-пакетами.
+     *
+     * @param tasks данные для создания задач
+     * @return созданные задачи и статус CREATED
+     * @throws IllegalArgumentException если хотя бы одна задача некорректна
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<Task>> createTasks(@RequestBody List<Task> tasks) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(taskService.createTasks(tasks));
+    }
+
+    /**
+     * Полностью обновляет задачи пакетом. Каждая задача должна содержать идентификатор.
+     *
+     * @param tasks новые данные задач
+     * @return обновленные задачи и статус OK
+     * @throws com.the.dailytasks.exception.TaskNotFoundException если хотя бы одна задача не найдена
+     * @throws IllegalArgumentException если хотя бы одна задача некорректна
+     */
+    @PatchMapping("/batch")
+    public ResponseEntity<List<Task>> updateTasks(@RequestBody List<Task> tasks) {
+        return ResponseEntity.ok(taskService.updateTasks(tasks));
+    }
+
+    /**
+     * Удаляет задачи пакетом.
+     *
+     * @param ids идентификаторы удаляемых задач
+     * @return статус NO_CONTENT
+     * @throws com.the.dailytasks.exception.TaskNotFoundException если хотя бы одна задача не найдена
+     */
+    @DeleteMapping("/batch")
+    public ResponseEntity<Void> deleteTasks(@RequestBody List<Long> ids) {
+        taskService.deleteTasks(ids);
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Полностью обновляет существующую задачу.
+     * Если передан заголовок If-Match, обновление выполняется только при совпадении
+     * версии задачи с указанной, иначе возвращается статус CONFLICT.
      *
      * @param id идентификатор задачи
+     * @param ifMatch ожидаемая версия задачи (ETag, необязательный заголовок)
      * @param task новые данные задачи
      * @return обновленная задача и статус OK
      * @throws com.the.dailytasks.exception.TaskNotFoundException если задача не найдена
-     * @throws IllegalArgumentException если дата выполнения некорректна
+     * @throws com.the.dailytasks.exception.TaskVersionConflictException если версия задачи изменилась
+     * @throws IllegalArgumentException если дата выполнения или заголовок If-Match некорректны
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Task> updateTask(@PathVariable Long id, @RequestBody Task task) {
-        return ResponseEntity.ok(taskService.updateTask(id, task));
+    public ResponseEntity<Task> updateTask(@PathVariable Long id,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                           @RequestBody Task task) {
+        Long expectedVersion = parseVersion(ifMatch);
+        if (expectedVersion != null) {
+            task.setVersion(expectedVersion);
+        }
+        return withETag(taskService.updateTask(id, task));
     }
 
     /**
@@ -129,7 +325,7 @@ public class TaskController {
      */
     @PatchMapping("/{id}/completion")
     public ResponseEntity<Task> toggleTaskCompletion(@PathVariable Long id) {
-        return ResponseEntity.ok(taskService.toggleCompletion(id));
+        return withETag(taskService.toggleCompletion(id));
     }
 
     /**
@@ -141,7 +337,7 @@ public class TaskController {
      */
     @PatchMapping("/{id}/uncompleted")
     public ResponseEntity<Task> toggleTaskUnCompletion(@PathVariable Long id) {
-        return ResponseEntity.ok(taskService.toggleUnCompletion(id));
+        return withETag(taskService.toggleUnCompletion(id));
     }
 
     /**
@@ -158,16 +354,144 @@ public class TaskController {
     }
 
     /**
-     * Ищет задачи по частичному совпадению названия.
+     * Ищет задачи по названию.
+     * Результаты упорядочены по убыванию релевантности.
      *
      * @param title текст для поиска в названии
-     * @param exactMatch точное совпадение (по умолчанию false)
-     * @return список найденных задач и статус OK
+     * @param mode режим поиска: CONTAINS, EXACT, PREFIX или FUZZY (по умолчанию CONTAINS — подстрока)
+     * @param exactMatch точное совпадение, устаревший аналог mode=EXACT (по умолчанию false)
+     * @param includeCompleted включать ли выполненные задачи (по умолчанию false)
+     * @param limit максимальное количество результатов (по умолчанию 50)
+     * @return список кратких представлений найденных задач и статус OK
      */
     @GetMapping("/search")
-    public ResponseEntity<List<Task>> searchTasks(
+    public ResponseEntity<List<TaskSummary>> searchTasks(
             @RequestParam String title,
-            @RequestParam(defaultValue = "false") boolean exactMatch) {
-        return ResponseEntity.ok(taskService.searchTasksByTitle(title, exactMatch));
+            @RequestParam(required = false) SearchMode mode,
+            @RequestParam(defaultValue = "false") boolean exactMatch,
+            @RequestParam(defaultValue = "false") boolean includeCompleted,
+            @RequestParam(defaultValue = "50") int limit) {
+        SearchMode searchMode = mode != null ? mode : exactMatch ? SearchMode.EXACT : SearchMode.CONTAINS;
+        return ResponseEntity.ok(taskService.searchTasksByTitle(title, searchMode, includeCompleted, limit));
+    }
+
+    /**
+     * Формирует ответ OK с версией задачи в заголовке ETag.
+     *
+     * @param task задача
+     * @return ответ с задачей
+     */
+    private static ResponseEntity<Task> withETag(Task task) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (task.getVersion() != null) {
+            response.eTag(representation(String.valueOf(task.getVersion()))).varyBy(HttpHeaders.ACCEPT);
+        }
+        return response.body(task);
+    }
+
+    /**
+     * Добавляет к ETag формат ответа: одно и то же состояние в JSON, CBOR и Smile — разные
+     * представления, и валидатор одного не должен подходить к другому. Для JSON (формат
+     * по умолчанию) значение не меняется, для бинарных форматов добавляется суффикс -cbor или -smile.
+     *
+     * @param etag ETag без кавычек (может быть null)
+     * @return ETag представления или null
+     */
+    private static String representation(String etag) {
+        String format = etag != null ? responseFormat() : null;
+        return format != null ? etag + "-" + format : etag;
+    }
+
+    /**
+     * Определяет формат ответа по заголовку Accept текущего запроса так же, как выбор конвертера:
+     * в порядке убывания q первый тип, совместимый с JSON, CBOR или Smile; JSON проверяется первым.
+     *
+     * @return cbor, smile или null для JSON
+     */
+    private static String responseFormat() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return null;
+        }
+        String accept = attributes.getRequest().getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return null;
+        }
+        List<MediaType> types;
+        try {
+            types = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        types.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : types) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            if (type.includes(MediaType.APPLICATION_JSON)) {
+                return null;
+            }
+            if (type.includes(MediaType.APPLICATION_CBOR)) {
+                return "cbor";
+            }
+            if (type.includes(SMILE)) {
+                return "smile";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Проверяет, совпадает ли текущий ETag с одним из значений заголовка If-None-Match.
+     * Сравнение слабое: префикс W/ не учитывается.
+     *
+     * @param ifNoneMatch значение заголовка (может быть null)
+     * @param etag текущий ETag без кавычек (может быть null)
+     * @return true, если клиент уже имеет актуальное представление
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*")) {
+                return true;
+            }
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.replace("\"", "").equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Извлекает версию задачи из заголовка If-Match.
+     *
+     * @param ifMatch значение заголовка (может быть null)
+     * @return версия или null, если проверка версии не требуется
+     * @throws IllegalArgumentException если значение заголовка некорректно
+     */
+    private static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        value = value.replace("\"", "");
+        // Суффикс формата (-cbor, -smile) не входит в версию
+        int format = value.indexOf('-');
+        if (format > 0) {
+            value = value.substring(0, format);
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid If-Match header: " + ifMatch);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,103 @@
+package com.the.dailytasks.controller;
+
+import com.the.dailytasks.exception.ExportCapacityExceededException;
+import com.the.dailytasks.service.DataFormat;
+import com.the.dailytasks.service.TaskExportService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Контроллер потоковой выгрузки задач.
+ * Отдает задачи за произвольный диапазон дат в формате NDJSON или CSV по мере чтения из базы,
+ * без формирования всего ответа в памяти. Сжатие gzip выполняется сервером
+ * при наличии заголовка Accept-Encoding. Выгрузка ограничена своим временем
+ * {@code tasks.export.timeout-ms}, а не общим тайм-аутом асинхронных запросов.
+ * Каждая выгрузка держит соединение с базой до конца записи, поэтому одновременно
+ * выполняется не больше {@code tasks.export.max-concurrent} выгрузок, остальные получают 503:
+ * так выгрузки не забирают весь пул соединений у обычных запросов.
+ */
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/tasks/export")
+@Profile("!reactive")
+public class TaskExportController {
+    private final TaskExportService exportService;
+
+    /**
+     * Максимальное время выгрузки в миллисекундах (-1 — без ограничения).
+     */
+    private final long timeoutMillis;
+
+    /**
+     * Разрешения на одновременные выгрузки.
+     */
+    private final Semaphore exports;
+
+    public TaskExportController(TaskExportService exportService,
+                                @Value("${tasks.export.timeout-ms:900000}") long timeoutMillis,
+                                @Value("${tasks.export.max-concurrent:2}") int maxConcurrent) {
+        this.exportService = exportService;
+        this.timeoutMillis = timeoutMillis;
+        this.exports = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Выгружает задачи за диапазон дат.
+     *
+     * @param start начальная дата диапазона
+     * @param end конечная дата диапазона
+     * @param completed статус выполнения (необязательный параметр)
+     * @param format формат выгрузки: NDJSON или CSV (по умолчанию NDJSON)
+     * @param request текущий запрос, для которого задается тайм-аут выгрузки
+     * @return потоковое тело ответа и статус OK
+     * @throws ExportCapacityExceededException если достигнуто максимальное число одновременных выгрузок
+     */
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> exportTasks(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @RequestParam(required = false) Boolean completed,
+            @RequestParam(defaultValue = "NDJSON") DataFormat format,
+            WebRequest request) {
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        if (!exports.tryAcquire()) {
+            throw new ExportCapacityExceededException("Too many concurrent exports");
+        }
+        try {
+            // StreamingResponseBody выполняется с тайм-аутом асинхронного запроса, заданным до его запуска
+            WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(timeoutMillis);
+            String filename = "tasks-" + start + "-" + end + "." + format.getExtension();
+            return ResponseEntity.ok()
+                    .contentType(format.getMediaType())
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            ContentDisposition.attachment().filename(filename).build().toString())
+                    .body(out -> {
+                        try {
+                            exportService.exportTasks(start, end, completed, format, out);
+                        } finally {
+                            exports.release();
+                        }
+                    });
+        } catch (RuntimeException e) {
+            exports.release();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.the.dailytasks.controller;
+
+import com.the.dailytasks.dto.ImportReport;
+import com.the.dailytasks.service.DataFormat;
+import com.the.dailytasks.service.TaskImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+
+/**
+ * Контроллер массовой загрузки задач.
+ * Принимает тело запроса в формате NDJSON или CSV и разбирает его по мере чтения,
+ * не загружая целиком в память.
+ */
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/tasks/import")
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class TaskImportController {
+    private final TaskImportService importService;
+
+    /**
+     * Загружает задачи из тела запроса.
+     * Некорректные строки пропускаются и перечисляются в отчете.
+     *
+     * @param format формат тела запроса: NDJSON или CSV (по умолчанию NDJSON)
+     * @param body тело запроса
+     * @return отчет о загрузке и статус OK
+     * @throws IllegalArgumentException если заголовок CSV некорректен
+     */
+    @PostMapping
+    public ResponseEntity<ImportReport> importTasks(
+            @RequestParam(defaultValue = "NDJSON") DataFormat format,
+            InputStream body) {
+        return ResponseEntity.ok(importService.importTasks(format, body));
+    }
+}
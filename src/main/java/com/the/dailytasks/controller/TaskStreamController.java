@@ -0,0 +1,53 @@
+package com.the.dailytasks.controller;
+
+import com.the.dailytasks.service.TaskChangeStream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+
+/**
+ * Контроллер потока изменений задач (Server-Sent Events).
+ * Подписчик получает события change с типом изменения и новым состоянием задачи,
+ * а при переполнении своей очереди — событие resync, после которого выборку нужно перечитать.
+ */
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping("/tasks/stream")
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class TaskStreamController {
+    private final TaskChangeStream changeStream;
+
+    /**
+     * Подписывает клиента на изменения задач.
+     * Изменение передается, если под фильтр подходит старое или новое состояние задачи,
+     * поэтому подписчик узнает и об уходе задачи из своей выборки.
+     *
+     * @param start начальная дата выполнения (необязательный параметр)
+     * @param end конечная дата выполнения (необязательный параметр)
+     * @param completed статус выполнения (необязательный параметр)
+     * @return SSE-подключение
+     * @throws IllegalArgumentException если начальная дата позже конечной
+     * @throws com.the.dailytasks.exception.StreamCapacityExceededException если достигнуто
+     *         максимальное число подписчиков
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @RequestParam(required = false) Boolean completed) {
+        if (start != null && end != null && start.isAfter(end)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        return changeStream.subscribe(new TaskChangeStream.Filter(start, end, completed));
+    }
+}
@@ -0,0 +1,20 @@
+package com.the.dailytasks.dto;
+
+/**
+ * Статистика кеша для подбора его размера.
+ *
+ * @param size текущее количество записей
+ * @param hits количество попаданий
+ * @param misses количество промахов
+ * @param hitRate доля попаданий
+ * @param evictions количество вытеснений (по размеру и по истечению срока)
+ * @param invalidations количество записей, сброшенных из-за изменения задач
+ */
+public record CacheStatsView(
+        long size,
+        long hits,
+        long misses,
+        double hitRate,
+        long evictions,
+        long invalidations) {
+}
@@ -0,0 +1,28 @@
+package com.the.dailytasks.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Статистика выполнения задач за период.
+ *
+ * @param periodStart первый день периода
+ * @param total всего задач с датой выполнения в периоде
+ * @param completed выполненных задач
+ * @param open невыполненных задач
+ * @param completionRate доля выполненных задач (от 0 до 1)
+ */
+public record CompletionStats(LocalDate periodStart, long total, long completed, long open, double completionRate) {
+
+    /**
+     * Создает статистику периода по общему количеству и количеству выполненных задач.
+     *
+     * @param periodStart первый день периода
+     * @param total всего задач
+     * @param completed выполненных задач
+     * @return статистика периода
+     */
+    public static CompletionStats of(LocalDate periodStart, long total, long completed) {
+        return new CompletionStats(periodStart, total, completed, total - completed,
+                total == 0 ? 0 : (double) completed / total);
+    }
+}
@@ -0,0 +1,27 @@
+package com.the.dailytasks.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Порция результатов курсорной (keyset) пагинации.
+ * В отличие от {@link org.springframework.data.domain.Page} не требует запроса COUNT(*):
+ * клиент получает только содержимое, признак наличия следующей порции и
+ * непрозрачный курсор для ее запроса.
+ *
+ * @param content элементы текущей порции
+ * @param size запрошенный размер порции
+ * @param hasNext есть ли следующая порция
+ * @param nextCursor курсор следующей порции (null, если порция последняя)
+ * @param totalElements общее число элементов (только если было запрошено явно)
+ * @param <T> тип элементов
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CursorPage<T>(
+        List<T> content,
+        int size,
+        boolean hasNext,
+        String nextCursor,
+        Long totalElements) {
+}
@@ -0,0 +1,26 @@
+package com.the.dailytasks.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Количество задач за один день: всего, выполненных и невыполненных.
+ *
+ * @param dueDate дата выполнения
+ * @param total всего задач
+ * @param completed выполненных задач
+ * @param open невыполненных задач
+ */
+public record DailyTaskStats(LocalDate dueDate, long total, long completed, long open) {
+
+    /**
+     * Создает статистику дня по общему количеству и количеству выполненных задач.
+     * Используется в JPQL-выражении конструктора.
+     *
+     * @param dueDate дата выполнения
+     * @param total всего задач
+     * @param completed выполненных задач
+     */
+    public DailyTaskStats(LocalDate dueDate, Long total, Long completed) {
+        this(dueDate, total, completed, total - completed);
+    }
+}
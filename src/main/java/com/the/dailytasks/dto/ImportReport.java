@@ -0,0 +1,29 @@
+package com.the.dailytasks.dto;
+
+import java.util.List;
+
+/**
+ * Результат массовой загрузки задач.
+ *
+ * @param imported количество загруженных задач
+ * @param rejected количество отклоненных строк
+ * @param errors ошибки по строкам (не более заданного лимита)
+ * @param elapsedMillis длительность загрузки в миллисекундах
+ * @param rowsPerSecond пропускная способность, строк в секунду
+ */
+public record ImportReport(
+        long imported,
+        long rejected,
+        List<RowError> errors,
+        long elapsedMillis,
+        double rowsPerSecond) {
+
+    /**
+     * Ошибка обработки строки входных данных.
+     *
+     * @param line номер строки (для CSV — строка начала записи)
+     * @param message описание ошибки
+     */
+    public record RowError(long line, String message) {
+    }
+}
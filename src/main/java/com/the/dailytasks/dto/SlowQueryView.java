@@ -0,0 +1,25 @@
+package com.the.dailytasks.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Запись журнала медленных SQL-запросов.
+ *
+ * @param timestamp время завершения выполнения запроса
+ * @param elapsedMillis время выполнения запроса, мс (без чтения результата)
+ * @param sql текст запроса
+ * @param parameters значения параметров (для пакета — по одному элементу на набор параметров)
+ * @param rows число прочитанных или измененных строк (null, если неизвестно)
+ * @param caller вызвавший метод сервиса (например, "TaskService.getTasks") или null
+ * @param slow превысил ли запрос порог (false — запрос попал в журнал по выборке)
+ */
+public record SlowQueryView(
+        Instant timestamp,
+        long elapsedMillis,
+        String sql,
+        List<String> parameters,
+        Long rows,
+        String caller,
+        boolean slow) {
+}
@@ -0,0 +1,27 @@
+package com.the.dailytasks.dto;
+
+import com.the.dailytasks.event.TaskChangedEvent;
+import com.the.dailytasks.event.TaskSnapshot;
+
+/**
+ * Изменение задачи, передаваемое подписчикам потока изменений.
+ *
+ * @param type тип изменения
+ * @param id идентификатор задачи
+ * @param task состояние задачи после изменения (null для удаления)
+ */
+public record TaskChangeView(TaskChangedEvent.Type type, Long id, TaskSummary task) {
+
+    /**
+     * Создает представление изменения из события.
+     *
+     * @param event событие изменения задачи
+     * @return представление изменения
+     */
+    public static TaskChangeView of(TaskChangedEvent event) {
+        TaskSnapshot after = event.after();
+        TaskSummary task = after == null ? null
+                : new TaskSummary(after.id(), after.title(), after.completed(), after.dueDate(), after.version());
+        return new TaskChangeView(event.type(), event.taskId(), task);
+    }
+}
@@ -0,0 +1,15 @@
+package com.the.dailytasks.dto;
+
+import java.util.List;
+
+/**
+ * Порция изменений задач после курсора синхронизации.
+ * В отличие от {@link CursorPage} курсор возвращается всегда: клиент сохраняет его
+ * и передает при следующей синхронизации, даже если изменений не было.
+ *
+ * @param changes изменения в порядке возрастания ревизии
+ * @param hasMore есть ли следующие изменения (запросить сразу с новым курсором)
+ * @param cursor курсор для следующего запроса
+ */
+public record TaskChangesPage(List<TaskDelta> changes, boolean hasMore, String cursor) {
+}
@@ -0,0 +1,29 @@
+package com.the.dailytasks.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Изменение задачи для инкрементальной синхронизации.
+ *
+ * @param revision ревизия изменения
+ * @param id идентификатор задачи
+ * @param deleted признак удаления задачи (также для задачи, исчезнувшей из базы в обход журнала)
+ * @param updatedAt время изменения
+ * @param task текущее состояние задачи, для перенесенной в архив — архивное (null для удаленной)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TaskDelta(long revision, Long id, boolean deleted, Instant updatedAt, TaskSummary task) {
+
+    /**
+     * Создает изменение из строки журнала и полей задачи (для JPQL-проекции).
+     * Для удаленной задачи поля задачи равны null.
+     */
+    public TaskDelta(long revision, Long id, boolean deleted, Instant updatedAt,
+                     String title, Boolean completed, LocalDate dueDate, Long version) {
+        this(revision, id, deleted, updatedAt, deleted || completed == null ? null
+                : new TaskSummary(id, title, completed, dueDate, version));
+    }
+}
@@ -0,0 +1,29 @@
+package com.the.dailytasks.dto;
+
+import com.the.dailytasks.model.Task;
+
+import java.time.LocalDate;
+
+/**
+ * Краткое представление задачи для списков.
+ * Не содержит описания: оно не выбирается из базы и не передается клиенту.
+ * Полная задача доступна по идентификатору.
+ *
+ * @param id идентификатор задачи
+ * @param title название задачи
+ * @param completed статус выполнения
+ * @param dueDate срок выполнения
+ * @param version версия задачи
+ */
+public record TaskSummary(Long id, String title, boolean completed, LocalDate dueDate, Long version) {
+
+    /**
+     * Создает краткое представление задачи.
+     *
+     * @param task задача
+     * @return краткое представление
+     */
+    public static TaskSummary of(Task task) {
+        return new TaskSummary(task.getId(), task.getTitle(), task.isCompleted(), task.getDueDate(), task.getVersion());
+    }
+}
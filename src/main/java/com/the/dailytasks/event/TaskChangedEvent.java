@@ -0,0 +1,58 @@
+package com.the.dailytasks.event;
+
+import com.the.dailytasks.model.Task;
+
+/**
+ * Событие изменения задачи, публикуемое сервисом задач.
+ * Подписчики получают его через {@code @TransactionalEventListener} после фиксации транзакции,
+ * поэтому откаченные изменения до них не доходят. Сводная статистика и журнал изменений
+ * обрабатывают событие обычным {@code @EventListener} в транзакции записи.
+ *
+ * @param type тип изменения
+ * @param taskId идентификатор задачи
+ * @param before состояние до изменения (null для создания или если неизвестно)
+ * @param after состояние после изменения (null для удаления)
+ */
+public record TaskChangedEvent(Type type, Long taskId, TaskSnapshot before, TaskSnapshot after) {
+
+    /**
+     * Тип изменения задачи.
+     */
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    /**
+     * Создает событие создания задачи.
+     *
+     * @param task созданная задача
+     * @return событие
+     */
+    public static TaskChangedEvent created(Task task) {
+        return new TaskChangedEvent(Type.CREATED, task.getId(), null, TaskSnapshot.of(task));
+    }
+
+    /**
+     * Создает событие изменения задачи.
+     *
+     * @param before состояние до изменения
+     * @param task измененная задача
+     * @return событие
+     */
+    public static TaskChangedEvent updated(TaskSnapshot before, Task task) {
+        return new TaskChangedEvent(Type.UPDATED, task.getId(), before, TaskSnapshot.of(task));
+    }
+
+    /**
+     * Создает событие удаления задачи.
+     *
+     * @param taskId идентификатор удаленной задачи
+     * @param before состояние до удаления (может быть null)
+     * @return событие
+     */
+    public static TaskChangedEvent deleted(Long taskId, TaskSnapshot before) {
+        return new TaskChangedEvent(Type.DELETED, taskId, before, null);
+    }
+}
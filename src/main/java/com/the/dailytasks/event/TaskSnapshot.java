@@ -0,0 +1,38 @@
+package com.the.dailytasks.event;
+
+import com.the.dailytasks.model.Task;
+
+import java.time.LocalDate;
+
+/**
+ * Неизменяемый снимок состояния задачи на момент изменения.
+ * Описание не копируется: подписчикам событий достаточно полей, по которым строятся выборки.
+ *
+ * @param id идентификатор задачи
+ * @param title название задачи
+ * @param completed статус выполнения
+ * @param dueDate срок выполнения
+ * @param version версия задачи (null, если неизвестна)
+ */
+public record TaskSnapshot(Long id, String title, boolean completed, LocalDate dueDate, Long version) {
+
+    /**
+     * Создает снимок текущего состояния задачи.
+     *
+     * @param task задача
+     * @return снимок задачи
+     */
+    public static TaskSnapshot of(Task task) {
+        return new TaskSnapshot(task.getId(), task.getTitle(), task.isCompleted(), task.getDueDate(), task.getVersion());
+    }
+
+    /**
+     * Возвращает копию снимка с другим статусом выполнения.
+     *
+     * @param completed статус выполнения
+     * @return новый снимок
+     */
+    public TaskSnapshot withCompleted(boolean completed) {
+        return new TaskSnapshot(id, title, completed, dueDate, version);
+    }
+}
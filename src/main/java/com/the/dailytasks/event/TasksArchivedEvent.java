@@ -0,0 +1,14 @@
+package com.the.dailytasks.event;
+
+import java.util.List;
+
+/**
+ * Событие переноса задач из таблицы задач в архив.
+ * Задачи не удалены: они остаются доступны для чтения из архива, поэтому сводная статистика
+ * и журнал изменений на это событие не реагируют. Подписчики, хранящие в памяти только
+ * задачи таблицы (например, поисковый индекс), освобождают их после фиксации транзакции.
+ *
+ * @param taskIds идентификаторы перенесенных задач
+ */
+public record TasksArchivedEvent(List<Long> taskIds) {
+}
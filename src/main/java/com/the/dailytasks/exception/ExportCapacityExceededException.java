@@ -0,0 +1,12 @@
+package com.the.dailytasks.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Класс для обработки превышения числа одновременных выгрузок
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ExportCapacityExceededException extends RuntimeException {
+    public ExportCapacityExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.the.dailytasks.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Класс для обработки поврежденного курсора пагинации
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCursorException extends IllegalArgumentException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
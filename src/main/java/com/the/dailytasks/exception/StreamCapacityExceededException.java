@@ -0,0 +1,12 @@
+package com.the.dailytasks.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Класс для обработки превышения числа подписчиков потока изменений
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class StreamCapacityExceededException extends RuntimeException {
+    public StreamCapacityExceededException(String message) {
+        super(message);
+    }
+}
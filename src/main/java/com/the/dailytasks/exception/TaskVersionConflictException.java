@@ -0,0 +1,12 @@
+package com.the.dailytasks.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Класс для обработки конфликта версий задачи (оптимистичная блокировка)
+@ResponseStatus(HttpStatus.CONFLICT)
+public class TaskVersionConflictException extends RuntimeException {
+    public TaskVersionConflictException(String message) {
+        super(message);
+    }
+}
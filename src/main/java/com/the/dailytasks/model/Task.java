@@ -3,7 +3,11 @@ package com.the.dailytasks.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDate;
 
 /**
@@ -11,32 +15,49 @@ import java.time.LocalDate;
  * Содержит информацию о названии, описании, статусе выполнения и сроке выполнения задачи.
  * Аннотации Lombok используются для автоматической генерации геттеров, сеттеров,
  * конструкторов и builder-паттерна.
+ * Задачи хранятся в кеше второго уровня Hibernate (регион task), если он включен.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "task")
+@Table(indexes = {
+        @Index(name = "idx_task_due_date_id", columnList = "dueDate, id"),
+        @Index(name = "idx_task_due_date_completed", columnList = "dueDate, completed")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Task {
+    /**
+     * Размер блока идентификаторов, выделяемого одним обращением к последовательности task_seq.
+     * Используется pooled-lo оптимизатором Hibernate и массовой загрузкой.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     /**
      * Уникальный идентификатор задачи.
-     * Генерируется автоматически при сохранении в базу данных.
+     * Генерируется из последовательности task_seq с pooled-lo оптимизатором:
+     * идентификаторы выделяются блоками, поэтому вставки могут группироваться в JDBC batch.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_seq")
+    @SequenceGenerator(name = "task_seq", sequenceName = "task_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     /**
      * Название задачи. Обязательное поле.
-     * Не может быть пустым или состоять только из пробелов.
+     * Не может быть пустым или состоять только из пробелов, не длиннее столбца VARCHAR(255).
      */
     @NotBlank(message = "Title is mandatory")
+    @Size(max = 255, message = "Title must be at most 255 characters")
     private String title;
 
     /**
      * Описание задачи. Может быть пустым.
-     * Содержит дополнительную информацию о задаче.
+     * Содержит дополнительную информацию о задаче. Не длиннее столбца VARCHAR(255).
      */
+    @Size(max = 255, message = "Description must be at most 255 characters")
     private String description;
 
     /**
@@ -51,4 +72,26 @@ public class Task {
      */
     @NotNull(message = "Due date is mandatory")
     private LocalDate dueDate;
+
+    /**
+     * Версия задачи для оптимистичной блокировки.
+     * Увеличивается при каждом изменении; используется как ETag и проверяется по If-Match.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * Создает задачу без версии (версия назначается при сохранении).
+     *
+     * @param id идентификатор задачи
+     * @param title название задачи
+     * @param description описание задачи
+     * @param completed статус выполнения
+     * @param dueDate срок выполнения
+     */
+    public Task(Long id, String title, String description, boolean completed, LocalDate dueDate) {
+        this(id, title, description, completed, dueDate, null);
+    }
 }
\ No newline at end of file
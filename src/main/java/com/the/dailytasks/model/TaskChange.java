@@ -0,0 +1,51 @@
+package com.the.dailytasks.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Последнее изменение задачи в журнале изменений для инкрементальной синхронизации.
+ * На каждую задачу хранится одна строка с номером ревизии ее последнего изменения;
+ * для удаленной задачи строка остается как отметка удаления (tombstone).
+ * Ревизии монотонно возрастают, поэтому изменения после курсора выбираются по индексу ревизии.
+ */
+@Entity
+@Table(name = "task_change", indexes = {
+        @Index(name = "idx_task_change_revision", columnList = "revision", unique = true)
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskChange {
+
+    /**
+     * Идентификатор задачи.
+     */
+    @Id
+    private Long taskId;
+
+    /**
+     * Ревизия последнего изменения задачи.
+     */
+    @Column(nullable = false)
+    private long revision;
+
+    /**
+     * Признак удаления задачи.
+     */
+    private boolean deleted;
+
+    /**
+     * Время последнего изменения задачи.
+     */
+    @Column(nullable = false)
+    private Instant updatedAt;
+}
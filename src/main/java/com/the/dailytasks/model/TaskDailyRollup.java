@@ -0,0 +1,45 @@
+package com.the.dailytasks.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Сводная статистика задач за один день (по дате выполнения).
+ * Поддерживается приращениями в транзакциях записи задач и может быть
+ * пересчитана целиком из таблицы task. Ревизия дня увеличивается при каждом изменении
+ * задач дня и служит валидатором выборок за окно дат.
+ */
+@Entity
+@Table(name = "task_daily_rollup")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskDailyRollup {
+
+    /**
+     * Дата выполнения задач.
+     */
+    @Id
+    private LocalDate dueDate;
+
+    /**
+     * Всего задач с этой датой.
+     */
+    private long total;
+
+    /**
+     * Выполненных задач с этой датой.
+     */
+    private long completed;
+
+    /**
+     * Количество изменений задач с этой датой (только растет).
+     */
+    private long revision;
+}
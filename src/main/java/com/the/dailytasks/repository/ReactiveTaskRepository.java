@@ -0,0 +1,180 @@
+package com.the.dailytasks.repository;
+
+import com.the.dailytasks.model.Task;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+
+/**
+ * Реактивный (R2DBC) вариант выборок задач для профиля reactive.
+ * Повторяет списочные методы {@link TaskRepository}, но возвращает {@link Flux}: строки отдаются
+ * по мере чтения из курсора драйвера и запрашиваются с учетом спроса подписчика (backpressure),
+ * поэтому большое окно не собирается в памяти целиком. Задачи упорядочены по дате выполнения
+ * и идентификатору, как при курсорной пагинации.
+ */
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveTaskRepository {
+
+    private static final String SELECT =
+            "SELECT id, title, description, completed, due_date, version FROM task ";
+    private static final String ORDER = " ORDER BY due_date, id";
+
+    private final DatabaseClient client;
+
+    /**
+     * Находит все задачи с указанной датой выполнения.
+     *
+     * @param dueDate дата выполнения задачи
+     * @return поток задач
+     */
+    public Flux<Task> findByDueDate(LocalDate dueDate) {
+        return client.sql(SELECT + "WHERE due_date = :dueDate" + ORDER)
+                .bind("dueDate", dueDate)
+                .map(ReactiveTaskRepository::toTask)
+                .all();
+    }
+
+    /**
+     * Находит задачи с указанной датой выполнения и статусом.
+     *
+     * @param dueDate дата выполнения задачи
+     * @param completed статус выполнения задачи
+     * @return поток задач
+     */
+    public Flux<Task> findByDueDateAndCompleted(LocalDate dueDate, boolean completed) {
+        return client.sql(SELECT + "WHERE due_date = :dueDate AND completed = :completed" + ORDER)
+                .bind("dueDate", dueDate)
+                .bind("completed", completed)
+                .map(ReactiveTaskRepository::toTask)
+                .all();
+    }
+
+    /**
+     * Находит задачи с датой выполнения в указанном диапазоне.
+     *
+     * @param start начальная дата диапазона (включительно)
+     * @param end конечная дата диапазона (включительно)
+     * @return поток задач
+     */
+    public Flux<Task> findByDueDateBetween(LocalDate start, LocalDate end) {
+        return client.sql(SELECT + "WHERE due_date BETWEEN :start AND :end" + ORDER)
+                .bind("start", start)
+                .bind("end", end)
+                .map(ReactiveTaskRepository::toTask)
+                .all();
+    }
+
+    /**
+     * Находит задачи с датой выполнения в указанном диапазоне и определенным статусом выполнения.
+     *
+     * @param start начальная дата диапазона (включительно)
+     * @param end конечная дата диапазона (включительно)
+     * @param completed статус выполнения задачи
+     * @return поток задач
+     */
+    public Flux<Task> findByDueDateBetweenAndCompleted(LocalDate start, LocalDate end, boolean completed) {
+        return client.sql(SELECT + "WHERE due_date BETWEEN :start AND :end AND completed = :completed" + ORDER)
+                .bind("start", start)
+                .bind("end", end)
+                .bind("completed", completed)
+                .map(ReactiveTaskRepository::toTask)
+                .all();
+    }
+
+    /**
+     * Находит задачи на текущую дату.
+     *
+     * @param includeCompleted включать ли выполненные задачи
+     * @return поток задач на сегодня
+     */
+    public Flux<Task> findTodayTasks(boolean includeCompleted) {
+        LocalDate today = LocalDate.now();
+        return includeCompleted ?
+                findByDueDate(today) :
+                findByDueDateAndCompleted(today, false);
+    }
+
+    /**
+     * Находит задачи на текущую неделю (с сегодняшнего дня + 7 дней).
+     *
+     * @param includeCompleted включать ли выполненные задачи
+     * @return поток задач на неделю
+     */
+    public Flux<Task> findWeekTasks(boolean includeCompleted) {
+        LocalDate start = LocalDate.now();
+        LocalDate end = start.plusWeeks(1);
+        return includeCompleted ?
+                findByDueDateBetween(start, end) :
+                findByDueDateBetweenAndCompleted(start, end, false);
+    }
+
+    /**
+     * Находит задачи на текущий месяц (с сегодняшнего дня + 30 дней).
+     *
+     * @param includeCompleted включать ли выполненные задачи
+     * @return поток задач на месяц
+     */
+    public Flux<Task> findMonthTasks(boolean includeCompleted) {
+        LocalDate start = LocalDate.now();
+        LocalDate end = start.plusMonths(1);
+        return includeCompleted ?
+                findByDueDateBetween(start, end) :
+                findByDueDateBetweenAndCompleted(start, end, false);
+    }
+
+    /**
+     * Находит страницу задач с необязательными фильтрами по диапазону дат и статусу.
+     * Общее количество не подсчитывается.
+     *
+     * @param start начальная дата диапазона (null — без ограничения)
+     * @param end конечная дата диапазона (null — без ограничения)
+     * @param completed статус выполнения (null — любой)
+     * @param offset количество пропускаемых задач
+     * @param limit максимальное количество задач
+     * @return поток задач страницы
+     */
+    public Flux<Task> findTasks(LocalDate start, LocalDate end, Boolean completed, long offset, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT).append("WHERE 1 = 1");
+        if (start != null) {
+            sql.append(" AND due_date >= :start");
+        }
+        if (end != null) {
+            sql.append(" AND due_date <= :end");
+        }
+        if (completed != null) {
+            sql.append(" AND completed = :completed");
+        }
+        sql.append(ORDER).append(" LIMIT :limit OFFSET :offset");
+        DatabaseClient.GenericExecuteSpec spec = client.sql(sql.toString())
+                .bind("limit", limit)
+                .bind("offset", offset);
+        if (start != null) {
+            spec = spec.bind("start", start);
+        }
+        if (end != null) {
+            spec = spec.bind("end", end);
+        }
+        if (completed != null) {
+            spec = spec.bind("completed", completed);
+        }
+        return spec.map(ReactiveTaskRepository::toTask).all();
+    }
+
+    private static Task toTask(Readable row) {
+        return Task.builder()
+                .id(row.get("id", Long.class))
+                .title(row.get("title", String.class))
+                .description(row.get("description", String.class))
+                .completed(Boolean.TRUE.equals(row.get("completed", Boolean.class)))
+                .dueDate(row.get("due_date", LocalDate.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+}
@@ -0,0 +1,34 @@
+package com.the.dailytasks.repository;
+
+import com.the.dailytasks.model.Task;
+
+import java.util.List;
+
+/**
+ * Дополнительные операции репозитория задач для пакетной записи.
+ * Позволяют сбрасывать накопленные изменения в базу порциями и освобождать
+ * контекст персистентности, чтобы объем памяти не рос вместе с размером пакета.
+ */
+public interface TaskBatchRepository {
+
+    /**
+     * Выполняет накопленные операции записи (JDBC batch) и очищает контекст персистентности.
+     */
+    void flushAndClear();
+
+    /**
+     * Очищает контекст персистентности без записи изменений.
+     * Используется при потоковом чтении, чтобы прочитанные задачи не накапливались в памяти.
+     */
+    void clear();
+
+    /**
+     * Вставляет новые задачи максимально быстрым для текущей базы способом.
+     * На PostgreSQL используется COPY FROM STDIN с идентификаторами, выделенными блоками
+     * из последовательности task_seq; на остальных базах — JDBC batch через Hibernate.
+     * Назначенные идентификаторы и версии записываются в переданные задачи.
+     *
+     * @param tasks новые задачи (без идентификаторов)
+     */
+    void bulkInsert(List<Task> tasks);
+}
@@ -0,0 +1,114 @@
+package com.the.dailytasks.repository;
+
+import com.the.dailytasks.model.Task;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.postgresql.PGConnection;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Реализация {@link TaskBatchRepository} на основе {@link EntityManager}.
+ */
+class TaskBatchRepositoryImpl implements TaskBatchRepository {
+
+    private static final String COPY_SQL =
+            "COPY task (id, title, description, completed, due_date, version) FROM STDIN WITH (FORMAT csv)";
+    private static final String ALLOCATE_IDS_SQL = "SELECT nextval('task_seq') FROM generate_series(1, ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    public void clear() {
+        entityManager.clear();
+    }
+
+    @Override
+    public void bulkInsert(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        boolean postgres = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect() instanceof PostgreSQLDialect;
+        if (postgres) {
+            entityManager.flush();
+            TaskCacheInvalidation.tasksInserted(entityManager);
+            entityManager.unwrap(Session.class).doWork(connection -> copyIn(connection, tasks));
+        } else {
+            tasks.forEach(entityManager::persist);
+            flushAndClear();
+        }
+    }
+
+    /**
+     * Загружает задачи командой COPY FROM STDIN.
+     */
+    private void copyIn(Connection connection, List<Task> tasks) throws SQLException {
+        allocateIds(connection, tasks);
+        StringBuilder csv = new StringBuilder(tasks.size() * 64);
+        for (Task task : tasks) {
+            task.setVersion(0L);
+            csv.append(task.getId()).append(',')
+                    .append(csvField(task.getTitle())).append(',')
+                    .append(csvField(task.getDescription())).append(',')
+                    .append(task.isCompleted()).append(',')
+                    .append(task.getDueDate()).append(',')
+                    .append(task.getVersion()).append('\n');
+        }
+        try {
+            connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL, new StringReader(csv.toString()));
+        } catch (IOException e) {
+            throw new SQLException("COPY into task failed", e);
+        }
+    }
+
+    /**
+     * Назначает задачам идентификаторы из блоков последовательности task_seq.
+     * Каждое значение последовательности v резервирует диапазон [v, v + ID_ALLOCATION_SIZE)
+     * так же, как pooled-lo оптимизатор Hibernate.
+     */
+    private void allocateIds(Connection connection, List<Task> tasks) throws SQLException {
+        int blocks = (tasks.size() + Task.ID_ALLOCATION_SIZE - 1) / Task.ID_ALLOCATION_SIZE;
+        try (PreparedStatement statement = connection.prepareStatement(ALLOCATE_IDS_SQL)) {
+            statement.setInt(1, blocks);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                int index = 0;
+                while (resultSet.next() && index < tasks.size()) {
+                    long low = resultSet.getLong(1);
+                    for (int i = 0; i < Task.ID_ALLOCATION_SIZE && index < tasks.size(); i++) {
+                        tasks.get(index++).setId(low + i);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Экранирует значение поля CSV для COPY: null передается пустым полем без кавычек,
+     * пустая строка — парой кавычек.
+     */
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
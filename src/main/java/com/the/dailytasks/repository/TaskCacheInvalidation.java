@@ -0,0 +1,62 @@
+package com.the.dailytasks.repository;
+
+import com.the.dailytasks.model.Task;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+
+import java.util.Arrays;
+
+/**
+ * Сброс кеша второго уровня для нативных изменений таблицы task, о которых Hibernate не знает.
+ * Повторяет то, что Hibernate делает для своих UPDATE: регион временных меток помечается до изменения
+ * и после завершения транзакции, поэтому кешированные результаты запросов по task перестают
+ * использоваться; закешированная задача удаляется из региона task. Если кеш выключен, вызовы ничего не делают.
+ */
+final class TaskCacheInvalidation {
+
+    private TaskCacheInvalidation() {
+    }
+
+    /**
+     * Сбрасывает результаты запросов по task и закешированную задачу.
+     *
+     * @param entityManager текущий EntityManager (транзакция должна быть открыта)
+     * @param id идентификатор измененной задачи
+     */
+    static void taskUpdated(EntityManager entityManager, Long id) {
+        invalidate(entityManager, id);
+    }
+
+    /**
+     * Сбрасывает результаты запросов по task; используется после вставки новых строк.
+     *
+     * @param entityManager текущий EntityManager (транзакция должна быть открыта)
+     */
+    static void tasksInserted(EntityManager entityManager) {
+        invalidate(entityManager, null);
+    }
+
+    private static void invalidate(EntityManager entityManager, Long id) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        SessionFactoryImplementor factory = session.getFactory();
+        if (!factory.getSessionFactoryOptions().isSecondLevelCacheEnabled()) {
+            return;
+        }
+        String[] spaces = Arrays.stream(factory.getMappingMetamodel().getEntityDescriptor(Task.class).getQuerySpaces())
+                .map(String.class::cast)
+                .toArray(String[]::new);
+        factory.getCache().getTimestampsCache().preInvalidate(spaces, session);
+        evict(factory, id);
+        session.getActionQueue().registerProcess((success, completedSession) -> {
+            factory.getCache().getTimestampsCache().invalidate(spaces, completedSession);
+            evict(factory, id);
+        });
+    }
+
+    private static void evict(SessionFactoryImplementor factory, Long id) {
+        if (id != null) {
+            factory.getCache().evictEntityData(Task.class, id);
+        }
+    }
+}
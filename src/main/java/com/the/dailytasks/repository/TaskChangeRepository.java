@@ -0,0 +1,41 @@
+package com.the.dailytasks.repository;
+
+import com.the.dailytasks.dto.TaskDelta;
+import com.the.dailytasks.model.TaskChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Репозиторий журнала изменений задач.
+ */
+@Repository
+public interface TaskChangeRepository extends JpaRepository<TaskChange, Long>, TaskChangeWriteRepository {
+
+    /**
+     * Подсчитывает записи журнала о неудаленных задачах.
+     *
+     * @return количество неудаленных задач в журнале
+     */
+    long countByDeletedFalse();
+
+    /**
+     * Находит изменения в диапазоне ревизий вместе с текущим состоянием задач.
+     *
+     * @param since ревизия курсора (исключительно)
+     * @param until наибольшая видимая ревизия (включительно)
+     * @param limit максимальное количество изменений
+     * @return изменения в порядке возрастания ревизии
+     */
+    @Query("""
+            SELECT new com.the.dailytasks.dto.TaskDelta(c.revision, c.taskId, c.deleted, c.updatedAt,
+                   t.title, t.completed, t.dueDate, t.version)
+            FROM TaskChange c LEFT JOIN Task t ON t.id = c.taskId
+            WHERE c.revision > :since AND c.revision <= :until
+            ORDER BY c.revision""")
+    List<TaskDelta> findChanges(@Param("since") long since, @Param("until") long until, Limit limit);
+}
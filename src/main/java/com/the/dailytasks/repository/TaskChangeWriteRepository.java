@@ -0,0 +1,49 @@
+package com.the.dailytasks.repository;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Операции записи журнала изменений задач, не выражаемые через Spring Data.
+ */
+public interface TaskChangeWriteRepository {
+
+    /**
+     * Записывает изменения задач с последовательными ревизиями одним JDBC batch.
+     *
+     * @param changes идентификатор задачи → признак удаления, в порядке назначения ревизий
+     * @param firstRevision ревизия первого изменения
+     * @param updatedAt время изменения
+     */
+    void record(Map<Long, Boolean> changes, long firstRevision, Instant updatedAt);
+
+    /**
+     * Добавляет в журнал задачи, которых в нем нет (заполнение при первом запуске).
+     *
+     * @param afterRevision ревизия, после которой назначаются новые
+     * @return количество добавленных задач
+     */
+    int backfill(long afterRevision);
+
+    /**
+     * Блокирует счетчик ревизий до конца текущей транзакции и возвращает последнюю выданную ревизию.
+     * Другие транзакции, выдающие ревизии, ждут фиксации или отката текущей.
+     *
+     * @return последняя выданная ревизия или 0, если ревизии еще не выдавались
+     */
+    long lockRevision();
+
+    /**
+     * Устанавливает последнюю выданную ревизию. Вызывается после {@link #lockRevision()} в той же транзакции.
+     *
+     * @param lastRevision новая последняя выданная ревизия
+     */
+    void advanceRevision(long lastRevision);
+
+    /**
+     * Возвращает последнюю зафиксированную ревизию: все изменения до нее включительно видны.
+     *
+     * @return ревизия или 0, если журнал пуст
+     */
+    long committedRevision();
+}
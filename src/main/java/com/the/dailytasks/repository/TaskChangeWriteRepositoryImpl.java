@@ -0,0 +1,100 @@
+package com.the.dailytasks.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Реализация {@link TaskChangeWriteRepository}.
+ * На PostgreSQL использует INSERT ... ON CONFLICT DO UPDATE, на прочих базах — стандартный MERGE.
+ */
+class TaskChangeWriteRepositoryImpl implements TaskChangeWriteRepository {
+
+    private static final String POSTGRES_UPSERT = """
+            INSERT INTO task_change (task_id, revision, deleted, updated_at) VALUES (?, ?, ?, ?)
+            ON CONFLICT (task_id) DO UPDATE
+            SET revision = EXCLUDED.revision, deleted = EXCLUDED.deleted, updated_at = EXCLUDED.updated_at""";
+
+    private static final String MERGE_UPSERT = """
+            MERGE INTO task_change c
+            USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BOOLEAN), CAST(? AS TIMESTAMP)))
+                AS d (task_id, revision, deleted, updated_at)
+            ON c.task_id = d.task_id
+            WHEN MATCHED THEN UPDATE SET revision = d.revision, deleted = d.deleted, updated_at = d.updated_at
+            WHEN NOT MATCHED THEN INSERT (task_id, revision, deleted, updated_at)
+                VALUES (d.task_id, d.revision, d.deleted, d.updated_at)""";
+
+    private static final String BACKFILL = """
+            INSERT INTO task_change (task_id, revision, deleted, updated_at)
+            SELECT t.id, :afterRevision + ROW_NUMBER() OVER (ORDER BY t.id), FALSE, CURRENT_TIMESTAMP
+            FROM task t
+            WHERE NOT EXISTS (SELECT 1 FROM task_change c WHERE c.task_id = t.id)""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void record(Map<Long, Boolean> changes, long firstRevision, Instant updatedAt) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        boolean postgres = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect() instanceof PostgreSQLDialect;
+        Timestamp timestamp = Timestamp.from(updatedAt);
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(postgres ? POSTGRES_UPSERT : MERGE_UPSERT)) {
+                long revision = firstRevision;
+                for (Map.Entry<Long, Boolean> change : changes.entrySet()) {
+                    statement.setLong(1, change.getKey());
+                    statement.setLong(2, revision++);
+                    statement.setBoolean(3, change.getValue());
+                    statement.setTimestamp(4, timestamp);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    @Override
+    public int backfill(long afterRevision) {
+        return entityManager.createNativeQuery(BACKFILL)
+                .setParameter("afterRevision", afterRevision)
+                .executeUpdate();
+    }
+
+    @Override
+    public long lockRevision() {
+        Number last = (Number) entityManager.createNativeQuery(
+                        "SELECT last_revision FROM task_change_revision WHERE id = 1 FOR UPDATE")
+                .getSingleResult();
+        return last.longValue();
+    }
+
+    @Override
+    public void advanceRevision(long lastRevision) {
+        entityManager.createNativeQuery("UPDATE task_change_revision SET last_revision = :lastRevision WHERE id = 1")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("task_change_revision")
+                .setParameter("lastRevision", lastRevision)
+                .executeUpdate();
+    }
+
+    @Override
+    public long committedRevision() {
+        Number last = (Number) entityManager.createNativeQuery(
+                        "SELECT last_revision FROM task_change_revision WHERE id = 1")
+                .getSingleResult();
+        return last.longValue();
+    }
+}
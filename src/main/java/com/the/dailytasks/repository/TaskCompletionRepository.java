@@ -0,0 +1,29 @@
+package com.the.dailytasks.repository;
+
+import com.the.dailytasks.model.Task;
+
+import java.util.Optional;
+
+/**
+ * Атомарное изменение статуса выполнения задачи одним SQL-выражением.
+ * Изменение и чтение результата выполняются за один запрос к базе
+ * (UPDATE ... RETURNING), без предварительной загрузки сущности.
+ */
+public interface TaskCompletionRepository {
+
+    /**
+     * Инвертирует статус выполнения задачи и увеличивает ее версию.
+     *
+     * @param id идентификатор задачи
+     * @return обновленная задача или пустой Optional, если задача не найдена
+     */
+    Optional<Task> toggleCompleted(Long id);
+
+    /**
+     * Снимает отметку о выполнении, если задача выполнена, и увеличивает ее версию.
+     *
+     * @param id идентификатор задачи
+     * @return обновленная задача или пустой Optional, если задача не найдена или уже не выполнена
+     */
+    Optional<Task> markUncompleted(Long id);
+}
@@ -0,0 +1,79 @@
+package com.the.dailytasks.repository;
+
+import com.the.dailytasks.model.Task;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Реализация {@link TaskCompletionRepository}.
+ * На PostgreSQL использует UPDATE ... RETURNING, на H2 — SELECT ... FROM FINAL TABLE (UPDATE ...).
+ * Для прочих баз выполняет нативный UPDATE и последующее чтение.
+ * Первые два варианта Hibernate выполняет как выборку и не сбрасывает кеш второго уровня,
+ * поэтому он сбрасывается явно через {@link TaskCacheInvalidation}.
+ */
+class TaskCompletionRepositoryImpl implements TaskCompletionRepository {
+
+    private static final String TOGGLE_SET = "SET completed = NOT completed, version = version + 1 WHERE id = :id";
+    private static final String UNCOMPLETE_SET = "SET completed = FALSE, version = version + 1 WHERE id = :id AND completed = TRUE";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Task> toggleCompleted(Long id) {
+        return updateReturning(TOGGLE_SET, id);
+    }
+
+    @Override
+    public Optional<Task> markUncompleted(Long id) {
+        return updateReturning(UNCOMPLETE_SET, id);
+    }
+
+    /**
+     * Выполняет UPDATE над одной задачей и возвращает ее новое состояние.
+     *
+     * @param setClause SET- и WHERE-части выражения UPDATE
+     * @param id идентификатор задачи
+     * @return обновленная задача или пустой Optional, если ни одна строка не изменена
+     */
+    @SuppressWarnings("unchecked")
+    private Optional<Task> updateReturning(String setClause, Long id) {
+        String sql;
+        Dialect dialect = dialect();
+        if (dialect instanceof PostgreSQLDialect) {
+            sql = "UPDATE task " + setClause + " RETURNING *";
+        } else if (dialect instanceof H2Dialect) {
+            sql = "SELECT * FROM FINAL TABLE (UPDATE task " + setClause + ")";
+        } else {
+            int updated = entityManager.createNativeQuery("UPDATE task " + setClause)
+                    .unwrap(NativeQuery.class)
+                    .addSynchronizedEntityClass(Task.class)
+                    .setParameter("id", id)
+                    .executeUpdate();
+            return updated == 0 ? Optional.empty() : Optional.ofNullable(entityManager.find(Task.class, id));
+        }
+        TaskCacheInvalidation.taskUpdated(entityManager, id);
+        List<Task> result = entityManager.createNativeQuery(sql, Task.class)
+                .setHint(HibernateHints.HINT_CACHE_MODE, CacheMode.IGNORE)
+                .setParameter("id", id)
+                .getResultList();
+        return result.stream().findFirst();
+    }
+
+    private Dialect dialect() {
+        return entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect();
+    }
+}
@@ -1,15 +1,31 @@
 package com.the.dailytasks.repository;
 
+import com.the.dailytasks.dto.DailyTaskStats;
+import com.the.dailytasks.dto.TaskSummary;
+import com.the.dailytasks.event.TaskSnapshot;
 import com.the.dailytasks.model.Task;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Репозиторий для работы с задачами (Task).
@@ -17,7 +33,8 @@ import java.util.List;
  * а также удобные методы для получения задач за стандартные периоды (сегодня, неделя, месяц).
  */
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskBatchRepository, TaskCompletionRepository,
+        TaskRowRepository {
 
     /**
      * Находит задачи с датой выполнения в указанном диапазоне с поддержкой пагинации.
@@ -49,6 +66,211 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
      */
     Page<Task> findByDueDateBetweenAndCompleted(LocalDate start, LocalDate end, boolean completed, Pageable pageable);
 
+    /**
+     * Курсорная (keyset) выборка кратких представлений задач с датой выполнения в указанном диапазоне.
+     * Не выполняет запрос COUNT(*), стоимость не зависит от глубины прокрутки.
+     *
+     * @param start начальная дата диапазона (включительно)
+     * @param end конечная дата диапазона (включительно)
+     * @param position позиция, с которой продолжается выборка
+     * @param sort порядок сортировки, задающий ключ прокрутки
+     * @param limit максимальный размер порции
+     * @return окно с краткими представлениями задач
+     */
+    Window<TaskSummary> findSummariesByDueDateBetween(LocalDate start, LocalDate end, ScrollPosition position, Sort sort, Limit limit);
+
+    /**
+     * Курсорная (keyset) выборка кратких представлений задач по статусу выполнения.
+     *
+     * @param completed статус выполнения задачи
+     * @param position позиция, с которой продолжается выборка
+     * @param sort порядок сортировки, задающий ключ прокрутки
+     * @param limit максимальный размер порции
+     * @return окно с краткими представлениями задач
+     */
+    Window<TaskSummary> findSummariesByCompleted(boolean completed, ScrollPosition position, Sort sort, Limit limit);
+
+    /**
+     * Курсорная (keyset) выборка кратких представлений задач по диапазону дат и статусу выполнения.
+     *
+     * @param start начальная дата диапазона (включительно)
+     * @param end конечная дата диапазона (включительно)
+     * @param completed статус выполнения задачи
+     * @param position позиция, с которой продолжается выборка
+     * @param sort порядок сортировки, задающий ключ прокрутки
+     * @param limit максимальный размер порции
+     * @return окно с краткими представлениями задач
+     */
+    Window<TaskSummary> findSummariesByDueDateBetweenAndCompleted(LocalDate start, LocalDate end, boolean completed,
+                                                                  ScrollPosition position, Sort sort, Limit limit);
+
+    /**
+     * Курсорная (keyset) выборка кратких представлений всех задач.
+     *
+     * @param position позиция, с которой продолжается выборка
+     * @param sort порядок сортировки, задающий ключ прокрутки
+     * @param limit максимальный размер порции
+     * @return окно с краткими представлениями задач
+     */
+    Window<TaskSummary> findSummariesBy(ScrollPosition position, Sort sort, Limit limit);
+
+    /**
+     * Находит краткие представления задач с датой выполнения в указанном диапазоне с поддержкой пагинации.
+     * Описание задачи не выбирается.
+     *
+     * @param start начальная дата диапазона (включительно)
+     * @param end конечная дата диапазона (включительно)
+     * @param pageable параметры пагинации
+     * @return страница с краткими представлениями задач
+     */
+    Page<TaskSummary> findSummariesByDueDateBetween(LocalDate start, LocalDate end, Pageable pageable);
+
+    /**
+     * Находит краткие представления задач по статусу выполнения с поддержкой пагинации.
+     *
+     * @param completed статус выполнения задачи
+     * @param pageable параметры пагинации
+     * @return страница с краткими представлениями задач
+     */
+    Page<TaskSummary> findSummariesByCompleted(boolean completed, Pageable pageable);
+
+    /**
+     * Находит краткие представления задач по диапазону дат и статусу выполнения с поддержкой пагинации.
+     *
+     * @param start начальная дата диапазона (включительно)
+     * @param end конечная дата диапазона (включительно)
+     * @param completed статус выполнения задачи
+     * @param pageable параметры пагинации
+     * @return страница с краткими представлениями задач
+     */
+    Page<TaskSummary> findSummariesByDueDateBetweenAndCompleted(LocalDate start, LocalDate end, boolean completed,
+                                                               Pageable pageable);
+
+    /**
+     * Находит краткие представления всех задач с поддержкой пагинации.
+     *
+     * @param pageable параметры пагинации
+     * @return страница с краткими представлениями задач
+     */
+    Page<TaskSummary> findSummariesBy(Pageable pageable);
+
+    /**
+     * Находит краткие представления задач с указанной датой выполнения.
+     * Результаты этой и следующих трех выборок (окна сегодня/неделя/месяц) хранятся в кеше запросов
+     * Hibernate и сбрасываются при любом изменении таблицы task.
+     *
+     * @param dueDate дата выполнения задачи
+     * @return список кратких представлений задач
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<TaskSummary> findSummariesByDueDate(LocalDate dueDate);
+
+    /**
+     * Находит краткие представления задач с указанной датой выполнения и статусом.
+     *
+     * @param dueDate дата выполнения задачи
+     * @param completed статус выполнения задачи
+     * @return список кратких представлений задач
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<TaskSummary> findSummariesByDueDateAndCompleted(LocalDate dueDate, boolean completed);
+
+    /**
+     * Находит краткие представления задач с датой выполнения в указанном диапазоне.
+     *
+     * @param start начальная дата диапазона (включительно)
+     * @param end конечная дата диапазона (включительно)
+     * @return список кратких представлений задач
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<TaskSummary> findSummariesByDueDateBetween(LocalDate start, LocalDate end);
+
+    /**
+     * Находит краткие представления задач с датой выполнения в указанном диапазоне и определенным статусом.
+     *
+     * @param start начальная дата диапазона (включительно)
+     * @param end конечная дата диапазона (включительно)
+     * @param completed статус выполнения задачи
+     * @return список кратких представлений задач
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<TaskSummary> findSummariesByDueDateBetweenAndCompleted(LocalDate start, LocalDate end, boolean completed);
+
+    /**
+     * Находит краткие представления задач по набору идентификаторов.
+     *
+     * @param ids идентификаторы задач
+     * @return список кратких представлений задач (порядок не гарантирован)
+     */
+    List<TaskSummary> findSummariesByIdIn(Collection<Long> ids);
+
+    /**
+     * Находит краткие представления задач, содержащих указанный текст в названии без учета регистра.
+     *
+     * @param title текст для поиска в названии задачи
+     * @param limit максимальное количество задач
+     * @return список кратких представлений задач
+     */
+    List<TaskSummary> findSummariesByTitleContainingIgnoreCase(String title, Limit limit);
+
+    /**
+     * Находит краткие представления задач, содержащих указанный текст в названии без учета регистра,
+     * с определенным статусом.
+     *
+     * @param title текст для поиска в названии задачи
+     * @param completed статус выполнения задачи
+     * @param limit максимальное количество задач
+     * @return список кратких представлений задач
+     */
+    List<TaskSummary> findSummariesByTitleContainingIgnoreCaseAndCompleted(String title, boolean completed,
+                                                                          Limit limit);
+
+    /**
+     * Находит краткие представления задач с указанным названием без учета регистра.
+     *
+     * @param title название задачи
+     * @param limit максимальное количество задач
+     * @return список кратких представлений задач
+     */
+    List<TaskSummary> findSummariesByTitleIgnoreCase(String title, Limit limit);
+
+    /**
+     * Находит краткие представления задач с указанным названием без учета регистра и определенным статусом.
+     *
+     * @param title название задачи
+     * @param completed статус выполнения задачи
+     * @param limit максимальное количество задач
+     * @return список кратких представлений задач
+     */
+    List<TaskSummary> findSummariesByTitleIgnoreCaseAndCompleted(String title, boolean completed, Limit limit);
+
+    /**
+     * Подсчитывает задачи с датой выполнения в указанном диапазоне.
+     *
+     * @param start начальная дата диапазона (включительно)
+     * @param end конечная дата диапазона (включительно)
+     * @return количество задач
+     */
+    long countByDueDateBetween(LocalDate start, LocalDate end);
+
+    /**
+     * Подсчитывает задачи по статусу выполнения.
+     *
+     * @param completed статус выполнения задачи
+     * @return количество задач
+     */
+    long countByCompleted(boolean completed);
+
+    /**
+     * Подсчитывает задачи по диапазону дат и статусу выполнения.
+     *
+     * @param start начальная дата диапазона (включительно)
+     * @param end конечная дата диапазона (включительно)
+     * @param completed статус выполнения задачи
+     * @return количество задач
+     */
+    long countByDueDateBetweenAndCompleted(LocalDate start, LocalDate end, boolean completed);
+
     /**
      * Находит все задачи с указанной датой выполнения.
      *
@@ -162,6 +384,41 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
             @Param("end") LocalDate end,
             @Param("completed") boolean completed);
 
+    /**
+     * Потоково читает задачи с датой выполнения в указанном диапазоне в порядке (dueDate, id).
+     * Строки выбираются курсором порциями по 1000, сущности только для чтения.
+     * Должен вызываться внутри транзакции, поток необходимо закрыть.
+     *
+     * @param start начальная дата диапазона (включительно)
+     * @param end конечная дата диапазона (включительно)
+     * @return поток задач
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Task t WHERE t.dueDate BETWEEN :start AND :end ORDER BY t.dueDate, t.id")
+    Stream<Task> streamByDueDateBetween(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    /**
+     * Потоково читает задачи с датой выполнения в указанном диапазоне и определенным статусом
+     * в порядке (dueDate, id). Должен вызываться внутри транзакции, поток необходимо закрыть.
+     *
+     * @param start начальная дата диапазона (включительно)
+     * @param end конечная дата диапазона (включительно)
+     * @param completed статус выполнения задачи
+     * @return поток задач
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Task t WHERE t.dueDate BETWEEN :start AND :end AND t.completed = :completed ORDER BY t.dueDate, t.id")
+    Stream<Task> streamByDueDateBetweenAndCompleted(
+            @Param("start") LocalDate start,
+            @Param("end") LocalDate end,
+            @Param("completed") boolean completed);
+
     /**
      * Находит задачи, содержащие указанный текст в названии.
      *
@@ -178,4 +435,100 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
      * @return список найденных задач
      */
     List<Task> findByTitleContainingAndCompleted(String title, boolean b);
-}
\ No newline at end of file
+
+    /**
+     * Возвращает снимки задач с идентификатором больше указанного, по возрастанию id.
+     * Используется для порционной загрузки поискового индекса без чтения описаний.
+     *
+     * @param afterId идентификатор, после которого начинается выборка
+     * @param pageable размер порции
+     * @return снимки задач
+     */
+    @Query("SELECT new com.the.dailytasks.event.TaskSnapshot(t.id, t.title, t.completed, t.dueDate, t.version) "
+            + "FROM Task t WHERE t.id > :afterId ORDER BY t.id")
+    List<TaskSnapshot> findSnapshotsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Возвращает снимки задач с датой выполнения в диапазоне и идентификатором больше указанного,
+     * по возрастанию id. Используется для порционной загрузки хранилища чтения в памяти.
+     *
+     * @param start начальная дата диапазона (включительно)
+     * @param end конечная дата диапазона (включительно)
+     * @param afterId идентификатор, после которого начинается выборка
+     * @param pageable размер порции
+     * @return снимки задач
+     */
+    @Query("SELECT new com.the.dailytasks.event.TaskSnapshot(t.id, t.title, t.completed, t.dueDate, t.version) "
+            + "FROM Task t WHERE t.dueDate BETWEEN :start AND :end AND t.id > :afterId ORDER BY t.id")
+    List<TaskSnapshot> findSnapshotsByDueDateBetweenAfter(@Param("start") LocalDate start, @Param("end") LocalDate end,
+                                                          @Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Возвращает снимки задач с указанными идентификаторами и блокирует их строки до конца
+     * транзакции (SELECT ... FOR UPDATE), чтобы снимки совпадали с удаляемым состоянием.
+     *
+     * @param ids идентификаторы задач
+     * @return снимки найденных задач
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.the.dailytasks.event.TaskSnapshot(t.id, t.title, t.completed, t.dueDate, t.version) "
+            + "FROM Task t WHERE t.id IN :ids")
+    List<TaskSnapshot> findSnapshotsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Возвращает версию задачи без загрузки самой задачи (для условных запросов).
+     *
+     * @param id идентификатор задачи
+     * @return версия или пустой Optional, если задачи нет
+     */
+    @Query("SELECT t.version FROM Task t WHERE t.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Находит выполненные задачи с датой выполнения до границы архивации и блокирует их
+     * до конца транзакции (SELECT ... FOR UPDATE).
+     *
+     * @param before граница даты выполнения (исключительно)
+     * @param limit максимальное количество задач
+     * @return задачи в порядке (dueDate, id)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Task t WHERE t.completed = true AND t.dueDate < :before ORDER BY t.dueDate, t.id")
+    List<Task> findArchivable(@Param("before") LocalDate before, Limit limit);
+
+    /**
+     * Удаляет перенесенные в архив задачи. Диапазон дат позволяет отсечь лишние секции.
+     *
+     * @param ids идентификаторы задач
+     * @param start наименьшая дата выполнения задач
+     * @param end наибольшая дата выполнения задач
+     * @return количество удаленных задач
+     */
+    @Modifying
+    @Query("DELETE FROM Task t WHERE t.id IN :ids AND t.dueDate BETWEEN :start AND :end")
+    int deleteArchived(@Param("ids") Collection<Long> ids, @Param("start") LocalDate start,
+                       @Param("end") LocalDate end);
+
+    /**
+     * Возвращает идентификаторы существующих задач из переданного набора.
+     *
+     * @param ids проверяемые идентификаторы
+     * @return идентификаторы, для которых задачи существуют
+     */
+    @Query("SELECT t.id FROM Task t WHERE t.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Подсчитывает задачи по дням диапазона одним запросом с группировкой.
+     * Запрос читает только столбцы due_date и completed и покрывается индексом
+     * idx_task_due_date_completed (index-only scan). Дни без задач не возвращаются.
+     *
+     * @param start начальная дата диапазона (включительно)
+     * @param end конечная дата диапазона (включительно)
+     * @return статистика по дням в порядке возрастания даты
+     */
+    @Query("SELECT new com.the.dailytasks.dto.DailyTaskStats(t.dueDate, COUNT(t.dueDate), "
+            + "SUM(CASE WHEN t.completed = true THEN 1L ELSE 0L END)) "
+            + "FROM Task t WHERE t.dueDate BETWEEN :start AND :end GROUP BY t.dueDate ORDER BY t.dueDate")
+    List<DailyTaskStats> countDailyStats(@Param("start") LocalDate start, @Param("end") LocalDate end);
+}
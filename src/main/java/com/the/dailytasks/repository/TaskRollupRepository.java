@@ -0,0 +1,47 @@
+package com.the.dailytasks.repository;
+
+import com.the.dailytasks.model.TaskDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Репозиторий сводной статистики задач по дням.
+ */
+@Repository
+public interface TaskRollupRepository extends JpaRepository<TaskDailyRollup, LocalDate>, TaskRollupWriteRepository {
+
+    /**
+     * Находит непустые дни в диапазоне дат.
+     *
+     * @param start начальная дата диапазона (включительно)
+     * @param end конечная дата диапазона (включительно)
+     * @param total нижняя граница количества задач (исключительно)
+     * @return статистика по дням в порядке возрастания даты
+     */
+    List<TaskDailyRollup> findByDueDateBetweenAndTotalGreaterThanOrderByDueDate(LocalDate start, LocalDate end,
+                                                                                 long total);
+
+    /**
+     * Подсчитывает дни, в которых больше заданного количества задач.
+     *
+     * @param total нижняя граница количества задач (исключительно)
+     * @return количество дней
+     */
+    long countByTotalGreaterThan(long total);
+
+    /**
+     * Суммирует ревизии дней в диапазоне дат. Ревизии дней только растут, поэтому сумма меняется
+     * при каждом изменении задач диапазона и не меняется при изменении задач вне его.
+     *
+     * @param start начальная дата диапазона (включительно)
+     * @param end конечная дата диапазона (включительно)
+     * @return сумма ревизий дней (0, если задач в диапазоне не было)
+     */
+    @Query("SELECT COALESCE(SUM(r.revision), 0) FROM TaskDailyRollup r WHERE r.dueDate BETWEEN :start AND :end")
+    long sumRevisions(@Param("start") LocalDate start, @Param("end") LocalDate end);
+}
@@ -0,0 +1,30 @@
+package com.the.dailytasks.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Операции записи сводной статистики задач по дням.
+ */
+public interface TaskRollupWriteRepository {
+
+    /**
+     * Прибавляет приращения к статистике дня и увеличивает ревизию дня, создавая строку дня
+     * при необходимости. Вызывается и с нулевыми приращениями, если изменились только поля задач.
+     * Выполняется одним атомарным запросом, поэтому безопасна при параллельной записи.
+     *
+     * @param dueDate дата выполнения
+     * @param totalDelta приращение количества задач
+     * @param completedDelta приращение количества выполненных задач
+     */
+    void addDelta(LocalDate dueDate, long totalDelta, long completedDelta);
+
+    /**
+     * Пересчитывает статистику всех дней из таблицы task.
+     * Строки дней не удаляются, а обнуляются, и ревизия каждого дня увеличивается,
+     * поэтому ETag окон после пересчета не совпадает ни с одним выданным ранее.
+     * На PostgreSQL на время пересчета блокирует запись задач.
+     *
+     * @return количество дней с задачами в пересчитанной статистике
+     */
+    int rebuild();
+}
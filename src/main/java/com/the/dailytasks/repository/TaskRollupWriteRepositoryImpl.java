@@ -0,0 +1,86 @@
+package com.the.dailytasks.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+
+import java.time.LocalDate;
+
+/**
+ * Реализация {@link TaskRollupWriteRepository}.
+ * На PostgreSQL использует INSERT ... ON CONFLICT DO UPDATE, на прочих базах — стандартный MERGE.
+ * Upsert помечен как изменяющий только task_daily_rollup, иначе Hibernate сбрасывал бы
+ * при каждой записи все регионы кеша второго уровня.
+ */
+class TaskRollupWriteRepositoryImpl implements TaskRollupWriteRepository {
+
+    private static final String POSTGRES_UPSERT = """
+            INSERT INTO task_daily_rollup (due_date, total, completed, revision)
+            VALUES (:dueDate, :total, :completed, 1)
+            ON CONFLICT (due_date) DO UPDATE
+            SET total = task_daily_rollup.total + EXCLUDED.total,
+                completed = task_daily_rollup.completed + EXCLUDED.completed,
+                revision = task_daily_rollup.revision + 1""";
+
+    private static final String MERGE_UPSERT = """
+            MERGE INTO task_daily_rollup r
+            USING (VALUES (CAST(:dueDate AS DATE), CAST(:total AS BIGINT), CAST(:completed AS BIGINT)))
+                AS d (due_date, total, completed)
+            ON r.due_date = d.due_date
+            WHEN MATCHED THEN UPDATE SET total = r.total + d.total, completed = r.completed + d.completed,
+                revision = r.revision + 1
+            WHEN NOT MATCHED THEN INSERT (due_date, total, completed, revision)
+                VALUES (d.due_date, d.total, d.completed, 1)""";
+
+    private static final String RESET = "UPDATE task_daily_rollup SET total = 0, completed = 0, revision = revision + 1";
+
+    private static final String POSTGRES_REBUILD = """
+            INSERT INTO task_daily_rollup (due_date, total, completed, revision)
+            SELECT due_date, COUNT(*), SUM(CASE WHEN completed THEN 1 ELSE 0 END), 1
+            FROM task GROUP BY due_date
+            ON CONFLICT (due_date) DO UPDATE SET total = EXCLUDED.total, completed = EXCLUDED.completed""";
+
+    private static final String MERGE_REBUILD = """
+            MERGE INTO task_daily_rollup r
+            USING (SELECT due_date, COUNT(*) AS total, SUM(CASE WHEN completed THEN 1 ELSE 0 END) AS completed
+                   FROM task GROUP BY due_date) d
+            ON r.due_date = d.due_date
+            WHEN MATCHED THEN UPDATE SET total = d.total, completed = d.completed
+            WHEN NOT MATCHED THEN INSERT (due_date, total, completed, revision)
+                VALUES (d.due_date, d.total, d.completed, 1)""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void addDelta(LocalDate dueDate, long totalDelta, long completedDelta) {
+        String sql = dialect() instanceof PostgreSQLDialect ? POSTGRES_UPSERT : MERGE_UPSERT;
+        entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("task_daily_rollup")
+                .setParameter("dueDate", dueDate)
+                .setParameter("total", totalDelta)
+                .setParameter("completed", completedDelta)
+                .executeUpdate();
+    }
+
+    @Override
+    public int rebuild() {
+        boolean postgres = dialect() instanceof PostgreSQLDialect;
+        if (postgres) {
+            entityManager.createNativeQuery("LOCK TABLE task IN SHARE MODE").executeUpdate();
+        }
+        entityManager.createNativeQuery(RESET).executeUpdate();
+        return entityManager.createNativeQuery(postgres ? POSTGRES_REBUILD : MERGE_REBUILD).executeUpdate();
+    }
+
+    private Dialect dialect() {
+        return entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect();
+    }
+}
@@ -0,0 +1,43 @@
+package com.the.dailytasks.repository;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Чтение задач построчно из JDBC ResultSet без создания сущностей.
+ * Значения столбцов передаются обработчику по мере чтения курсора: нет ни объектов {@link com.the.dailytasks.model.Task},
+ * ни снимков для dirty checking, ни промежуточных списков.
+ */
+public interface TaskRowRepository {
+
+    /**
+     * Обработчик одной строки задачи.
+     */
+    @FunctionalInterface
+    interface TaskRowHandler {
+        /**
+         * @param id идентификатор задачи
+         * @param title название задачи
+         * @param description описание задачи
+         * @param completed статус выполнения
+         * @param dueDate срок выполнения
+         * @param version версия задачи
+         * @throws IOException при ошибке записи результата
+         */
+        void row(long id, String title, String description, boolean completed, LocalDate dueDate, long version)
+                throws IOException;
+    }
+
+    /**
+     * Читает задачи с датой выполнения в указанном диапазоне в порядке даты выполнения и идентификатора,
+     * как {@link TaskRepository#streamByDueDateBetween}. Должен вызываться внутри транзакции.
+     *
+     * @param start начальная дата диапазона (включительно)
+     * @param end конечная дата диапазона (включительно)
+     * @param completed статус выполнения (null — любой)
+     * @param handler обработчик строк
+     * @return количество прочитанных задач
+     * @throws java.io.UncheckedIOException если обработчик завершился ошибкой ввода-вывода
+     */
+    long scanByDueDateBetween(LocalDate start, LocalDate end, Boolean completed, TaskRowHandler handler);
+}
@@ -0,0 +1,61 @@
+package com.the.dailytasks.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Реализация {@link TaskRowRepository} на соединении текущей транзакции Hibernate.
+ * Строки читаются порциями по {@link #FETCH_SIZE} (на PostgreSQL — серверным курсором,
+ * поскольку внутри транзакции autocommit выключен).
+ */
+class TaskRowRepositoryImpl implements TaskRowRepository {
+
+    private static final int FETCH_SIZE = 1000;
+    private static final String SELECT_BY_DUE_DATE =
+            "SELECT id, title, description, completed, due_date, version FROM task "
+                    + "WHERE due_date BETWEEN ? AND ?";
+    private static final String ORDER = " ORDER BY due_date, id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public long scanByDueDateBetween(LocalDate start, LocalDate end, Boolean completed, TaskRowHandler handler) {
+        String sql = completed != null ? SELECT_BY_DUE_DATE + " AND completed = ?" + ORDER : SELECT_BY_DUE_DATE + ORDER;
+        return entityManager.unwrap(Session.class).doReturningWork(connection ->
+                scan(connection, sql, start, end, completed, handler));
+    }
+
+    private static long scan(Connection connection, String sql, LocalDate start, LocalDate end, Boolean completed,
+                             TaskRowHandler handler) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setDate(1, Date.valueOf(start));
+            statement.setDate(2, Date.valueOf(end));
+            if (completed != null) {
+                statement.setBoolean(3, completed);
+            }
+            long count = 0;
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    handler.row(resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3),
+                            resultSet.getBoolean(4), resultSet.getObject(5, LocalDate.class), resultSet.getLong(6));
+                    count++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return count;
+        }
+    }
+}
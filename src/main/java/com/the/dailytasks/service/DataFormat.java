@@ -0,0 +1,35 @@
+package com.the.dailytasks.service;
+
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Формат потоковой выгрузки и загрузки задач.
+ */
+public enum DataFormat {
+    /**
+     * JSON-объект задачи на каждой строке (newline-delimited JSON).
+     */
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+    /**
+     * CSV с заголовком (RFC 4180).
+     */
+    CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    DataFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
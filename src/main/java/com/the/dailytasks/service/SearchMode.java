@@ -0,0 +1,23 @@
+package com.the.dailytasks.service;
+
+/**
+ * Режим поиска задач по названию.
+ */
+public enum SearchMode {
+    /**
+     * Название содержит запрос как подстроку (без учета регистра), как прежний поиск LIKE.
+     */
+    CONTAINS,
+    /**
+     * Название совпадает с запросом целиком (без учета регистра).
+     */
+    EXACT,
+    /**
+     * Одно из слов названия начинается с запроса.
+     */
+    PREFIX,
+    /**
+     * Нечеткое совпадение по триграммам с ранжированием по степени сходства.
+     */
+    FUZZY
+}
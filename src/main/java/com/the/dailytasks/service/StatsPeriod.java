@@ -0,0 +1,33 @@
+package com.the.dailytasks.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Период группировки статистики выполнения задач.
+ */
+public enum StatsPeriod {
+    DAY,
+    /**
+     * Неделя с понедельника.
+     */
+    WEEK,
+    MONTH,
+    YEAR;
+
+    /**
+     * Возвращает первый день периода, в который попадает дата.
+     *
+     * @param date дата
+     * @return начало периода
+     */
+    public LocalDate bucketStart(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+            case YEAR -> date.withDayOfYear(1);
+        };
+    }
+}
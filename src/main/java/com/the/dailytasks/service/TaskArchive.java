@@ -0,0 +1,484 @@
+package com.the.dailytasks.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.the.dailytasks.model.Task;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Архив выполненных задач в локальных сегментах (холодное хранилище).
+ * Сегмент — неизменяемая пара файлов: задачи в формате NDJSON, сжатые gzip, и отсортированный
+ * список их идентификаторов (по 8 байт), отображаемый в память для бинарного поиска.
+ * Диапазон дат выполнения задач сегмента записан в имени файла, поэтому выборка за диапазон
+ * читает только пересекающиеся сегменты. Новые сегменты только добавляются; файл появляется
+ * под окончательным именем атомарным переименованием после записи на диск.
+ * Если задача встречается в нескольких сегментах, действует копия с наибольшей версией.
+ * Новый сегмент не виден чтению, пока архивация не подтвердит удаление его задач из таблицы,
+ * иначе до фиксации задачи учитывались бы дважды.
+ */
+@Slf4j
+@Component
+public class TaskArchive {
+
+    private static final Pattern SEGMENT_NAME =
+            Pattern.compile("seg-(\\d{4}-\\d{2}-\\d{2})_(\\d{4}-\\d{2}-\\d{2})_(\\d+)\\.ndjson\\.gz");
+    private static final String IDS_SUFFIX = ".ids";
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final boolean WINDOWS = System.getProperty("os.name", "").toLowerCase(Locale.ROOT).startsWith("windows");
+
+    /**
+     * Сегмент архива.
+     *
+     * @param data файл с задачами
+     * @param ids файл с отсортированными идентификаторами
+     * @param minDate наименьшая дата выполнения задач сегмента
+     * @param maxDate наибольшая дата выполнения задач сегмента
+     * @param created момент создания сегмента (порядок сегментов)
+     * @param idIndex отсортированные идентификаторы, отображенные в память
+     */
+    public record Segment(Path data, Path ids, LocalDate minDate, LocalDate maxDate, long created,
+                          LongBuffer idIndex) {
+
+        /**
+         * Проверяет, пересекается ли сегмент с диапазоном дат.
+         *
+         * @param start начальная дата (null — без ограничения)
+         * @param end конечная дата (null — без ограничения)
+         * @return true, если в сегменте могут быть задачи диапазона
+         */
+        boolean overlaps(LocalDate start, LocalDate end) {
+            return (start == null || !maxDate.isBefore(start)) && (end == null || !minDate.isAfter(end));
+        }
+
+        /**
+         * Проверяет бинарным поиском, есть ли задача в сегменте.
+         *
+         * @param id идентификатор задачи
+         * @return true, если задача есть в сегменте
+         */
+        boolean contains(long id) {
+            int low = 0;
+            int high = idIndex.limit() - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                long value = idIndex.get(middle);
+                if (value < id) {
+                    low = middle + 1;
+                } else if (value > id) {
+                    high = middle - 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return количество задач в сегменте
+         */
+        public int size() {
+            return idIndex.limit();
+        }
+    }
+
+    private final Path directory;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+    private final Cache<Path, List<Task>> contents;
+    private volatile List<Segment> segments;
+
+    /**
+     * Количество задач архива, подсчитанное для текущего списка сегментов.
+     */
+    private volatile Count count;
+
+    private record Count(List<Segment> segments, long tasks) {
+    }
+
+    /**
+     * Записанные, но еще не подтвержденные сегменты (не видны чтению).
+     */
+    private List<Segment> pending = List.of();
+
+    /**
+     * Удерживается на время переноса порции в архив и на время чтений, которым нужен
+     * согласованный с таблицей задач состав архива.
+     */
+    private final ReentrantLock changeLock = new ReentrantLock();
+
+    public TaskArchive(@Value("${tasks.archive.dir:data/archive}") Path directory,
+                       @Value("${tasks.archive.cache-rows:200000}") long cacheRows,
+                       ObjectMapper objectMapper) throws IOException {
+        this.directory = directory;
+        this.reader = objectMapper.readerFor(Task.class);
+        // Цель записи закрывается вручную после сброса файла на диск
+        this.writer = objectMapper.writerFor(Task.class)
+                .withRootValueSeparator("\n")
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.contents = Caffeine.newBuilder()
+                .maximumWeight(cacheRows)
+                .<Path, List<Task>>weigher((path, tasks) -> tasks.size())
+                .build();
+        this.segments = load();
+    }
+
+    /**
+     * Проверяет, есть ли в архиве задачи, которые могут попасть в диапазон дат.
+     *
+     * @param start начальная дата (null — без ограничения)
+     * @param end конечная дата (null — без ограничения)
+     * @return true, если хотя бы один сегмент пересекается с диапазоном
+     */
+    public boolean overlaps(LocalDate start, LocalDate end) {
+        return segments.stream().anyMatch(segment -> segment.overlaps(start, end));
+    }
+
+    /**
+     * Находит задачу в архиве по идентификатору.
+     *
+     * @param id идентификатор задачи
+     * @return задача с наибольшей версией среди сегментов или пустой Optional
+     */
+    public Optional<Task> findById(long id) {
+        Task found = null;
+        for (Segment segment : segments) {
+            if (segment.contains(id)) {
+                for (Task task : read(segment)) {
+                    if (task.getId() == id && (found == null || task.getVersion() > found.getVersion())) {
+                        found = task;
+                    }
+                }
+            }
+        }
+        return Optional.ofNullable(found);
+    }
+
+    /**
+     * Находит задачи архива в диапазоне дат выполнения.
+     *
+     * @param start начальная дата (null — без ограничения)
+     * @param end конечная дата (null — без ограничения)
+     * @return задачи диапазона, по одной копии на идентификатор
+     */
+    public List<Task> find(LocalDate start, LocalDate end) {
+        Map<Long, Task> found = new HashMap<>();
+        for (Segment segment : segments) {
+            if (segment.overlaps(start, end)) {
+                for (Task task : read(segment)) {
+                    LocalDate dueDate = task.getDueDate();
+                    if ((start == null || !dueDate.isBefore(start)) && (end == null || !dueDate.isAfter(end))) {
+                        found.merge(task.getId(), task,
+                                (left, right) -> left.getVersion() >= right.getVersion() ? left : right);
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(found.values());
+    }
+
+    /**
+     * Подсчитывает задачи архива без учета повторных копий. Читаются только индексы
+     * идентификаторов, результат запоминается до изменения списка сегментов.
+     *
+     * @return количество задач в архиве
+     */
+    public long size() {
+        List<Segment> current = segments;
+        Count counted = count;
+        if (counted == null || counted.segments() != current) {
+            long tasks = current.size() == 1 ? current.getFirst().size() : current.stream()
+                    .flatMapToLong(segment -> LongStream.range(0, segment.size()).map(i -> segment.idIndex().get((int) i)))
+                    .sorted()
+                    .distinct()
+                    .count();
+            counted = new Count(current, tasks);
+            count = counted;
+        }
+        return counted.tasks();
+    }
+
+    /**
+     * Подсчитывает задачи архива в диапазоне дат выполнения. Читаются только пересекающиеся сегменты.
+     *
+     * @param start начальная дата (включительно)
+     * @param end конечная дата (включительно)
+     * @return дата выполнения → количество задач
+     */
+    public Map<LocalDate, Long> countByDueDate(LocalDate start, LocalDate end) {
+        Map<LocalDate, Long> counts = new TreeMap<>();
+        for (Task task : find(start, end)) {
+            counts.merge(task.getDueDate(), 1L, Long::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Подсчитывает задачи архива по датам выполнения (для пересчета сводной статистики).
+     * Сегменты читаются потоково, без кеширования.
+     *
+     * @return дата выполнения → количество задач
+     */
+    public Map<LocalDate, Long> countByDueDate() {
+        Map<LocalDate, Long> counts = new TreeMap<>();
+        for (Segment segment : segments) {
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(segment.data()), 64 * 1024);
+                 MappingIterator<Task> tasks = reader.readValues(in)) {
+                while (tasks.hasNext()) {
+                    counts.merge(tasks.next().getDueDate(), 1L, Long::sum);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read archive segment " + segment.data(), e);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Выполняет действие, пока архивация не идет: ни одна порция не переносится в архив,
+     * а все перенесенные ранее уже видны чтению. {@link TaskArchiver} переносит каждую порцию
+     * под этой же блокировкой.
+     *
+     * @param action действие (например, транзакция, читающая таблицу задач и архив)
+     * @return результат действия
+     */
+    public <T> T exclusively(Supplier<T> action) {
+        changeLock.lock();
+        try {
+            return action.get();
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает самый новый сегмент.
+     *
+     * @return сегмент или пустой Optional, если архив пуст
+     */
+    public Optional<Segment> newestSegment() {
+        List<Segment> current = segments;
+        return current.isEmpty() ? Optional.empty() : Optional.of(current.getLast());
+    }
+
+    /**
+     * Возвращает все сегменты в порядке создания.
+     *
+     * @return сегменты архива
+     */
+    public List<Segment> segments() {
+        return segments;
+    }
+
+    /**
+     * Записывает задачи новым сегментом. Файлы сбрасываются на диск до переименования,
+     * а каталог — после него, поэтому после возврата сегмент переживает сбой процесса и системы.
+     *
+     * @param tasks задачи (непустой список)
+     * @return записанный сегмент
+     * @throws UncheckedIOException если запись не удалась
+     */
+    public synchronized Segment write(List<Task> tasks) {
+        LocalDate minDate = tasks.stream().map(Task::getDueDate).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDate maxDate = tasks.stream().map(Task::getDueDate).max(Comparator.naturalOrder()).orElseThrow();
+        long created = Math.max(System.currentTimeMillis(), Math.max(
+                segments.isEmpty() ? 0 : segments.getLast().created() + 1,
+                pending.isEmpty() ? 0 : pending.getLast().created() + 1));
+        String name = "seg-" + minDate + "_" + maxDate + "_" + created + ".ndjson.gz";
+        Path data = directory.resolve(name);
+        Path ids = directory.resolve(name + IDS_SUFFIX);
+        Path dataTmp = directory.resolve(name + TMP_SUFFIX);
+        Path idsTmp = directory.resolve(name + IDS_SUFFIX + TMP_SUFFIX);
+        try {
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(dataTmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                GZIPOutputStream out = new GZIPOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+                try (SequenceWriter sequence = writer.writeValues(out)) {
+                    sequence.writeAll(tasks);
+                }
+                out.finish();
+                out.flush();
+                channel.force(true);
+                out.close();
+            }
+            long[] sorted = tasks.stream().mapToLong(Task::getId).sorted().toArray();
+            ByteBuffer buffer = ByteBuffer.allocate(sorted.length * Long.BYTES);
+            buffer.asLongBuffer().put(sorted);
+            try (FileChannel channel = FileChannel.open(idsTmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(idsTmp, ids, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(dataTmp, data, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory();
+            Segment segment = new Segment(data, ids, minDate, maxDate, created, mapIds(ids));
+            List<Segment> updated = new ArrayList<>(pending);
+            updated.add(segment);
+            pending = List.copyOf(updated);
+            return segment;
+        } catch (IOException e) {
+            deleteQuietly(dataTmp);
+            deleteQuietly(idsTmp);
+            deleteQuietly(data);
+            deleteQuietly(ids);
+            throw new UncheckedIOException("Failed to write archive segment " + name, e);
+        }
+    }
+
+    /**
+     * Делает записанный сегмент видимым чтению после фиксации удаления его задач из таблицы.
+     *
+     * @param segment сегмент, возвращенный {@link #write(List)}
+     */
+    public synchronized void confirm(Segment segment) {
+        if (!pending.contains(segment)) {
+            return;
+        }
+        List<Segment> remaining = new ArrayList<>(pending);
+        remaining.remove(segment);
+        pending = List.copyOf(remaining);
+        List<Segment> updated = new ArrayList<>(segments);
+        updated.add(segment);
+        updated.sort(Comparator.comparingLong(Segment::created));
+        segments = List.copyOf(updated);
+    }
+
+    /**
+     * Удаляет сегмент, задачи которого не были удалены из таблицы (откат архивации).
+     *
+     * @param segment сегмент
+     */
+    public synchronized void discard(Segment segment) {
+        List<Segment> remaining = new ArrayList<>(pending);
+        remaining.remove(segment);
+        pending = List.copyOf(remaining);
+        List<Segment> updated = new ArrayList<>(segments);
+        updated.remove(segment);
+        segments = List.copyOf(updated);
+        contents.invalidate(segment.data());
+        deleteQuietly(segment.data());
+        deleteQuietly(segment.ids());
+        log.info("Discarded archive segment {}", segment.data().getFileName());
+    }
+
+    /**
+     * Читает задачи сегмента (с кешированием).
+     */
+    private List<Task> read(Segment segment) {
+        return contents.get(segment.data(), path -> {
+            List<Task> tasks = new ArrayList<>(segment.size());
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(path), 64 * 1024);
+                 MappingIterator<Task> iterator = reader.readValues(in)) {
+                while (iterator.hasNext()) {
+                    tasks.add(iterator.next());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read archive segment " + path, e);
+            }
+            return List.copyOf(tasks);
+        });
+    }
+
+    /**
+     * Загружает список сегментов из каталога архива, удаляя незавершенные временные файлы.
+     */
+    private List<Segment> load() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        List<Segment> loaded = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TMP_SUFFIX)) {
+                    deleteQuietly(file);
+                    continue;
+                }
+                Matcher matcher = SEGMENT_NAME.matcher(name);
+                if (!matcher.matches()) {
+                    continue;
+                }
+                Path ids = directory.resolve(name + IDS_SUFFIX);
+                if (!Files.exists(ids)) {
+                    log.warn("Archive segment {} has no id index, skipped", name);
+                    continue;
+                }
+                loaded.add(new Segment(file, ids, LocalDate.parse(matcher.group(1)), LocalDate.parse(matcher.group(2)),
+                        Long.parseLong(matcher.group(3)), mapIds(ids)));
+            }
+        }
+        loaded.sort(Comparator.comparingLong(Segment::created));
+        if (!loaded.isEmpty()) {
+            log.info("Task archive opened: {} segments, {} tasks", loaded.size(),
+                    loaded.stream().mapToLong(Segment::size).sum());
+        }
+        return List.copyOf(loaded);
+    }
+
+    /**
+     * Сбрасывает на диск каталог архива, чтобы переименования файлов сегмента пережили сбой системы.
+     * На Windows каталог нельзя открыть как файл; там переименование сохраняется файловой системой.
+     */
+    private void syncDirectory() throws IOException {
+        if (WINDOWS) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private static LongBuffer mapIds(Path ids) throws IOException {
+        try (FileChannel channel = FileChannel.open(ids, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).asLongBuffer();
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.the.dailytasks.service;
+
+import com.the.dailytasks.config.DataSourceRouting;
+import com.the.dailytasks.event.TasksArchivedEvent;
+import com.the.dailytasks.model.Task;
+import com.the.dailytasks.repository.TaskRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Перенос выполненных задач старше заданного возраста из таблицы задач в архив {@link TaskArchive}.
+ * Задачи обрабатываются порциями в порядке (dueDate, id); каждая порция — одна транзакция
+ * под блокировкой {@link TaskArchive#exclusively}:
+ * строки блокируются, записываются новым сегментом архива (со сбросом на диск),
+ * затем удаляются из таблицы. При откате транзакции сегмент удаляется. Если исход фиксации
+ * неизвестен (например, потеряно соединение), сегмент сохраняется и сверяется с таблицей
+ * перед следующей архивацией: удаляется, только если его задачи остались в таблице.
+ * Если процесс упал между записью сегмента и фиксацией, та же сверка последнего сегмента
+ * выполняется при следующем запуске.
+ * Архивные задачи доступны только для чтения.
+ */
+@Slf4j
+@Component
+public class TaskArchiver {
+
+    private final TaskRepository taskRepository;
+    private final TaskArchive archive;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int minAgeDays;
+    private final int chunkSize;
+
+    /**
+     * Сегменты, исход фиксации которых неизвестен.
+     */
+    private final Set<TaskArchive.Segment> unconfirmed = ConcurrentHashMap.newKeySet();
+
+    public TaskArchiver(TaskRepository taskRepository, TaskArchive archive, ApplicationEventPublisher eventPublisher,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${tasks.archive.enabled:false}") boolean enabled,
+                        @Value("${tasks.archive.min-age-days:365}") int minAgeDays,
+                        @Value("${tasks.archive.chunk-size:5000}") int chunkSize) {
+        this.taskRepository = taskRepository;
+        this.archive = archive;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.minAgeDays = minAgeDays;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Удаляет последний сегмент, если его задачи остались в таблице
+     * (процесс завершился до фиксации транзакции архивации).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void removeUncommittedSegment() {
+        archive.newestSegment().ifPresent(this::reconcile);
+    }
+
+    /**
+     * Запускает архивацию по расписанию (по умолчанию ежедневно в 03:30), если она включена.
+     */
+    @Scheduled(cron = "${tasks.archive.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archive();
+        }
+    }
+
+    /**
+     * Переносит в архив все выполненные задачи с датой выполнения старше минимального возраста.
+     *
+     * @return количество перенесенных задач
+     */
+    public synchronized int archive() {
+        for (TaskArchive.Segment segment : List.copyOf(unconfirmed)) {
+            reconcile(segment);
+            unconfirmed.remove(segment);
+        }
+        LocalDate before = LocalDate.now().minusDays(minAgeDays);
+        long started = System.nanoTime();
+        int total = 0;
+        int archived;
+        do {
+            Integer count = archive.exclusively(() -> transactionTemplate.execute(status -> archiveChunk(before)));
+            archived = count == null ? 0 : count;
+            total += archived;
+        } while (archived == chunkSize);
+        if (total > 0) {
+            log.info("Archived {} tasks due before {} in {} ms", total, before,
+                    (System.nanoTime() - started) / 1_000_000);
+        }
+        return total;
+    }
+
+    /**
+     * Переносит одну порцию задач. Вызывается в транзакции.
+     */
+    private int archiveChunk(LocalDate before) {
+        List<Task> tasks = taskRepository.findArchivable(before, Limit.of(chunkSize));
+        if (tasks.isEmpty()) {
+            return 0;
+        }
+        TaskArchive.Segment segment = archive.write(tasks);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    archive.confirm(segment);
+                } else if (status == STATUS_ROLLED_BACK) {
+                    archive.discard(segment);
+                } else if (status == STATUS_UNKNOWN) {
+                    log.warn("Outcome of archiving into segment {} is unknown, it will be checked before the next run",
+                            segment.data().getFileName());
+                    unconfirmed.add(segment);
+                }
+            }
+        });
+        List<Long> ids = tasks.stream().map(Task::getId).toList();
+        taskRepository.deleteArchived(ids, segment.minDate(), segment.maxDate());
+        eventPublisher.publishEvent(new TasksArchivedEvent(ids));
+        return tasks.size();
+    }
+
+    /**
+     * Удаляет сегмент, если его задачи остались в таблице (удаление из таблицы не зафиксировано).
+     */
+    private void reconcile(TaskArchive.Segment segment) {
+        if (DataSourceRouting.onPrimary(() -> taskRepository.existsById(segment.idIndex().get(0)))) {
+            archive.discard(segment);
+        } else {
+            archive.confirm(segment);
+        }
+    }
+}
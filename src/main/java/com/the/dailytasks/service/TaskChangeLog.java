@@ -0,0 +1,164 @@
+package com.the.dailytasks.service;
+
+import com.the.dailytasks.config.DataSourceRouting;
+import com.the.dailytasks.dto.TaskChangesPage;
+import com.the.dailytasks.dto.TaskDelta;
+import com.the.dailytasks.dto.TaskSummary;
+import com.the.dailytasks.event.TaskChangedEvent;
+import com.the.dailytasks.repository.TaskChangeRepository;
+import com.the.dailytasks.repository.TaskRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Журнал изменений задач для инкрементальной синхронизации (таблица task_change).
+ * Обработчик {@link TaskChangedEvent} накапливает изменения транзакции, а перед фиксацией
+ * назначает им последовательные ревизии и записывает их одним JDBC batch.
+ * Ревизии выдаются счетчиком в базе (таблица task_change_revision), строка которого блокируется
+ * до фиксации транзакции. Поэтому транзакции с изменениями фиксируются строго в порядке ревизий,
+ * и зафиксированное значение счетчика — граница, до которой видны все изменения: транзакция,
+ * зафиксированная позже, не получит ревизию меньше уже выданной клиенту. Гарантия не зависит
+ * от числа экземпляров приложения; цена — завершающие шаги пишущих транзакций выполняются по очереди.
+ */
+@Slf4j
+@Component
+public class TaskChangeLog {
+
+    private final TaskChangeRepository changeRepository;
+    private final TaskRepository taskRepository;
+    private final TaskArchive archive;
+    private final TransactionTemplate transactionTemplate;
+
+    public TaskChangeLog(TaskChangeRepository changeRepository, TaskRepository taskRepository, TaskArchive archive,
+                         PlatformTransactionManager transactionManager) {
+        this.changeRepository = changeRepository;
+        this.taskRepository = taskRepository;
+        this.archive = archive;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Накопленные в транзакции изменения: идентификатор задачи → признак удаления.
+     */
+    private final class PendingChanges implements TransactionSynchronization {
+        private final Map<Long, Boolean> changes = new LinkedHashMap<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (changes.isEmpty()) {
+                return;
+            }
+            // Все прочие изменения транзакции записываются до блокировки счетчика,
+            // чтобы она держалась как можно меньше и бралась после остальных блокировок строк
+            changeRepository.flush();
+            long firstRevision = changeRepository.lockRevision() + 1;
+            changeRepository.advanceRevision(firstRevision + changes.size() - 1);
+            changeRepository.record(changes, firstRevision, Instant.now());
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TaskChangeLog.this);
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+
+    /**
+     * Добавляет в журнал задачи, созданные до его появления или в обход событий.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (changeRepository.countByDeletedFalse() < taskRepository.count()) {
+            Integer added = transactionTemplate.execute(status -> {
+                long after = changeRepository.lockRevision();
+                int count = changeRepository.backfill(after);
+                changeRepository.advanceRevision(after + count);
+                return count;
+            });
+            if (added != null && added > 0) {
+                log.info("Task change log backfilled with {} existing tasks", added);
+            }
+        }
+    }
+
+    /**
+     * Учитывает изменение задачи. Вызывается синхронно в транзакции записи.
+     *
+     * @param event событие изменения задачи
+     */
+    @EventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            PendingChanges pending = new PendingChanges();
+            pending.changes.put(event.taskId(), event.type() == TaskChangedEvent.Type.DELETED);
+            transactionTemplate.executeWithoutResult(status -> pending.beforeCommit(false));
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        // Повторное изменение задачи переносит ее в конец порядка ревизий
+        pending.changes.remove(event.taskId());
+        pending.changes.put(event.taskId(), event.type() == TaskChangedEvent.Type.DELETED);
+    }
+
+    /**
+     * Возвращает изменения задач после курсора.
+     * Читается с основной базы: реплика может еще не содержать изменений до видимой ревизии.
+     *
+     * @param since ревизия курсора (0 — с начала журнала)
+     * @param limit максимальное количество изменений
+     * @return порция изменений и курсор для следующего запроса
+     */
+    public TaskChangesPage getChanges(long since, int limit) {
+        return DataSourceRouting.onPrimary(() -> readChanges(since, limit));
+    }
+
+    private TaskChangesPage readChanges(long since, int limit) {
+        long until = changeRepository.committedRevision();
+        List<TaskDelta> changes = since >= until ? List.of()
+                : changeRepository.findChanges(since, until, Limit.of(limit + 1));
+        boolean hasMore = changes.size() > limit;
+        if (hasMore) {
+            changes = changes.subList(0, limit);
+        }
+        changes = changes.stream().map(this::resolveMissing).toList();
+        long cursor = changes.isEmpty() ? since : changes.getLast().revision();
+        return new TaskChangesPage(changes, hasMore, Long.toString(cursor));
+    }
+
+    /**
+     * Дополняет изменение задачи, которой больше нет в таблице задач, хотя она не удалялась:
+     * перенесенная в архив задача возвращается в архивном состоянии, а исчезнувшая в обход
+     * журнала (например, с отсоединенной секцией) — как удаленная.
+     */
+    private TaskDelta resolveMissing(TaskDelta change) {
+        if (change.deleted() || change.task() != null) {
+            return change;
+        }
+        return archive.findById(change.id())
+                .map(task -> new TaskDelta(change.revision(), change.id(), false, change.updatedAt(),
+                        TaskSummary.of(task)))
+                .orElseGet(() -> new TaskDelta(change.revision(), change.id(), true, change.updatedAt(), null));
+    }
+}
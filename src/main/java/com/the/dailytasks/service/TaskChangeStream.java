@@ -0,0 +1,334 @@
+package com.the.dailytasks.service;
+
+import com.the.dailytasks.dto.TaskChangeView;
+import com.the.dailytasks.event.TaskChangedEvent;
+import com.the.dailytasks.event.TaskSnapshot;
+import com.the.dailytasks.exception.StreamCapacityExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Поток изменений задач для подписчиков Server-Sent Events.
+ * После фиксации транзакции поток записи только кладет изменение в общую очередь; рассылка
+ * по очередям подписчиков, чей фильтр совпадает со старым или новым состоянием задачи,
+ * выполняется исполнителем отправки по одной задаче за раз, поэтому порядок изменений сохраняется.
+ * Отправка выполняется виртуальным потоком, который запускается при появлении событий
+ * и завершается, когда очередь пуста, поэтому простаивающие подключения не занимают потоков.
+ * Очередь подписчика ограничена и объединяет изменения одной задачи в одно событие.
+ * При переполнении самые старые изменения отбрасываются, а подписчик получает событие resync
+ * и должен перечитать выборку. Периодический комментарий ping выявляет разорванные подключения.
+ */
+@Slf4j
+@Component
+public class TaskChangeStream {
+
+    /**
+     * Фильтр подписки. Незаданные поля не ограничивают выборку.
+     *
+     * @param start начальная дата выполнения (включительно)
+     * @param end конечная дата выполнения (включительно)
+     * @param completed статус выполнения
+     */
+    public record Filter(LocalDate start, LocalDate end, Boolean completed) {
+
+        /**
+         * Проверяет, подходит ли состояние задачи под фильтр.
+         *
+         * @param task состояние задачи (может быть null)
+         * @return true, если состояние задано и подходит под фильтр
+         */
+        boolean matches(TaskSnapshot task) {
+            return task != null
+                    && (start == null || (task.dueDate() != null && !task.dueDate().isBefore(start)))
+                    && (end == null || (task.dueDate() != null && !task.dueDate().isAfter(end)))
+                    && (completed == null || completed == task.completed());
+        }
+    }
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger active = new AtomicInteger();
+    private final int maxSubscribers;
+    private final int bufferSize;
+    private final Executor senders;
+    private final Queue<TaskChangedEvent> changes = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean dispatching = new AtomicBoolean();
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("task-stream-heartbeat").daemon().factory());
+    private final Counter sent;
+    private final Counter coalesced;
+    private final Counter dropped;
+    private final Counter resyncs;
+
+    @Autowired
+    public TaskChangeStream(@Value("${tasks.stream.max-subscribers:50000}") int maxSubscribers,
+                            @Value("${tasks.stream.buffer-size:256}") int bufferSize,
+                            @Value("${tasks.stream.heartbeat-ms:30000}") long heartbeatMillis,
+                            MeterRegistry registry) {
+        this(maxSubscribers, bufferSize, heartbeatMillis, registry,
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("task-stream-", 0).factory()));
+    }
+
+    /**
+     * Создает поток изменений с заданным исполнителем рассылки и отправки событий.
+     *
+     * @param maxSubscribers максимальное число подписчиков
+     * @param bufferSize размер очереди подписчика
+     * @param heartbeatMillis период комментария ping в миллисекундах
+     * @param registry реестр метрик
+     * @param senders исполнитель рассылки и отправки событий
+     */
+    public TaskChangeStream(int maxSubscribers, int bufferSize, long heartbeatMillis, MeterRegistry registry,
+                            Executor senders) {
+        this.maxSubscribers = maxSubscribers;
+        this.bufferSize = bufferSize;
+        this.senders = senders;
+        this.sent = Counter.builder("tasks.stream.events.sent")
+                .description("Task change events sent to stream subscribers")
+                .register(registry);
+        this.coalesced = Counter.builder("tasks.stream.events.coalesced")
+                .description("Task change events merged with a pending event for the same task")
+                .register(registry);
+        this.dropped = Counter.builder("tasks.stream.events.dropped")
+                .description("Task change events dropped because a subscriber buffer was full")
+                .register(registry);
+        this.resyncs = Counter.builder("tasks.stream.resyncs")
+                .description("Resync events sent to subscribers whose buffer overflowed")
+                .register(registry);
+        Gauge.builder("tasks.stream.subscribers", active, AtomicInteger::get)
+                .description("Active task change stream subscribers")
+                .register(registry);
+        heartbeats.scheduleAtFixedRate(() -> subscribers.forEach(Subscriber::heartbeat),
+                heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Регистрирует нового подписчика.
+     *
+     * @param filter фильтр изменений
+     * @return SSE-подключение подписчика
+     * @throws StreamCapacityExceededException если достигнуто максимальное число подписчиков
+     */
+    public SseEmitter subscribe(Filter filter) {
+        if (active.incrementAndGet() > maxSubscribers) {
+            active.decrementAndGet();
+            throw new StreamCapacityExceededException("Too many stream subscribers");
+        }
+        // Подключение живет до отключения клиента: разорванные выявляет ping, а не тайм-аут запроса
+        SseEmitter emitter = new SseEmitter(-1L);
+        Subscriber subscriber = new Subscriber(emitter, filter);
+        subscribers.add(subscriber);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        // Первый комментарий сразу отправляет клиенту заголовки ответа
+        subscriber.heartbeat();
+        return emitter;
+    }
+
+    /**
+     * Передает изменение задачи на рассылку подписчикам после фиксации транзакции.
+     *
+     * @param event событие изменения задачи
+     */
+    @TransactionalEventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        changes.add(event);
+        if (dispatching.compareAndSet(false, true)) {
+            try {
+                senders.execute(this::dispatch);
+            } catch (RejectedExecutionException e) {
+                dispatching.set(false);
+            }
+        }
+    }
+
+    private void dispatch() {
+        do {
+            TaskChangedEvent event;
+            while ((event = changes.poll()) != null) {
+                fanOut(event);
+            }
+            dispatching.set(false);
+            // Изменение могло прийти между опустошением очереди и сбросом флага
+        } while (!changes.isEmpty() && dispatching.compareAndSet(false, true));
+    }
+
+    private void fanOut(TaskChangedEvent event) {
+        TaskChangeView view = null;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.filter.matches(event.before()) || subscriber.filter.matches(event.after())) {
+                if (view == null) {
+                    view = TaskChangeView.of(event);
+                }
+                subscriber.offer(view);
+            }
+        }
+    }
+
+    /**
+     * Возвращает число активных подписчиков.
+     *
+     * @return число подписчиков
+     */
+    public int subscriberCount() {
+        return active.get();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        if (senders instanceof ExecutorService service) {
+            service.shutdownNow();
+        }
+    }
+
+    /**
+     * Подписчик с ограниченной очередью изменений: идентификатор задачи → последнее изменение.
+     */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Filter filter;
+        private final LinkedHashMap<Long, TaskChangeView> pending = new LinkedHashMap<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private boolean overflowed;
+        private boolean heartbeatDue;
+
+        Subscriber(SseEmitter emitter, Filter filter) {
+            this.emitter = emitter;
+            this.filter = filter;
+        }
+
+        void offer(TaskChangeView view) {
+            synchronized (this) {
+                TaskChangeView previous = pending.get(view.id());
+                if (previous != null) {
+                    coalesced.increment();
+                    if (previous.type() != TaskChangedEvent.Type.CREATED) {
+                        pending.put(view.id(), view);
+                    } else if (view.type() == TaskChangedEvent.Type.DELETED) {
+                        // Подписчик не видел задачу: создание и удаление взаимно уничтожаются
+                        pending.remove(view.id());
+                    } else {
+                        pending.put(view.id(), new TaskChangeView(TaskChangedEvent.Type.CREATED, view.id(), view.task()));
+                    }
+                } else {
+                    if (pending.size() >= bufferSize) {
+                        Iterator<Long> oldest = pending.keySet().iterator();
+                        oldest.next();
+                        oldest.remove();
+                        dropped.increment();
+                        overflowed = true;
+                    }
+                    pending.put(view.id(), view);
+                }
+            }
+            schedule();
+        }
+
+        void heartbeat() {
+            synchronized (this) {
+                heartbeatDue = true;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (closed.get() || !scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+            }
+        }
+
+        private synchronized boolean hasWork() {
+            return !pending.isEmpty() || overflowed || heartbeatDue;
+        }
+
+        private void drain() {
+            try {
+                while (!closed.get()) {
+                    List<TaskChangeView> batch;
+                    boolean resync;
+                    boolean ping;
+                    synchronized (this) {
+                        batch = new ArrayList<>(pending.values());
+                        pending.clear();
+                        resync = overflowed;
+                        ping = heartbeatDue;
+                        overflowed = false;
+                        heartbeatDue = false;
+                    }
+                    if (batch.isEmpty() && !resync && !ping) {
+                        scheduled.set(false);
+                        // Событие могло прийти между проверкой очереди и сбросом флага
+                        if (!hasWork() || !scheduled.compareAndSet(false, true)) {
+                            return;
+                        }
+                        continue;
+                    }
+                    if (resync) {
+                        emitter.send(SseEmitter.event().name("resync").data(""));
+                        resyncs.increment();
+                    }
+                    for (TaskChangeView view : batch) {
+                        emitter.send(SseEmitter.event().name("change").data(view, MediaType.APPLICATION_JSON));
+                        sent.increment();
+                    }
+                    if (ping && batch.isEmpty() && !resync) {
+                        emitter.send(SseEmitter.event().comment("ping"));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Task stream subscriber disconnected: {}", e.getMessage());
+                close();
+                emitter.completeWithError(e);
+            }
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                subscribers.remove(this);
+                active.decrementAndGet();
+                synchronized (this) {
+                    pending.clear();
+                }
+            }
+        }
+    }
+}
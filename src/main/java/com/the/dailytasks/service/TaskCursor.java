@@ -0,0 +1,94 @@
+package com.the.dailytasks.service;
+
+import com.the.dailytasks.dto.TaskSummary;
+import com.the.dailytasks.exception.InvalidCursorException;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Позиция курсорной пагинации по ключу (dueDate, id).
+ * Кодируется в непрозрачную для клиента строку (base64url),
+ * чтобы формат ключа можно было менять без изменения API.
+ *
+ * @param dueDate срок выполнения последней выданной задачи
+ * @param id идентификатор последней выданной задачи
+ */
+public record TaskCursor(LocalDate dueDate, Long id) {
+
+    private static final char SEPARATOR = ':';
+
+    /**
+     * Создает курсор, указывающий на позицию сразу после переданной задачи.
+     *
+     * @param task последняя задача текущей порции
+     * @return курсор для следующей порции
+     */
+    public static TaskCursor after(TaskSummary task) {
+        return new TaskCursor(task.dueDate(), task.id());
+    }
+
+    /**
+     * Проверяет, идет ли задача после позиции курсора в порядке (dueDate, id).
+     *
+     * @param task задача
+     * @return true, если задача попадает в следующие порции
+     */
+    public boolean isBefore(TaskSummary task) {
+        int byDate = task.dueDate().compareTo(dueDate);
+        return byDate > 0 || byDate == 0 && task.id() > id;
+    }
+
+    /**
+     * Кодирует курсор в строку для передачи клиенту.
+     *
+     * @return непрозрачное строковое представление курсора
+     */
+    public String encode() {
+        String raw = dueDate.toEpochDay() + String.valueOf(SEPARATOR) + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Декодирует курсор, полученный от клиента.
+     *
+     * @param token строковое представление курсора
+     * @return декодированный курсор
+     * @throws InvalidCursorException если курсор поврежден
+     */
+    public static TaskCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+            int separator = raw.indexOf(SEPARATOR);
+            return new TaskCursor(
+                    LocalDate.ofEpochDay(Long.parseLong(raw.substring(0, separator))),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid cursor: " + token);
+        }
+    }
+
+    /**
+     * Преобразует строку курсора в позицию прокрутки Spring Data.
+     * Пустой курсор означает первую порцию.
+     *
+     * @param token строковое представление курсора (может быть null или пустым)
+     * @return позиция keyset-прокрутки
+     * @throws InvalidCursorException если курсор поврежден
+     */
+    public static ScrollPosition toScrollPosition(String token) {
+        if (token == null || token.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        TaskCursor cursor = decode(token);
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("dueDate", cursor.dueDate());
+        keys.put("id", cursor.id());
+        return ScrollPosition.forward(keys);
+    }
+}
@@ -0,0 +1,233 @@
+package com.the.dailytasks.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.the.dailytasks.model.Task;
+import com.the.dailytasks.repository.TaskRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Сервис потоковой выгрузки задач за произвольный диапазон дат.
+ * Задачи читаются из базы курсором и сразу записываются в выходной поток;
+ * контекст персистентности периодически очищается, поэтому расход памяти
+ * не зависит от размера диапазона. Выгружается только таблица задач: задачи, перенесенные
+ * в архив, в выгрузку не попадают.
+ * Выгрузка занимает соединение с базой на все время записи, поэтому ее транзакция ограничена
+ * {@code tasks.export.transaction-timeout-s}: по истечении срока выгрузка прерывается
+ * и соединение возвращается в пул, даже если клиент еще читает ответ.
+ * При tasks.export.direct-jdbc=true NDJSON пишется из столбцов ResultSet прямо в {@link JsonGenerator},
+ * без сущностей и сериализации по рефлексии; вывод побайтно совпадает с сериализацией {@link Task}
+ * при стандартных настройках Jackson (даты строкой ISO, null-поля включаются).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class TaskExportService {
+
+    private static final String CSV_HEADER = "id,title,description,completed,dueDate,version";
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString TITLE = new SerializedString("title");
+    private static final SerializableString DESCRIPTION = new SerializedString("description");
+    private static final SerializableString COMPLETED = new SerializedString("completed");
+    private static final SerializableString DUE_DATE = new SerializedString("dueDate");
+    private static final SerializableString VERSION = new SerializedString("version");
+    private static final SerializableString NDJSON_SEPARATOR = new SerializedString("\n");
+
+    private final TaskRepository taskRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Количество строк, после которого очищается контекст персистентности.
+     */
+    @Value("${tasks.export.clear-interval:1000}")
+    private int clearInterval;
+
+    /**
+     * Выгружать NDJSON напрямую из JDBC, минуя сущности.
+     */
+    @Value("${tasks.export.direct-jdbc:false}")
+    private boolean directJdbc;
+
+    /**
+     * Максимальное время транзакции выгрузки в секундах.
+     */
+    @Value("${tasks.export.transaction-timeout-s:900}")
+    private long transactionTimeoutSeconds;
+
+    /**
+     * Выгружает задачи за диапазон дат в выходной поток.
+     *
+     * @param start начальная дата диапазона (включительно)
+     * @param end конечная дата диапазона (включительно)
+     * @param completed статус выполнения (может быть null)
+     * @param format формат выгрузки
+     * @param out выходной поток
+     * @return количество выгруженных задач
+     * @throws IllegalArgumentException если начальная дата позже конечной
+     * @throws UncheckedIOException при ошибке записи в поток
+     * @throws TransactionTimedOutException если выгрузка не уложилась во время транзакции
+     */
+    @Transactional(readOnly = true, timeoutString = "${tasks.export.transaction-timeout-s:900}")
+    public long exportTasks(LocalDate start, LocalDate end, Boolean completed, DataFormat format, OutputStream out) {
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        long started = System.nanoTime();
+        // Тайм-аут транзакции ограничивает только выполнение запросов, а не чтение курсора
+        long deadline = started + TimeUnit.SECONDS.toNanos(transactionTimeoutSeconds);
+        try {
+            long count = directJdbc && format == DataFormat.NDJSON
+                    ? writeNdjsonRows(start, end, completed, out, deadline)
+                    : exportEntities(start, end, completed, format, out, deadline);
+            log.info("Exported {} tasks for {}..{} as {} in {} ms",
+                    count, start, end, format, (System.nanoTime() - started) / 1_000_000);
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long exportEntities(LocalDate start, LocalDate end, Boolean completed, DataFormat format,
+                                OutputStream out, long deadline) throws IOException {
+        try (Stream<Task> tasks = completed != null
+                ? taskRepository.streamByDueDateBetweenAndCompleted(start, end, completed)
+                : taskRepository.streamByDueDateBetween(start, end)) {
+            return switch (format) {
+                case NDJSON -> writeNdjson(tasks.iterator(), out, deadline);
+                case CSV -> writeCsv(tasks.iterator(), out, deadline);
+            };
+        }
+    }
+
+    private long writeNdjson(Iterator<Task> tasks, OutputStream out, long deadline) throws IOException {
+        long count = 0;
+        try (SequenceWriter writer = objectMapper.writerFor(Task.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(out)) {
+            while (tasks.hasNext()) {
+                writer.write(tasks.next());
+                afterRow(++count, deadline);
+            }
+            writer.flush();
+            if (count > 0) {
+                out.write('\n');
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Пишет NDJSON из столбцов ResultSet в том же виде, что {@link #writeNdjson}:
+     * поля в порядке объявления в {@link Task}, строки разделены переводом строки.
+     */
+    private long writeNdjsonRows(LocalDate start, LocalDate end, Boolean completed, OutputStream out,
+                                 long deadline) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(NDJSON_SEPARATOR);
+            long count = taskRepository.scanByDueDateBetween(start, end, completed,
+                    (id, title, description, done, dueDate, version) -> {
+                        checkDeadline(deadline);
+                        generator.writeStartObject();
+                        generator.writeFieldName(ID);
+                        generator.writeNumber(id);
+                        generator.writeFieldName(TITLE);
+                        generator.writeString(title);
+                        generator.writeFieldName(DESCRIPTION);
+                        generator.writeString(description);
+                        generator.writeFieldName(COMPLETED);
+                        generator.writeBoolean(done);
+                        generator.writeFieldName(DUE_DATE);
+                        generator.writeString(dueDate.toString());
+                        generator.writeFieldName(VERSION);
+                        generator.writeNumber(version);
+                        generator.writeEndObject();
+                    });
+            generator.flush();
+            if (count > 0) {
+                out.write('\n');
+            }
+            return count;
+        }
+    }
+
+    private long writeCsv(Iterator<Task> tasks, OutputStream out, long deadline) throws IOException {
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        while (tasks.hasNext()) {
+            Task task = tasks.next();
+            writer.write(String.valueOf(task.getId()));
+            writer.write(',');
+            writer.write(csvField(task.getTitle()));
+            writer.write(',');
+            writer.write(csvField(task.getDescription()));
+            writer.write(',');
+            writer.write(String.valueOf(task.isCompleted()));
+            writer.write(',');
+            writer.write(String.valueOf(task.getDueDate()));
+            writer.write(',');
+            writer.write(task.getVersion() == null ? "" : String.valueOf(task.getVersion()));
+            writer.write("\r\n");
+            afterRow(++count, deadline);
+        }
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * Периодически освобождает прочитанные задачи из контекста персистентности.
+     */
+    private void afterRow(long count, long deadline) {
+        checkDeadline(deadline);
+        if (count % clearInterval == 0) {
+            taskRepository.clear();
+        }
+    }
+
+    /**
+     * Прерывает выгрузку, если истекло время ее транзакции.
+     */
+    private void checkDeadline(long deadline) {
+        if (System.nanoTime() - deadline > 0) {
+            throw new TransactionTimedOutException(
+                    "Export exceeded the transaction timeout of " + transactionTimeoutSeconds + " s");
+        }
+    }
+
+    /**
+     * Экранирует значение поля CSV по RFC 4180.
+     */
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,253 @@
+package com.the.dailytasks.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.the.dailytasks.dto.ImportReport;
+import com.the.dailytasks.event.TaskChangedEvent;
+import com.the.dailytasks.model.Task;
+import com.the.dailytasks.repository.TaskRepository;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Сервис массовой загрузки задач из потока NDJSON или CSV.
+ * Входные данные разбираются построчно, каждая строка проходит те же проверки, что и при создании задачи.
+ * Корректные строки записываются порциями, каждая порция — в своей транзакции
+ * (на PostgreSQL — командой COPY). Если база отклоняет порцию из-за данных, порция делится
+ * пополам и записывается заново, пока отклоненными не останутся только строки, которые база
+ * не принимает по отдельности. Ошибки отдельных строк и порций попадают в отчет
+ * и не прерывают загрузку.
+ */
+@Slf4j
+@Service
+public class TaskImportService {
+
+    private final TaskRepository taskRepository;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${tasks.import.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${tasks.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public TaskImportService(TaskRepository taskRepository, Validator validator, ObjectMapper objectMapper,
+                             ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager) {
+        this.taskRepository = taskRepository;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Состояние одной загрузки.
+     */
+    private final class ImportRun {
+        private final List<Task> chunk = new ArrayList<>();
+        private final List<Long> chunkLines = new ArrayList<>();
+        private final List<ImportReport.RowError> errors = new ArrayList<>();
+        private long imported;
+        private long rejected;
+
+        void accept(long line, Task task) {
+            String error = validate(task);
+            if (error != null) {
+                reject(line, error);
+                return;
+            }
+            chunk.add(task);
+            chunkLines.add(line);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ImportReport.RowError(line, message));
+            }
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            write(chunk, chunkLines);
+            chunk.clear();
+            chunkLines.clear();
+        }
+
+        /**
+         * Записывает порцию в одной транзакции. Порция, отклоненная базой из-за данных,
+         * делится пополам; прочие ошибки (например, недоступность базы) отклоняют ее целиком.
+         */
+        private void write(List<Task> tasks, List<Long> lines) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    taskRepository.bulkInsert(tasks);
+                    tasks.forEach(task -> eventPublisher.publishEvent(TaskChangedEvent.created(task)));
+                });
+                imported += tasks.size();
+            } catch (DataIntegrityViolationException e) {
+                // Идентификаторы, назначенные в откаченной транзакции, при повторе выделяются заново
+                tasks.forEach(task -> {
+                    task.setId(null);
+                    task.setVersion(null);
+                });
+                if (tasks.size() == 1) {
+                    log.warn("Import row at line {} was rejected by the database", lines.getFirst(), e);
+                    reject(lines.getFirst(), "Row write failed: " + e.getMostSpecificCause().getMessage());
+                    return;
+                }
+                int middle = tasks.size() / 2;
+                write(tasks.subList(0, middle), lines.subList(0, middle));
+                write(tasks.subList(middle, tasks.size()), lines.subList(middle, lines.size()));
+            } catch (RuntimeException e) {
+                log.warn("Import chunk of {} rows starting at line {} failed", tasks.size(), lines.getFirst(), e);
+                for (Long line : lines) {
+                    reject(line, "Chunk write failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Загружает задачи из потока.
+     *
+     * @param format формат входных данных
+     * @param in входной поток
+     * @return отчет о загрузке: количество загруженных и отклоненных строк, ошибки, пропускная способность
+     * @throws UncheckedIOException при ошибке чтения потока
+     * @throws IllegalArgumentException если заголовок CSV некорректен
+     */
+    public ImportReport importTasks(DataFormat format, InputStream in) {
+        long started = System.nanoTime();
+        ImportRun run = new ImportRun();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        try {
+            switch (format) {
+                case NDJSON -> readNdjson(reader, run);
+                case CSV -> readCsv(reader, run);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        run.flush();
+
+        long elapsedNanos = System.nanoTime() - started;
+        double seconds = Math.max(elapsedNanos / 1_000_000_000.0, 1e-9);
+        double rowsPerSecond = run.imported / seconds;
+        log.info("Imported {} tasks ({} rejected) as {} in {} ms, {} rows/s",
+                run.imported, run.rejected, format, elapsedNanos / 1_000_000, Math.round(rowsPerSecond));
+        return new ImportReport(run.imported, run.rejected, run.errors, elapsedNanos / 1_000_000, rowsPerSecond);
+    }
+
+    private void readNdjson(BufferedReader reader, ImportRun run) throws IOException {
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                run.accept(lineNumber, objectMapper.readValue(line, Task.class));
+            } catch (JsonProcessingException e) {
+                run.reject(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("title") || !columns.containsKey("duedate")) {
+            throw new IllegalArgumentException("CSV header must contain title and dueDate columns");
+        }
+
+        long line = csv.getLine();
+        List<String> record;
+        while ((record = csv.next()) != null) {
+            if (!(record.size() == 1 && record.getFirst().isBlank())) {
+                try {
+                    run.accept(line, Task.builder()
+                            .title(field(record, columns, "title"))
+                            .description(field(record, columns, "description"))
+                            .completed(Boolean.parseBoolean(field(record, columns, "completed")))
+                            .dueDate(parseDate(field(record, columns, "duedate")))
+                            .build());
+                } catch (DateTimeParseException e) {
+                    run.reject(line, "Invalid dueDate: " + e.getParsedString());
+                }
+            }
+            line = csv.getLine();
+        }
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    private static LocalDate parseDate(String value) {
+        return value == null ? null : LocalDate.parse(value.trim());
+    }
+
+    /**
+     * Проверяет строку теми же правилами, что и создание задачи, включая длину столбцов
+     * и обязательные поля, чтобы такие строки не доходили до записи в базу.
+     *
+     * @return описание ошибок или null, если задача корректна
+     */
+    private String validate(Task task) {
+        task.setId(null);
+        task.setVersion(null);
+        String violations = validator.validate(task).stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+        try {
+            TaskService.validateTaskDates(task);
+        } catch (IllegalArgumentException e) {
+            violations = violations.isEmpty() ? e.getMessage() : violations + "; " + e.getMessage();
+        }
+        return violations.isEmpty() ? null : violations;
+    }
+}
@@ -0,0 +1,187 @@
+package com.the.dailytasks.service;
+
+import com.the.dailytasks.event.TaskChangedEvent;
+import com.the.dailytasks.event.TaskSnapshot;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Обслуживание месячных секций таблицы task на PostgreSQL.
+ * При запуске и по расписанию создает секции на заданное число месяцев вперед и,
+ * если задан срок хранения, отсоединяет секции старше него. Отсоединенная секция остается
+ * отдельной таблицей с теми же строками, но больше не видна запросам к task: для остального
+ * приложения (статистика, журнал изменений, кеши, индексы) ее задачи считаются удаленными.
+ * Строки, попавшие в секцию по умолчанию до создания месячной секции, переносятся в нее.
+ * История до месяца секционирования хранится в секции по умолчанию и срок хранения на нее
+ * не распространяется: отсоединяются только месячные секции.
+ * На других базах (H2) и до секционирования таблицы ничего не делает.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "tasks.partitions.enabled", havingValue = "true", matchIfMissing = true)
+public class TaskPartitionManager {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("task_p(\\d{4})_(\\d{2})");
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("'task_p'yyyy_MM");
+
+    private static final String IS_PARTITIONED = """
+            SELECT COUNT(*) FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid
+            WHERE c.relname = 'task' AND c.relnamespace = to_regnamespace(current_schema())""";
+
+    private static final String LIST_PARTITIONS = """
+            SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'task'::regclass""";
+
+    private static final String MOVE_FROM_DEFAULT = """
+            WITH moved AS (
+                DELETE FROM task_default WHERE due_date >= ? AND due_date < ?
+                RETURNING id, title, description, completed, due_date, version)
+            INSERT INTO %s (id, title, description, completed, due_date, version)
+            SELECT id, title, description, completed, due_date, version FROM moved""";
+
+    private static final String SELECT_PARTITION = "SELECT id, title, completed, due_date, version FROM %s";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public TaskPartitionManager(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory,
+                                ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+                                @Value("${tasks.partitions.months-ahead:12}") int monthsAhead,
+                                @Value("${tasks.partitions.retention-months:0}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    /**
+     * Создает недостающие секции и отсоединяет устаревшие.
+     * Выполняется при запуске и по расписанию (по умолчанию ежедневно в 03:00).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${tasks.partitions.cron:0 0 3 * * *}")
+    public void maintain() {
+        try {
+            if (isPartitioned()) {
+                maintainPartitions();
+            }
+        } catch (DataAccessException e) {
+            log.error("Task partition maintenance failed", e);
+        }
+    }
+
+    private void maintainPartitions() {
+        Set<YearMonth> existing = new HashSet<>(partitionMonths());
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (!existing.contains(month)) {
+                createPartition(month);
+            }
+        }
+        if (retentionMonths > 0) {
+            YearMonth oldest = current.minusMonths(retentionMonths);
+            for (YearMonth month : existing) {
+                if (month.isBefore(oldest)) {
+                    detachPartition(month);
+                }
+            }
+        }
+    }
+
+    /**
+     * Возвращает месяцы существующих секций.
+     *
+     * @return месяцы секций (без секции по умолчанию)
+     */
+    public List<YearMonth> partitionMonths() {
+        if (!isPartitioned()) {
+            return List.of();
+        }
+        List<YearMonth> months = new ArrayList<>();
+        for (String name : jdbcTemplate.queryForList(LIST_PARTITIONS, String.class)) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (matcher.matches()) {
+                months.add(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+            }
+        }
+        return months;
+    }
+
+    /**
+     * Проверяет, что база — PostgreSQL и таблица task уже секционирована миграцией.
+     */
+    private boolean isPartitioned() {
+        Boolean postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+        return Boolean.TRUE.equals(postgres) && jdbcTemplate.queryForObject(IS_PARTITIONED, Long.class) > 0;
+    }
+
+    /**
+     * Создает секцию месяца отдельной таблицей, переносит в нее строки из секции по умолчанию
+     * и присоединяет ее к task. Все шаги выполняются в одной транзакции.
+     */
+    private void createPartition(YearMonth month) {
+        String name = NAME_FORMAT.format(month.atDay(1));
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        Integer moved = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE task INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            int rows = jdbcTemplate.update(MOVE_FROM_DEFAULT.formatted(name), from, to);
+            jdbcTemplate.execute("ALTER TABLE task ATTACH PARTITION " + name
+                    + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+            return rows;
+        });
+        log.info("Created task partition {} ({} rows moved from default partition)", name, moved);
+    }
+
+    /**
+     * Отсоединяет секцию месяца от task. Таблица секции сохраняется.
+     * В той же транзакции о каждой задаче секции публикуется событие удаления, чтобы статистика,
+     * журнал изменений, версии и индексы в памяти обновились так же, как при обычном удалении.
+     * Задачи исчезают мимо Hibernate, поэтому кеш второго уровня очищается целиком.
+     */
+    private void detachPartition(YearMonth month) {
+        String name = NAME_FORMAT.format(month.atDay(1));
+        Integer detached = transactionTemplate.execute(status -> {
+            List<TaskSnapshot> tasks = jdbcTemplate.query(SELECT_PARTITION.formatted(name) + " FOR UPDATE",
+                    (rs, rowNum) -> new TaskSnapshot(rs.getLong("id"), rs.getString("title"),
+                            rs.getBoolean("completed"), rs.getObject("due_date", LocalDate.class),
+                            rs.getObject("version", Long.class)));
+            jdbcTemplate.execute("ALTER TABLE task DETACH PARTITION " + name);
+            tasks.forEach(task -> eventPublisher.publishEvent(TaskChangedEvent.deleted(task.id(), task)));
+            return tasks.size();
+        });
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        log.info("Detached task partition {} ({} tasks)", name, detached);
+    }
+}
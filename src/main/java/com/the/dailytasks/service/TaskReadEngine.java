@@ -0,0 +1,542 @@
+package com.the.dailytasks.service;
+
+import com.the.dailytasks.config.DataSourceRouting;
+import com.the.dailytasks.dto.TaskSummary;
+import com.the.dailytasks.event.TaskChangedEvent;
+import com.the.dailytasks.event.TaskSnapshot;
+import com.the.dailytasks.event.TasksArchivedEvent;
+import com.the.dailytasks.repository.TaskRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Хранилище чтения в памяти для выборок задач по диапазону дат выполнения.
+ * Загружает все задачи с датой выполнения в окне от сегодня минус {@code days-back}
+ * до сегодня плюс {@code days-ahead} дней и отвечает на запросы внутри окна без обращения к базе.
+ * Поля задач хранятся по столбцам в массивах, индексируемых номером слота; индекс дат —
+ * массив дней окна (по epochDay), в каждом дне слоты отсортированы по идентификатору задачи.
+ * Поэтому выборка возвращается в порядке (dueDate, id) без сортировки.
+ * Изменения применяются после фиксации транзакций раньше остальных обработчиков.
+ * Хранилище видит только изменения своего экземпляра приложения, поэтому рассчитано на один
+ * экземпляр; выборки из него отдаются без ETag (общий для экземпляров ETag может опережать их).
+ * Окно перестраивается ежедневно; изменения, зафиксированные во время загрузки,
+ * применяются к новому хранилищу повторно (с проверкой версии), а метки удаленных задач
+ * переносятся из прежнего хранилища.
+ */
+@Slf4j
+@Component
+public class TaskReadEngine {
+
+    private final TaskRepository taskRepository;
+    private final boolean enabled;
+    private final int daysBack;
+    private final int daysAhead;
+    private final int loadBatchSize;
+
+    private final Object reloadLock = new Object();
+    private volatile Store store;
+
+    /**
+     * Изменения, полученные во время перестроения хранилища (null вне перестроения).
+     */
+    private List<Consumer<Store>> replay;
+
+    public TaskReadEngine(TaskRepository taskRepository,
+                          @Value("${tasks.read-engine.enabled:false}") boolean enabled,
+                          @Value("${tasks.read-engine.days-back:31}") int daysBack,
+                          @Value("${tasks.read-engine.days-ahead:366}") int daysAhead,
+                          @Value("${tasks.read-engine.load-batch-size:10000}") int loadBatchSize) {
+        this.taskRepository = taskRepository;
+        this.enabled = enabled;
+        this.daysBack = daysBack;
+        this.daysAhead = daysAhead;
+        this.loadBatchSize = loadBatchSize;
+    }
+
+    /**
+     * Загружает хранилище при запуске и перестраивает его после полуночи, сдвигая окно дат.
+     * Пока новое хранилище загружается, запросы обслуживает прежнее.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${tasks.read-engine.reload-cron:0 0 0 * * *}")
+    public synchronized void reload() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        Store loaded = new Store(today.minusDays(daysBack), today.plusDays(daysAhead));
+        synchronized (reloadLock) {
+            replay = new ArrayList<>();
+        }
+        try {
+            long afterId = 0;
+            List<TaskSnapshot> batch;
+            do {
+                long after = afterId;
+                batch = DataSourceRouting.onPrimary(() -> taskRepository.findSnapshotsByDueDateBetweenAfter(
+                        loaded.first(), loaded.last(), after, PageRequest.ofSize(loadBatchSize)));
+                batch.forEach(loaded::put);
+                if (!batch.isEmpty()) {
+                    afterId = batch.getLast().id();
+                }
+            } while (batch.size() == loadBatchSize);
+            synchronized (reloadLock) {
+                if (store != null) {
+                    loaded.inherit(store);
+                }
+                replay.forEach(change -> change.accept(loaded));
+                store = loaded;
+            }
+            log.info("Task read engine loaded: {} tasks due {}..{} in {} ms", loaded.size(), loaded.first(),
+                    loaded.last(), (System.nanoTime() - started) / 1_000_000);
+        } catch (DataAccessException e) {
+            log.error("Task read engine reload failed, keeping previous data", e);
+        } finally {
+            synchronized (reloadLock) {
+                replay = null;
+            }
+        }
+    }
+
+    /**
+     * Применяет изменение задачи после фиксации транзакции.
+     *
+     * @param event событие изменения задачи
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (event.type() == TaskChangedEvent.Type.DELETED) {
+            apply(store -> store.remove(event.taskId()));
+        } else {
+            apply(store -> store.put(event.after()));
+        }
+    }
+
+    /**
+     * Удаляет задачи, перенесенные в архив, после фиксации транзакции.
+     *
+     * @param event событие переноса задач в архив
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onTasksArchived(TasksArchivedEvent event) {
+        apply(store -> event.taskIds().forEach(store::remove));
+    }
+
+    /**
+     * Проверяет, отвечает ли хранилище на запросы за диапазон дат.
+     *
+     * @param start начальная дата (включительно)
+     * @param end конечная дата (включительно)
+     * @return true, если хранилище включено и диапазон внутри его окна
+     */
+    public boolean covers(LocalDate start, LocalDate end) {
+        Store current = store;
+        return current != null && current.covers(start, end);
+    }
+
+    /**
+     * Возвращает задачи диапазона дат в порядке (dueDate, id).
+     *
+     * @param start начальная дата (включительно)
+     * @param end конечная дата (включительно)
+     * @param completed статус выполнения (null — любой)
+     * @return задачи или null, если хранилище выключено или диапазон выходит за его окно
+     */
+    public List<TaskSummary> find(LocalDate start, LocalDate end, Boolean completed) {
+        List<TaskSummary> result = new ArrayList<>();
+        return collect(start, end, completed, 0, Integer.MAX_VALUE, result) < 0 ? null : result;
+    }
+
+    /**
+     * Добавляет в список часть задач диапазона дат в порядке (dueDate, id) и подсчитывает все задачи диапазона.
+     * Объекты создаются только для добавляемых задач.
+     *
+     * @param start начальная дата (включительно)
+     * @param end конечная дата (включительно)
+     * @param completed статус выполнения (null — любой)
+     * @param skip сколько первых задач пропустить
+     * @param limit максимальное количество добавляемых задач
+     * @param result список для найденных задач
+     * @return количество задач диапазона или -1, если хранилище выключено или диапазон выходит за его окно
+     */
+    public int collect(LocalDate start, LocalDate end, Boolean completed, long skip, int limit,
+                       List<TaskSummary> result) {
+        Store current = store;
+        if (current == null || start == null || end == null) {
+            return -1;
+        }
+        return current.collect(start, end, completed, skip, limit, result);
+    }
+
+    private void apply(Consumer<Store> change) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (reloadLock) {
+            if (replay != null) {
+                replay.add(change);
+            }
+            Store current = store;
+            if (current != null) {
+                change.accept(current);
+            }
+        }
+    }
+
+    /**
+     * Столбцовое хранилище задач окна дат. Удаленная задача и задача, дата которой ушла за окно,
+     * остаются в хранилище меткой удаления с версией: события разных транзакций приходят
+     * после фиксации в произвольном порядке, и запоздавшее состояние не должно вернуть задачу.
+     */
+    private static final class Store {
+
+        private static final long NO_VERSION = Long.MIN_VALUE;
+
+        /**
+         * Версия метки удаленной задачи: задача не возвращается никаким состоянием.
+         */
+        private static final long DELETED = Long.MAX_VALUE;
+
+        private final int firstDay;
+        private final LocalDate[] dates;
+        private final int[][] days;
+        private final int[] daySizes;
+        private final LongIntMap slotsById = new LongIntMap();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private long[] ids = new long[1024];
+        private String[] titles = new String[1024];
+        private int[] dueDays = new int[1024];
+        private long[] versions = new long[1024];
+        private final BitSet completed = new BitSet();
+        private final BitSet removed = new BitSet();
+        private final BitSet inherited = new BitSet();
+        private int slotCount;
+        private int removedCount;
+
+        Store(LocalDate first, LocalDate last) {
+            this.firstDay = Math.toIntExact(first.toEpochDay());
+            int length = Math.toIntExact(last.toEpochDay() - first.toEpochDay() + 1);
+            this.dates = new LocalDate[length];
+            this.days = new int[length][];
+            this.daySizes = new int[length];
+            for (int day = 0; day < length; day++) {
+                dates[day] = first.plusDays(day);
+            }
+        }
+
+        LocalDate first() {
+            return dates[0];
+        }
+
+        LocalDate last() {
+            return dates[dates.length - 1];
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return slotsById.size() - removedCount;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Добавляет или обновляет задачу. Состояние с меньшей версией, чем сохраненное, пропускается,
+         * как и состояние не новее метки удаления. Задача, дата выполнения которой вышла за окно,
+         * заменяется меткой с версией этого состояния.
+         */
+        void put(TaskSnapshot task) {
+            int day = dayOf(task.dueDate());
+            long version = task.version() != null ? task.version() : NO_VERSION;
+            lock.writeLock().lock();
+            try {
+                int slot = slotsById.get(task.id());
+                if (slot < 0) {
+                    if (day < 0 && version == NO_VERSION) {
+                        return;
+                    }
+                    slot = allocate(task.id());
+                } else if (superseded(slot, version)) {
+                    return;
+                }
+                if (day < 0) {
+                    bury(slot, version);
+                    return;
+                }
+                if (removed.get(slot)) {
+                    removed.clear(slot);
+                    inherited.clear(slot);
+                    removedCount--;
+                    dueDays[slot] = day;
+                    link(slot);
+                } else if (dueDays[slot] != day) {
+                    unlink(slot);
+                    dueDays[slot] = day;
+                    link(slot);
+                }
+                titles[slot] = task.title();
+                completed.set(slot, task.completed());
+                versions[slot] = version;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Удаляет задачу, оставляя метку, после которой задача не возвращается.
+         */
+        void remove(long id) {
+            lock.writeLock().lock();
+            try {
+                int slot = slotsById.get(id);
+                bury(slot >= 0 ? slot : allocate(id), DELETED);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Переносит метки удаления предыдущего хранилища: событие, зафиксированное до загрузки,
+         * может прийти после нее. Перенесенные метки в следующее хранилище не переходят.
+         */
+        void inherit(Store previous) {
+            previous.lock.readLock().lock();
+            lock.writeLock().lock();
+            try {
+                for (int slot = previous.removed.nextSetBit(0); slot >= 0; slot = previous.removed.nextSetBit(slot + 1)) {
+                    if (previous.inherited.get(slot) || slotsById.get(previous.ids[slot]) >= 0) {
+                        continue;
+                    }
+                    int copy = allocate(previous.ids[slot]);
+                    versions[copy] = previous.versions[slot];
+                    inherited.set(copy);
+                }
+            } finally {
+                lock.writeLock().unlock();
+                previous.lock.readLock().unlock();
+            }
+        }
+
+        boolean covers(LocalDate start, LocalDate end) {
+            return start.toEpochDay() >= firstDay && end.toEpochDay() - firstDay < dates.length;
+        }
+
+        int collect(LocalDate start, LocalDate end, Boolean completedFilter, long skip, int limit,
+                    List<TaskSummary> result) {
+            if (!covers(start, end)) {
+                return -1;
+            }
+            long startDay = start.toEpochDay() - firstDay;
+            long endDay = end.toEpochDay() - firstDay;
+            int total = 0;
+            lock.readLock().lock();
+            try {
+                for (int day = (int) startDay; day <= endDay; day++) {
+                    int[] slots = days[day];
+                    for (int i = 0; i < daySizes[day]; i++) {
+                        int slot = slots[i];
+                        boolean done = completed.get(slot);
+                        if (completedFilter != null && completedFilter != done) {
+                            continue;
+                        }
+                        if (total >= skip && total - skip < limit) {
+                            result.add(new TaskSummary(ids[slot], titles[slot], done, dates[day],
+                                    versions[slot] != NO_VERSION ? versions[slot] : null));
+                        }
+                        total++;
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            return total;
+        }
+
+        private int dayOf(LocalDate date) {
+            if (date == null) {
+                return -1;
+            }
+            long day = date.toEpochDay() - firstDay;
+            return day >= 0 && day < dates.length ? (int) day : -1;
+        }
+
+        /**
+         * Проверяет, устарело ли состояние задачи относительно сохраненного в слоте.
+         */
+        private boolean superseded(int slot, long version) {
+            long known = versions[slot];
+            if (!removed.get(slot)) {
+                return version != NO_VERSION && known != NO_VERSION && version < known;
+            }
+            return known == DELETED || version != NO_VERSION && known != NO_VERSION && version <= known;
+        }
+
+        /**
+         * Выделяет слот задачи в виде метки без версии; слоты не переиспользуются до перестроения.
+         */
+        private int allocate(long id) {
+            if (slotCount == ids.length) {
+                int capacity = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                titles = Arrays.copyOf(titles, capacity);
+                dueDays = Arrays.copyOf(dueDays, capacity);
+                versions = Arrays.copyOf(versions, capacity);
+            }
+            int slot = slotCount++;
+            ids[slot] = id;
+            versions[slot] = NO_VERSION;
+            removed.set(slot);
+            removedCount++;
+            slotsById.put(id, slot);
+            return slot;
+        }
+
+        /**
+         * Убирает задачу из выборок, сохраняя в слоте метку с версией.
+         */
+        private void bury(int slot, long version) {
+            if (!removed.get(slot)) {
+                unlink(slot);
+                removed.set(slot);
+                removedCount++;
+            }
+            inherited.clear(slot);
+            titles[slot] = null;
+            versions[slot] = version;
+        }
+
+        /**
+         * Вставляет слот в список его дня, сохраняя порядок по идентификатору задачи.
+         */
+        private void link(int slot) {
+            int day = dueDays[slot];
+            int[] slots = days[day];
+            int size = daySizes[day];
+            if (slots == null) {
+                slots = days[day] = new int[4];
+            } else if (size == slots.length) {
+                slots = days[day] = Arrays.copyOf(slots, size * 2);
+            }
+            int position = -(search(slots, size, ids[slot]) + 1);
+            System.arraycopy(slots, position, slots, position + 1, size - position);
+            slots[position] = slot;
+            daySizes[day] = size + 1;
+        }
+
+        private void unlink(int slot) {
+            int day = dueDays[slot];
+            int[] slots = days[day];
+            int size = daySizes[day];
+            int position = search(slots, size, ids[slot]);
+            System.arraycopy(slots, position + 1, slots, position, size - position - 1);
+            daySizes[day] = size - 1;
+        }
+
+        /**
+         * Бинарный поиск слота задачи в списке дня.
+         *
+         * @return позиция или -(точка вставки + 1), как в {@link Arrays#binarySearch(long[], long)}
+         */
+        private int search(int[] slots, int size, long id) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                long value = ids[slots[middle]];
+                if (value < id) {
+                    low = middle + 1;
+                } else if (value > id) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+
+    /**
+     * Хеш-таблица long → int с открытой адресацией (линейное пробирование) без упаковки ключей.
+     * Ключ 0 зарезервирован под пустую ячейку: идентификаторы задач положительны.
+     */
+    private static final class LongIntMap {
+        private long[] keys = new long[1024];
+        private int[] values = new int[1024];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * @return значение или -1, если ключа нет
+         */
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = index(key, mask); ; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+                if (keys[i] == 0) {
+                    return -1;
+                }
+            }
+        }
+
+        void put(long key, int value) {
+            if (size * 2 >= keys.length) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int i = index(key, mask);
+            while (keys[i] != 0 && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == 0) {
+                keys[i] = key;
+                size++;
+            }
+            values[i] = value;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldValues.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int index(long key, int mask) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package com.the.dailytasks.service;
+
+import com.the.dailytasks.config.DataSourceRouting;
+import com.the.dailytasks.event.TaskChangedEvent;
+import com.the.dailytasks.event.TaskSnapshot;
+import com.the.dailytasks.event.TasksArchivedEvent;
+import com.the.dailytasks.repository.TaskRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный триграммный индекс названий задач в памяти приложения.
+ * Заполняется при старте приложения и поддерживается в актуальном состоянии событиями
+ * {@link TaskChangedEvent} после фиксации транзакций; изменения, зафиксированные во время загрузки,
+ * применяются повторно после нее, чтобы прочитанная раньше порция их не перезаписала.
+ * Возвращает ранжированные идентификаторы,
+ * которые затем загружаются из базы одним запросом.
+ * Триграммы строятся по словам названия с дополнением пробелами (как в pg_trgm).
+ */
+@Slf4j
+@Component
+public class TaskSearchIndex {
+
+    /**
+     * Минимальная доля триграмм запроса, которые должны встретиться в названии при нечетком поиске.
+     */
+    private static final double FUZZY_THRESHOLD = 0.5;
+
+    private final TaskRepository taskRepository;
+    private final boolean enabled;
+    private final int loadBatchSize;
+
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object loadLock = new Object();
+    private volatile boolean ready;
+
+    /**
+     * Изменения, полученные во время загрузки (null вне загрузки).
+     */
+    private List<Runnable> replay;
+
+    public TaskSearchIndex(TaskRepository taskRepository,
+                           @Value("${tasks.search.index.enabled:true}") boolean enabled,
+                           @Value("${tasks.search.index.load-batch-size:10000}") int loadBatchSize) {
+        this.taskRepository = taskRepository;
+        this.enabled = enabled;
+        this.loadBatchSize = loadBatchSize;
+    }
+
+    /**
+     * Проиндексированное название задачи.
+     *
+     * @param title нормализованное название
+     * @param completed статус выполнения
+     */
+    private record Entry(String title, boolean completed) {
+    }
+
+    /**
+     * Кандидат поиска с оценкой релевантности.
+     *
+     * @param id идентификатор задачи
+     * @param score оценка (больше — лучше)
+     * @param length длина названия (при равной оценке короче — лучше)
+     */
+    private record Match(Long id, double score, int length) {
+    }
+
+    /**
+     * Загружает индекс из базы при старте приложения порциями по возрастанию id.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        long afterId = 0;
+        int loaded = 0;
+        synchronized (loadLock) {
+            replay = new ArrayList<>();
+        }
+        try {
+            List<TaskSnapshot> batch;
+            do {
+                long after = afterId;
+                batch = DataSourceRouting.onPrimary(() ->
+                        taskRepository.findSnapshotsAfter(after, PageRequest.ofSize(loadBatchSize)));
+                batch.forEach(this::put);
+                loaded += batch.size();
+                if (!batch.isEmpty()) {
+                    afterId = batch.getLast().id();
+                }
+            } while (batch.size() == loadBatchSize);
+            synchronized (loadLock) {
+                replay.forEach(Runnable::run);
+                ready = true;
+            }
+        } finally {
+            synchronized (loadLock) {
+                replay = null;
+            }
+        }
+        log.info("Task search index loaded: {} tasks, {} trigrams in {} ms",
+                loaded, postings.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Обновляет индекс после фиксации изменения задачи.
+     *
+     * @param event событие изменения задачи
+     */
+    @TransactionalEventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (event.type() == TaskChangedEvent.Type.DELETED) {
+            apply(() -> remove(event.taskId()));
+        } else {
+            apply(() -> put(event.after()));
+        }
+    }
+
+    /**
+     * Удаляет из индекса задачи, перенесенные в архив, после фиксации транзакции.
+     *
+     * @param event событие переноса задач в архив
+     */
+    @TransactionalEventListener
+    public void onTasksArchived(TasksArchivedEvent event) {
+        apply(() -> event.taskIds().forEach(this::remove));
+    }
+
+    /**
+     * Проверяет, готов ли индекс отвечать на запросы.
+     *
+     * @return true, если индекс включен и загружен
+     */
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * Ищет задачи по названию.
+     *
+     * @param query поисковый запрос
+     * @param mode режим поиска
+     * @param includeCompleted включать ли выполненные задачи
+     * @param limit максимальное количество результатов
+     * @return идентификаторы найденных задач в порядке убывания релевантности
+     */
+    public List<Long> search(String query, SearchMode mode, boolean includeCompleted, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        Set<String> queryTrigrams = mode == SearchMode.CONTAINS
+                ? innerTrigrams(normalized)
+                : trigrams(normalized, mode != SearchMode.PREFIX);
+
+        List<Match> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (mode == SearchMode.FUZZY) {
+                Map<Long, Integer> shared = new HashMap<>();
+                for (String trigram : queryTrigrams) {
+                    for (Long id : postings.getOrDefault(trigram, Set.of())) {
+                        shared.merge(id, 1, Integer::sum);
+                    }
+                }
+                shared.forEach((id, count) -> {
+                    double score = (double) count / queryTrigrams.size();
+                    Entry entry = entries.get(id);
+                    if (score >= FUZZY_THRESHOLD && (includeCompleted || !entry.completed())) {
+                        matches.add(new Match(id, score, entry.title().length()));
+                    }
+                });
+            } else {
+                // Запрос короче трех символов не дает триграмм, и названия проверяются подряд
+                Set<Long> candidates = queryTrigrams.isEmpty() ? entries.keySet() : intersect(queryTrigrams);
+                for (Long id : candidates) {
+                    Entry entry = entries.get(id);
+                    boolean matched = switch (mode) {
+                        case EXACT -> entry.title().equals(normalized);
+                        case PREFIX -> (" " + entry.title()).contains(" " + normalized);
+                        default -> entry.title().contains(normalized);
+                    };
+                    if (matched && (includeCompleted || !entry.completed())) {
+                        matches.add(new Match(id, 1, entry.title().length()));
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return matches.stream()
+                .sorted(Comparator.comparingDouble(Match::score).reversed()
+                        .thenComparingInt(Match::length)
+                        .thenComparing(Match::id))
+                .limit(limit)
+                .map(Match::id)
+                .toList();
+    }
+
+    /**
+     * Применяет изменение к индексу и, если идет загрузка, запоминает его для повторного применения.
+     */
+    private void apply(Runnable change) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (loadLock) {
+            if (replay != null) {
+                replay.add(change);
+            }
+            change.run();
+        }
+    }
+
+    /**
+     * Добавляет или обновляет задачу в индексе.
+     *
+     * @param task снимок задачи
+     */
+    private void put(TaskSnapshot task) {
+        String title = normalize(task.title());
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.put(task.id(), new Entry(title, task.completed()));
+            if (previous != null) {
+                if (previous.title().equals(title)) {
+                    return;
+                }
+                unlink(task.id(), previous.title());
+            }
+            for (String trigram : trigrams(title, true)) {
+                postings.computeIfAbsent(trigram, key -> new HashSet<>()).add(task.id());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет задачу из индекса.
+     *
+     * @param id идентификатор задачи
+     */
+    private void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.remove(id);
+            if (previous != null) {
+                unlink(id, previous.title());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет идентификатор из списков всех триграмм названия. Вызывается под блокировкой записи.
+     */
+    private void unlink(Long id, String title) {
+        for (String trigram : trigrams(title, true)) {
+            Set<Long> ids = postings.get(trigram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Пересекает списки задач по всем триграммам запроса, начиная с самого короткого.
+     * Вызывается под блокировкой чтения.
+     */
+    private Set<Long> intersect(Set<String> queryTrigrams) {
+        List<Set<Long>> lists = new ArrayList<>(queryTrigrams.size());
+        for (String trigram : queryTrigrams) {
+            Set<Long> ids = postings.get(trigram);
+            if (ids == null) {
+                return Set.of();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(lists.getFirst());
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Строит триграммы внутри слов текста без дополнения пробелами: крайние слова подстроки
+     * могут быть частями слов названия, но их внутренние триграммы в названии есть.
+     *
+     * @param text нормализованный текст
+     * @return множество триграмм (пустое, если все слова короче трех символов)
+     */
+    private static Set<String> innerTrigrams(String text) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String word : text.split(" ")) {
+            for (int i = 0; i + 3 <= word.length(); i++) {
+                result.add(word.substring(i, i + 3));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Приводит текст к нижнему регистру и схлопывает пробелы.
+     */
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Строит триграммы слов текста. Каждое слово дополняется двумя пробелами слева
+     * и одним справа; для префиксного поиска правое дополнение последнего слова не добавляется,
+     * так как слово в названии может продолжаться.
+     *
+     * @param text нормализованный текст
+     * @param closeLastWord добавлять ли правое дополнение к последнему слову
+     * @return множество триграмм
+     */
+    private static Set<String> trigrams(String text, boolean closeLastWord) {
+        Set<String> result = new LinkedHashSet<>();
+        if (text.isEmpty()) {
+            return result;
+        }
+        String[] words = text.split(" ");
+        for (int w = 0; w < words.length; w++) {
+            boolean close = closeLastWord || w < words.length - 1;
+            String padded = "  " + words[w] + (close ? " " : "");
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                result.add(padded.substring(i, i + 3));
+            }
+        }
+        return result;
+    }
+}
@@ -1,16 +1,48 @@
 package com.the.dailytasks.service;
 
+import com.the.dailytasks.config.DataSourceRouting;
+import com.the.dailytasks.dto.CompletionStats;
+import com.the.dailytasks.dto.CursorPage;
+import com.the.dailytasks.dto.DailyTaskStats;
+import com.the.dailytasks.dto.TaskChangesPage;
+import com.the.dailytasks.dto.TaskSummary;
+import com.the.dailytasks.event.TaskChangedEvent;
+import com.the.dailytasks.event.TaskSnapshot;
+import com.the.dailytasks.exception.InvalidCursorException;
 import com.the.dailytasks.exception.TaskNotFoundException;
+import com.the.dailytasks.exception.TaskVersionConflictException;
 import com.the.dailytasks.model.Task;
 import com.the.dailytasks.repository.TaskRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Сервис для работы с задачами (Task).
@@ -23,71 +55,346 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class TaskService {
 
+    /**
+     * Ключ курсорной пагинации: (dueDate, id) по возрастанию.
+     * id делает ключ уникальным при совпадающих датах.
+     */
+    private static final Sort CURSOR_SORT = Sort.by("dueDate", "id");
+
+    /**
+     * Максимальный размер порции курсорной пагинации.
+     */
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
+    /**
+     * Максимальное количество результатов поиска по названию.
+     */
+    private static final int MAX_SEARCH_RESULTS = 1000;
+
+    /**
+     * Максимальное количество изменений в одной порции синхронизации.
+     */
+    private static final int MAX_CHANGES_PAGE_SIZE = 5000;
+
+    /**
+     * Поля краткого представления, по которым можно сортировать выборку в памяти.
+     */
+    private static final Set<String> SUMMARY_SORT_PROPERTIES = Set.of("id", "title", "completed", "dueDate", "version");
+
     private final TaskRepository taskRepository;
+    private final Validator validator;
+    private final TaskSearchIndex searchIndex;
+    private final TaskWindowCache windowCache;
+    private final TaskStatsRollup statsRollup;
+    private final TaskVersionTracker versionTracker;
+    private final TaskChangeLog changeLog;
+    private final TaskArchive archive;
+    private final TaskReadEngine readEngine;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Размер порции пакетной записи. Совпадает с hibernate.jdbc.batch_size,
+     * чтобы каждая порция уходила в базу одним JDBC batch.
+     */
+    @Value("${tasks.batch-size:50}")
+    private int batchSize;
 
     /**
      * Получает задачи с возможностью фильтрации по датам и статусу выполнения с пагинацией.
+     * Архив (только выполненные задачи) читается, лишь когда до него может дойти выборка:
+     * <ul>
+     *     <li>диапазон дат пересекается с архивными датами — задачи архива за диапазон
+     *     сливаются со страницей из базы (из базы читаются первые offset + size строк в том же порядке);</li>
+     *     <li>без диапазона архивные задачи идут после всех задач из базы, поэтому архив
+     *     читается только для страниц за концом задач из базы.</li>
+     * </ul>
+     * Если включено хранилище чтения в памяти и диапазон дат входит в его окно,
+     * выборка выполняется без обращения к базе.
      *
      * @param start начальная дата диапазона (может быть null)
      * @param end конечная дата диапазона (может быть null)
      * @param completed статус выполнения задачи (может быть null)
      * @param pageable параметры пагинации
-     * @return страница с задачами согласно заданным фильтрам
+     * @return страница с краткими представлениями задач согласно заданным фильтрам
+     */
+    public Page<TaskSummary> getTasks(LocalDate start, LocalDate end, Boolean completed, Pageable pageable) {
+        boolean withArchive = !Boolean.FALSE.equals(completed);
+        if (start == null || end == null) {
+            Page<TaskSummary> page = findTasks(start, end, completed, pageable);
+            return withArchive && !archive.segments().isEmpty() ? appendArchived(page, pageable) : page;
+        }
+        if (withArchive && archive.overlaps(start, end)) {
+            return mergeArchived(start, end, completed, pageable);
+        }
+        Page<TaskSummary> page = findInReadEngine(start, end, completed, pageable);
+        return page != null ? page : findTasks(start, end, completed, pageable);
+    }
+
+    /**
+     * Выбирает страницу задач из хранилища чтения в памяти.
+     * При порядке (dueDate, id) или без сортировки объекты создаются только для задач страницы.
+     *
+     * @return страница или null, если диапазон не входит в окно хранилища или сортировка не поддерживается
+     */
+    private Page<TaskSummary> findInReadEngine(LocalDate start, LocalDate end, Boolean completed, Pageable pageable) {
+        Sort sort = pageable.getSort();
+        if (sort.isUnsorted() || sort.equals(CURSOR_SORT)) {
+            List<TaskSummary> content = new ArrayList<>(pageable.isPaged() ? pageable.getPageSize() : 16);
+            int total = pageable.isPaged()
+                    ? readEngine.collect(start, end, completed, pageable.getOffset(), pageable.getPageSize(), content)
+                    : readEngine.collect(start, end, completed, 0, Integer.MAX_VALUE, content);
+            return total < 0 ? null : new PageImpl<>(content, pageable, total);
+        }
+        if (!sort.stream().map(Sort.Order::getProperty).allMatch(SUMMARY_SORT_PROPERTIES::contains)) {
+            return null;
+        }
+        List<TaskSummary> all = readEngine.find(start, end, completed);
+        if (all == null) {
+            return null;
+        }
+        all.sort(summaryOrder(sort));
+        List<TaskSummary> content = pageable.isPaged()
+                ? all.stream().skip(pageable.getOffset()).limit(pageable.getPageSize()).toList()
+                : all;
+        return new PageImpl<>(content, pageable, all.size());
+    }
+
+    /**
+     * Дополняет страницу задач из базы (выборка без диапазона дат) задачами архива,
+     * которые идут после всех задач из базы. Архив читается, только если страница
+     * выходит за конец задач из базы.
+     */
+    private Page<TaskSummary> appendArchived(Page<TaskSummary> hot, Pageable pageable) {
+        long total = hot.getTotalElements() + archive.size();
+        if (pageable.isPaged() && hot.getNumberOfElements() == pageable.getPageSize()) {
+            return new PageImpl<>(hot.getContent(), pageable, total);
+        }
+        long skip = pageable.isPaged() ? Math.max(0, pageable.getOffset() - hot.getTotalElements()) : 0;
+        long limit = pageable.isPaged() ? pageable.getPageSize() - hot.getNumberOfElements() : Long.MAX_VALUE;
+        List<TaskSummary> content = new ArrayList<>(hot.getContent());
+        sortedArchive(null, null, summaryOrder(pageable.getSort().isSorted() ? pageable.getSort() : CURSOR_SORT))
+                .stream()
+                .skip(skip)
+                .limit(limit)
+                .forEach(content::add);
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    /**
+     * Сливает задачи архива за диапазон дат со страницей из базы. Оба источника уже упорядочены,
+     * поэтому слияние останавливается, как только набрана страница.
      */
-    public Page<Task> getTasks(LocalDate start, LocalDate end, Boolean completed, Pageable pageable) {
+    private Page<TaskSummary> mergeArchived(LocalDate start, LocalDate end, Boolean completed, Pageable pageable) {
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : CURSOR_SORT;
+        if (sort.getOrderFor("id") == null) {
+            sort = sort.and(Sort.by("id"));
+        }
+        List<TaskSummary> archived = sortedArchive(start, end, summaryOrder(sort));
+        Pageable head = pageable.isPaged()
+                ? PageRequest.of(0, (int) pageable.getOffset() + pageable.getPageSize(), sort)
+                : Pageable.unpaged(sort);
+        Page<TaskSummary> hot = findTasks(start, end, completed, head);
+        List<TaskSummary> content = merge(hot.getContent(), archived, summaryOrder(sort),
+                pageable.isPaged() ? pageable.getOffset() : 0,
+                pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE);
+        return new PageImpl<>(content, pageable, hot.getTotalElements() + archived.size());
+    }
+
+    /**
+     * Читает задачи архива за диапазон дат в заданном порядке.
+     */
+    private List<TaskSummary> sortedArchive(LocalDate start, LocalDate end, Comparator<TaskSummary> order) {
+        return archive.find(start, end).stream()
+                .map(TaskSummary::of)
+                .sorted(order)
+                .toList();
+    }
+
+    /**
+     * Сливает два упорядоченных списка, пропуская первые skip элементов и выбирая не больше limit.
+     */
+    private static List<TaskSummary> merge(List<TaskSummary> left, List<TaskSummary> right,
+                                           Comparator<TaskSummary> order, long skip, int limit) {
+        List<TaskSummary> merged = new ArrayList<>(Math.min(limit, left.size() + right.size()));
+        int i = 0;
+        int j = 0;
+        for (long position = 0; merged.size() < limit && (i < left.size() || j < right.size()); position++) {
+            TaskSummary next = j == right.size() || i < left.size() && order.compare(left.get(i), right.get(j)) <= 0
+                    ? left.get(i++)
+                    : right.get(j++);
+            if (position >= skip) {
+                merged.add(next);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Строит порядок кратких представлений по параметрам сортировки (для объединения с архивом).
+     * Идентификатор добавляется последним ключом, чтобы порядок был однозначным.
+     *
+     * @throws IllegalArgumentException если сортировка по полю не поддерживается
+     */
+    private static Comparator<TaskSummary> summaryOrder(Sort sort) {
+        Comparator<TaskSummary> order = null;
+        for (Sort.Order property : sort) {
+            Comparator<TaskSummary> next = switch (property.getProperty()) {
+                case "id" -> Comparator.comparing(TaskSummary::id);
+                case "title" -> Comparator.comparing(TaskSummary::title, Comparator.nullsLast(
+                        property.isIgnoreCase() ? String.CASE_INSENSITIVE_ORDER : Comparator.<String>naturalOrder()));
+                case "completed" -> Comparator.comparing(TaskSummary::completed);
+                case "dueDate" -> Comparator.comparing(TaskSummary::dueDate, Comparator.nullsLast(Comparator.naturalOrder()));
+                case "version" -> Comparator.comparing(TaskSummary::version, Comparator.nullsLast(Comparator.naturalOrder()));
+                default -> throw new IllegalArgumentException("Unsupported sort property: " + property.getProperty());
+            };
+            if (property.isDescending()) {
+                next = next.reversed();
+            }
+            order = order == null ? next : order.thenComparing(next);
+        }
+        Comparator<TaskSummary> byId = Comparator.comparing(TaskSummary::id);
+        return order == null ? byId : order.thenComparing(byId);
+    }
+
+    private Page<TaskSummary> findTasks(LocalDate start, LocalDate end, Boolean completed, Pageable pageable) {
         if (start != null && end != null && completed != null) {
-            return taskRepository.findByDueDateBetweenAndCompleted(start, end, completed, pageable);
+            return taskRepository.findSummariesByDueDateBetweenAndCompleted(start, end, completed, pageable);
         } else if (start != null && end != null) {
-            return taskRepository.findByDueDateBetween(start, end, pageable);
+            return taskRepository.findSummariesByDueDateBetween(start, end, pageable);
         } else if (completed != null) {
-            return taskRepository.findByCompleted(completed, pageable);
+            return taskRepository.findSummariesByCompleted(completed, pageable);
         }
-        return taskRepository.findAll(pageable);
+        return taskRepository.findSummariesBy(pageable);
+    }
+
+    /**
+     * Получает порцию задач курсорной (keyset) пагинацией по ключу (dueDate, id).
+     * В отличие от {@link #getTasks} не выполняет запрос COUNT(*) и не использует OFFSET,
+     * поэтому стоимость запроса глубоких порций не отличается от первой.
+     * Задачи архива сливаются с порцией только для диапазона дат, пересекающегося с архивом;
+     * без диапазона порции содержат только задачи из базы.
+     *
+     * @param start начальная дата диапазона (может быть null)
+     * @param end конечная дата диапазона (может быть null)
+     * @param completed статус выполнения задачи (может быть null)
+     * @param cursor курсор, полученный с предыдущей порцией (null или пустой для первой порции)
+     * @param size размер порции
+     * @param includeTotal подсчитывать ли общее количество задач (дополнительный запрос COUNT)
+     * @return порция кратких представлений задач с курсором следующей порции
+     * @throws InvalidCursorException если курсор поврежден
+     */
+    public CursorPage<TaskSummary> scrollTasks(LocalDate start, LocalDate end, Boolean completed,
+                                        String cursor, int size, boolean includeTotal) {
+        ScrollPosition position = TaskCursor.toScrollPosition(cursor);
+        Limit limit = Limit.of(Math.min(Math.max(size, 1), MAX_CURSOR_PAGE_SIZE));
+        boolean ranged = start != null && end != null;
+
+        Window<TaskSummary> window;
+        if (ranged && completed != null) {
+            window = taskRepository.findSummariesByDueDateBetweenAndCompleted(start, end, completed, position, CURSOR_SORT, limit);
+        } else if (ranged) {
+            window = taskRepository.findSummariesByDueDateBetween(start, end, position, CURSOR_SORT, limit);
+        } else if (completed != null) {
+            window = taskRepository.findSummariesByCompleted(completed, position, CURSOR_SORT, limit);
+        } else {
+            window = taskRepository.findSummariesBy(position, CURSOR_SORT, limit);
+        }
+
+        List<TaskSummary> content = window.getContent();
+        boolean hasNext = window.hasNext();
+        long archivedTotal = 0;
+        if (ranged && !Boolean.FALSE.equals(completed) && archive.overlaps(start, end)) {
+            List<TaskSummary> archived = sortedArchive(start, end, summaryOrder(CURSOR_SORT));
+            archivedTotal = archived.size();
+            if (cursor != null && !cursor.isBlank()) {
+                TaskCursor after = TaskCursor.decode(cursor);
+                archived = archived.stream().filter(after::isBefore).toList();
+            }
+            hasNext = hasNext || content.size() + archived.size() > limit.max();
+            content = merge(content, archived, summaryOrder(CURSOR_SORT), 0, limit.max());
+        }
+
+        String nextCursor = hasNext && !content.isEmpty()
+                ? TaskCursor.after(content.getLast()).encode()
+                : null;
+        Long total = includeTotal ? countTasks(start, end, completed) + archivedTotal : null;
+        return new CursorPage<>(content, limit.max(), hasNext, nextCursor, total);
     }
 
     /**
      * Получает задачи на текущий день.
+     * Результат берется из хранилища чтения в памяти, если оно включено,
+     * иначе кешируется до изменения задач окна или до полуночи.
      *
      * @param includeCompleted включать ли выполненные задачи
-     * @return список задач на сегодня
+     * @return список кратких представлений задач на сегодня
      */
-    public List<Task> getTodayTasks(boolean includeCompleted) {
-        LocalDate today = LocalDate.now();
-        return includeCompleted
-                ? taskRepository.findByDueDate(today)
-                : taskRepository.findByDueDateAndCompleted(today, false);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<TaskSummary> getTodayTasks(boolean includeCompleted) {
+        return getWindowTasks(todayWindow(includeCompleted));
     }
 
     /**
      * Получает задачи на текущую неделю (7 дней от текущей даты).
+     * Результат берется из хранилища чтения в памяти, если оно включено,
+     * иначе кешируется до изменения задач окна или до полуночи.
      *
      * @param includeCompleted включать ли выполненные задачи
-     * @return список задач на неделю
+     * @return список кратких представлений задач на неделю
      */
-    public List<Task> getWeekTasks(boolean includeCompleted) {
-        LocalDate start = LocalDate.now();
-        LocalDate end = start.plusWeeks(1);
-        return includeCompleted
-                ? taskRepository.findByDueDateBetween(start, end)
-                : taskRepository.findByDueDateBetweenAndCompleted(start, end, false);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<TaskSummary> getWeekTasks(boolean includeCompleted) {
+        return getWindowTasks(weekWindow(includeCompleted));
     }
 
     /**
      * Получает задачи на текущий месяц (30 дней от текущей даты).
+     * Результат берется из хранилища чтения в памяти, если оно включено,
+     * иначе кешируется до изменения задач окна или до полуночи.
      *
      * @param includeCompleted включать ли выполненные задачи
-     * @return список задач на месяц
+     * @return список кратких представлений задач на месяц
      */
-    public List<Task> getMonthTasks(boolean includeCompleted) {
-        LocalDate start = LocalDate.now();
-        LocalDate end = start.plusMonths(1);
-        return includeCompleted
-                ? taskRepository.findByDueDateBetween(start, end)
-                : taskRepository.findByDueDateBetweenAndCompleted(start, end, false);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<TaskSummary> getMonthTasks(boolean includeCompleted) {
+        return getWindowTasks(monthWindow(includeCompleted));
+    }
+
+    /**
+     * Вычисляет ETag выборки задач на текущий день по счетчику ревизий в базе, не читая задачи.
+     *
+     * @param includeCompleted включать ли выполненные задачи
+     * @return значение ETag без кавычек или null, если выборка отдается из хранилища в памяти
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public String getTodayTasksETag(boolean includeCompleted) {
+        return windowETag(todayWindow(includeCompleted));
+    }
+
+    /**
+     * Вычисляет ETag выборки задач на текущую неделю по счетчику ревизий в базе, не читая задачи.
+     *
+     * @param includeCompleted включать ли выполненные задачи
+     * @return значение ETag без кавычек или null, если выборка отдается из хранилища в памяти
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public String getWeekTasksETag(boolean includeCompleted) {
+        return windowETag(weekWindow(includeCompleted));
+    }
+
+    /**
+     * Вычисляет ETag выборки задач на текущий месяц по счетчику ревизий в базе, не читая задачи.
+     *
+     * @param includeCompleted включать ли выполненные задачи
+     * @return значение ETag без кавычек или null, если выборка отдается из хранилища в памяти
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public String getMonthTasksETag(boolean includeCompleted) {
+        return windowETag(monthWindow(includeCompleted));
     }
 
     /**
-     * Получает задачу по идентификатору.
+     * Получает задачу по идентификатору. Если задачи нет в базе, она ищется в архиве.
      *
      * @param id идентификатор задачи
      * @return найденная задача
@@ -95,20 +402,125 @@ public class TaskService {
      */
     public Task getTaskById(Long id) {
         return taskRepository.findById(id)
+                .or(() -> archive.findById(id))
                 .orElseThrow(() -> new TaskNotFoundException("Task not found with id: " + id));
     }
 
     /**
-     * Ищет задачи по частичному совпадению названия.
+     * Возвращает текущую версию задачи, не загружая саму задачу.
      *
-     * @param title часть названия для поиска
+     * @param id идентификатор задачи
+     * @return версия или null, если задачи нет в таблице (задачу нужно искать полностью)
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Long getKnownTaskVersion(Long id) {
+        return versionTracker.knownVersion(id);
+    }
+
+    /**
+     * Получает количество задач по дням диапазона (всего, выполненных, невыполненных).
+     * Дни без задач в результат не попадают. Задачи, перенесенные в архив, учитываются как выполненные.
+     *
+     * @param start начальная дата диапазона (включительно)
+     * @param end конечная дата диапазона (включительно)
+     * @return статистика по дням в порядке возрастания даты
+     * @throws IllegalArgumentException если начальная дата позже конечной
+     */
+    public List<DailyTaskStats> getDailyStats(LocalDate start, LocalDate end) {
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        List<DailyTaskStats> stats = taskRepository.countDailyStats(start, end);
+        if (!archive.overlaps(start, end)) {
+            return stats;
+        }
+        Map<LocalDate, DailyTaskStats> merged = new TreeMap<>();
+        stats.forEach(day -> merged.put(day.dueDate(), day));
+        archive.countByDueDate(start, end).forEach((dueDate, count) -> merged.merge(dueDate,
+                new DailyTaskStats(dueDate, count, count, 0),
+                (day, archived) -> new DailyTaskStats(dueDate, day.total() + count, day.completed() + count, day.open())));
+        return new ArrayList<>(merged.values());
+    }
+
+    /**
+     * Получает статистику выполнения задач по неделям, месяцам или годам
+     * из сводной таблицы, без чтения задач.
+     *
+     * @param period период группировки
+     * @param start начальная дата диапазона (может быть null)
+     * @param end конечная дата диапазона (может быть null)
+     * @return статистика по периодам в порядке возрастания
+     * @throws IllegalArgumentException если начальная дата позже конечной
+     */
+    public List<CompletionStats> getCompletionStats(StatsPeriod period, LocalDate start, LocalDate end) {
+        if (start != null && end != null && start.isAfter(end)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        return statsRollup.getCompletionStats(period, start, end);
+    }
+
+    /**
+     * Получает изменения задач после курсора синхронизации, включая отметки удаления.
+     * Каждая задача встречается в порции не более одного раза — с последним состоянием.
+     *
+     * @param since курсор из предыдущего ответа (null или пустой — с начала журнала)
+     * @param limit максимальное количество изменений
+     * @return порция изменений в порядке ревизий и курсор для следующего запроса
+     * @throws IllegalArgumentException если курсор некорректен
+     */
+    public TaskChangesPage getChanges(String since, int limit) {
+        long revision;
+        try {
+            revision = since == null || since.isBlank() ? 0 : Long.parseLong(since.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid changes cursor: " + since);
+        }
+        if (revision < 0) {
+            throw new IllegalArgumentException("Invalid changes cursor: " + since);
+        }
+        return changeLog.getChanges(revision, Math.min(Math.max(limit, 1), MAX_CHANGES_PAGE_SIZE));
+    }
+
+    /**
+     * Ищет задачи по названию с помощью триграммного индекса в памяти.
+     * Индекс возвращает ранжированные идентификаторы, задачи загружаются одним запросом.
+     * Пока индекс не загружен, поиск выполняется запросом LIKE к базе.
+     *
+     * @param title поисковый запрос
+     * @param mode режим поиска (подстрока, точный, по префиксу слова, нечеткий)
      * @param includeCompleted включать ли выполненные задачи
-     * @return список найденных задач
+     * @param limit максимальное количество результатов
+     * @return список кратких представлений найденных задач в порядке убывания релевантности
      */
-    public List<Task> searchTasksByTitle(String title, boolean includeCompleted) {
+    public List<TaskSummary> searchTasksByTitle(String title, SearchMode mode, boolean includeCompleted, int limit) {
+        int max = Math.min(Math.max(limit, 1), MAX_SEARCH_RESULTS);
+        if (!searchIndex.isReady()) {
+            return searchInDatabase(title, mode, includeCompleted, max);
+        }
+
+        List<Long> ids = searchIndex.search(title, mode, includeCompleted, max);
+        Map<Long, TaskSummary> tasks = taskRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(TaskSummary::id, Function.identity()));
+        return ids.stream()
+                .map(tasks::get)
+                .filter(task -> task != null && (includeCompleted || !task.completed()))
+                .toList();
+    }
+
+    /**
+     * Резервный поиск по названию без учета регистра, пока индекс не готов: точный режим сравнивает
+     * название целиком, остальные ищут подстроку (LIKE). Ограничение применяется в запросе.
+     */
+    private List<TaskSummary> searchInDatabase(String title, SearchMode mode, boolean includeCompleted, int limit) {
+        Limit max = Limit.of(limit);
+        if (mode == SearchMode.EXACT) {
+            return includeCompleted ?
+                    taskRepository.findSummariesByTitleIgnoreCase(title.trim(), max) :
+                    taskRepository.findSummariesByTitleIgnoreCaseAndCompleted(title.trim(), false, max);
+        }
         return includeCompleted ?
-                taskRepository.findByTitleContaining(title) :
-                taskRepository.findByTitleContainingAndCompleted(title, false);
+                taskRepository.findSummariesByTitleContainingIgnoreCase(title, max) :
+                taskRepository.findSummariesByTitleContainingIgnoreCaseAndCompleted(title, false, max);
     }
 
     /**
@@ -121,35 +533,43 @@ public class TaskService {
     @Transactional
     public Task createTask(Task task) {
         validateTaskDates(task);
-        return taskRepository.save(task);
+        Task created = taskRepository.save(task);
+        eventPublisher.publishEvent(TaskChangedEvent.created(created));
+        return created;
     }
 
     /**
      * Обновляет существующую задачу.
+     * Если в новых данных указана версия, она должна совпадать с текущей версией задачи.
      *
      * @param id идентификатор задачи для обновления
-     * @param newTask новые данные задачи
+     * @param newTask новые данные задачи (версия необязательна)
      * @return обновленная задача
      * @throws TaskNotFoundException если задача не найдена
+     * @throws TaskVersionConflictException если версия задачи не совпадает с ожидаемой
      * @throws IllegalArgumentException если дата выполнения в прошлом
      */
     @Transactional
     public Task updateTask(Long id, Task newTask) {
         validateTaskDates(newTask);
 
-        return taskRepository.findById(id)
-                .map(existingTask -> {
-                    existingTask.setTitle(newTask.getTitle());
-                    existingTask.setDescription(newTask.getDescription());
-                    existingTask.setDueDate(newTask.getDueDate());
-                    existingTask.setCompleted(newTask.isCompleted());
-                    return taskRepository.save(existingTask);
-                })
+        Task existingTask = taskRepository.findById(id)
                 .orElseThrow(() -> new TaskNotFoundException("Task not found with id: " + id));
+        TaskSnapshot before = TaskSnapshot.of(existingTask);
+        applyChanges(existingTask, newTask);
+        Task updated;
+        try {
+            updated = taskRepository.saveAndFlush(existingTask);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new TaskVersionConflictException("Task was modified concurrently, id: " + id);
+        }
+        eventPublisher.publishEvent(TaskChangedEvent.updated(before, updated));
+        return updated;
     }
 
     /**
      * Переключает статус выполнения задачи (выполнена/не выполнена).
+     * Выполняется одним атомарным UPDATE без предварительной загрузки задачи.
      *
      * @param id идентификатор задачи
      * @return обновленная задача
@@ -157,16 +577,16 @@ public class TaskService {
      */
     @Transactional
     public Task toggleCompletion(Long id) {
-        return taskRepository.findById(id)
-                .map(task -> {
-                    task.setCompleted(!task.isCompleted());
-                    return taskRepository.save(task);
-                })
+        Task task = taskRepository.toggleCompleted(id)
                 .orElseThrow(() -> new TaskNotFoundException("Task not found with id: " + id));
+        TaskSnapshot after = TaskSnapshot.of(task);
+        eventPublisher.publishEvent(TaskChangedEvent.updated(after.withCompleted(!after.completed()), task));
+        return task;
     }
 
     /**
      * Устанавливает статус задачи "не выполнена".
+     * Выполняется одним условным UPDATE; задача читается отдельно только если она уже не выполнена.
      *
      * @param id идентификатор задачи
      * @return обновленная задача
@@ -174,11 +594,12 @@ public class TaskService {
      */
     @Transactional
     public Task toggleUnCompletion(Long id) {
-        return taskRepository.findById(id)
+        return taskRepository.markUncompleted(id)
                 .map(task -> {
-                    task.setCompleted(false);
-                    return taskRepository.save(task);
+                    eventPublisher.publishEvent(TaskChangedEvent.updated(TaskSnapshot.of(task).withCompleted(true), task));
+                    return task;
                 })
+                .or(() -> taskRepository.findById(id))
                 .orElseThrow(() -> new TaskNotFoundException("Task not found with id: " + id));
     }
 
@@ -190,10 +611,201 @@ public class TaskService {
      */
     @Transactional
     public void deleteTask(Long id) {
-        if (!taskRepository.existsById(id)) {
-            throw new TaskNotFoundException("Task not found with id: " + id);
+        Task task = taskRepository.findById(id)
+                .orElseThrow(() -> new TaskNotFoundException("Task not found with id: " + id));
+        taskRepository.delete(task);
+        eventPublisher.publishEvent(TaskChangedEvent.deleted(id, TaskSnapshot.of(task)));
+    }
+
+    /**
+     * Создает задачи пакетом.
+     * Все задачи проверяются до начала записи; вставка выполняется порциями
+     * размера {@code tasks.batch-size}, каждая порция уходит в базу одним JDBC batch.
+     *
+     * @param tasks данные новых задач
+     * @return созданные задачи
+     * @throws IllegalArgumentException если хотя бы одна задача некорректна
+     */
+    @Transactional
+    public List<Task> createTasks(List<Task> tasks) {
+        validateBatch(tasks);
+        List<Task> created = new ArrayList<>(tasks.size());
+        for (List<Task> chunk : chunks(tasks)) {
+            chunk.forEach(task -> {
+                task.setId(null);
+                task.setVersion(null);
+            });
+            List<Task> saved = taskRepository.saveAll(chunk);
+            taskRepository.flushAndClear();
+            saved.forEach(task -> eventPublisher.publishEvent(TaskChangedEvent.created(task)));
+            created.addAll(saved);
+        }
+        return created;
+    }
+
+    /**
+     * Обновляет задачи пакетом. Каждая задача должна содержать идентификатор.
+     * Все задачи проверяются до начала записи; загрузка и обновление выполняются порциями.
+     *
+     * @param tasks новые данные задач
+     * @return обновленные задачи
+     * @throws IllegalArgumentException если хотя бы одна задача некорректна или не содержит идентификатор
+     * @throws TaskNotFoundException если хотя бы одна задача не найдена
+     * @throws TaskVersionConflictException если версия хотя бы одной задачи не совпадает с ожидаемой
+     */
+    @Transactional
+    public List<Task> updateTasks(List<Task> tasks) {
+        validateBatch(tasks);
+        if (tasks.stream().anyMatch(task -> task.getId() == null)) {
+            throw new IllegalArgumentException("Task id is mandatory for batch update");
+        }
+        requireExisting(tasks.stream().map(Task::getId).toList());
+
+        List<Task> updated = new ArrayList<>(tasks.size());
+        for (List<Task> chunk : chunks(tasks)) {
+            Map<Long, Task> existing = taskRepository.findAllById(chunk.stream().map(Task::getId).toList())
+                    .stream()
+                    .collect(Collectors.toMap(Task::getId, Function.identity()));
+            Map<Long, TaskSnapshot> before = new HashMap<>();
+            for (Task newTask : chunk) {
+                Task existingTask = existing.get(newTask.getId());
+                before.putIfAbsent(existingTask.getId(), TaskSnapshot.of(existingTask));
+                applyChanges(existingTask, newTask);
+                updated.add(existingTask);
+            }
+            try {
+                taskRepository.flushAndClear();
+            } catch (ObjectOptimisticLockingFailureException e) {
+                throw new TaskVersionConflictException("Tasks were modified concurrently");
+            }
+            existing.values().forEach(task ->
+                    eventPublisher.publishEvent(TaskChangedEvent.updated(before.get(task.getId()), task)));
         }
-        taskRepository.deleteById(id);
+        return updated;
+    }
+
+    /**
+     * Удаляет задачи пакетом. Удаление выполняется порциями по одному запросу DELETE ... IN на порцию.
+     * Перед удалением читаются и блокируются снимки задач (без описаний), чтобы подписчики событий
+     * получили прежнее состояние каждой задачи: параллельное изменение или удаление тех же задач
+     * ждет фиксации, и сводная статистика не расходится с таблицей.
+     *
+     * @param ids идентификаторы удаляемых задач
+     * @throws TaskNotFoundException если хотя бы одна задача не найдена
+     */
+    @Transactional
+    public void deleteTasks(List<Long> ids) {
+        List<Long> distinctIds = List.copyOf(new LinkedHashSet<>(ids));
+        Map<Long, TaskSnapshot> snapshots = new HashMap<>();
+        for (List<Long> chunk : chunks(distinctIds)) {
+            taskRepository.findSnapshotsByIdIn(chunk).forEach(snapshot -> snapshots.put(snapshot.id(), snapshot));
+        }
+        List<Long> missing = distinctIds.stream().filter(id -> !snapshots.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            throw new TaskNotFoundException("Tasks not found with ids: " + missing);
+        }
+        for (List<Long> chunk : chunks(distinctIds)) {
+            taskRepository.deleteAllByIdInBatch(chunk);
+            chunk.forEach(id -> eventPublisher.publishEvent(TaskChangedEvent.deleted(id, snapshots.get(id))));
+        }
+    }
+
+    /**
+     * Проверяет все задачи пакета (bean validation и даты) до начала записи.
+     *
+     * @param tasks задачи для проверки
+     * @throws IllegalArgumentException если хотя бы одна задача некорректна; сообщение содержит все ошибки
+     */
+    private void validateBatch(List<Task> tasks) {
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            if (task == null) {
+                errors.add("[" + i + "] task is null");
+                continue;
+            }
+            for (ConstraintViolation<Task> violation : validator.validate(task)) {
+                errors.add("[" + i + "] " + violation.getPropertyPath() + ": " + violation.getMessage());
+            }
+            try {
+                validateTaskDates(task);
+            } catch (IllegalArgumentException e) {
+                errors.add("[" + i + "] " + e.getMessage());
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException("Invalid tasks: " + String.join("; ", errors));
+        }
+    }
+
+    /**
+     * Проверяет, что все задачи с указанными идентификаторами существуют.
+     *
+     * @param ids идентификаторы задач
+     * @throws TaskNotFoundException если хотя бы одна задача не найдена
+     */
+    private void requireExisting(List<Long> ids) {
+        Set<Long> missing = new LinkedHashSet<>(ids);
+        for (List<Long> chunk : chunks(List.copyOf(missing))) {
+            new HashSet<>(taskRepository.findExistingIds(chunk)).forEach(missing::remove);
+        }
+        if (!missing.isEmpty()) {
+            throw new TaskNotFoundException("Tasks not found with ids: " + missing);
+        }
+    }
+
+    /**
+     * Разбивает список на порции размера {@link #batchSize}.
+     *
+     * @param items исходный список
+     * @return список порций
+     * @param <T> тип элементов
+     */
+    private <T> List<List<T>> chunks(List<T> items) {
+        int size = Math.max(batchSize, 1);
+        List<List<T>> chunks = new ArrayList<>((items.size() + size - 1) / size);
+        for (int from = 0; from < items.size(); from += size) {
+            chunks.add(items.subList(from, Math.min(from + size, items.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * Переносит изменяемые поля из новых данных в существующую задачу.
+     * Если в новых данных указана версия, проверяет ее совпадение с текущей.
+     *
+     * @param existingTask задача, загруженная из базы
+     * @param newTask новые данные задачи
+     * @throws TaskVersionConflictException если версии не совпадают
+     */
+    private void applyChanges(Task existingTask, Task newTask) {
+        if (newTask.getVersion() != null && !newTask.getVersion().equals(existingTask.getVersion())) {
+            throw new TaskVersionConflictException("Task version mismatch for id: " + existingTask.getId()
+                    + ", expected " + newTask.getVersion() + ", actual " + existingTask.getVersion());
+        }
+        existingTask.setTitle(newTask.getTitle());
+        existingTask.setDescription(newTask.getDescription());
+        existingTask.setDueDate(newTask.getDueDate());
+        existingTask.setCompleted(newTask.isCompleted());
+    }
+
+    /**
+     * Подсчитывает задачи с учетом тех же фильтров, что и {@link #getTasks}.
+     *
+     * @param start начальная дата диапазона (может быть null)
+     * @param end конечная дата диапазона (может быть null)
+     * @param completed статус выполнения задачи (может быть null)
+     * @return количество задач
+     */
+    private long countTasks(LocalDate start, LocalDate end, Boolean completed) {
+        if (start != null && end != null && completed != null) {
+            return taskRepository.countByDueDateBetweenAndCompleted(start, end, completed);
+        } else if (start != null && end != null) {
+            return taskRepository.countByDueDateBetween(start, end);
+        } else if (completed != null) {
+            return taskRepository.countByCompleted(completed);
+        }
+        return taskRepository.count();
     }
 
     /**
@@ -202,9 +814,53 @@ public class TaskService {
      * @param task задача для проверки
      * @throws IllegalArgumentException если дата выполнения в прошлом
      */
-    private void validateTaskDates(Task task) {
+    static void validateTaskDates(Task task) {
         if (task.getDueDate() != null && task.getDueDate().isBefore(LocalDate.now())) {
             throw new IllegalArgumentException("Due date cannot be in the past");
         }
     }
-}
\ No newline at end of file
+
+    private TaskWindowCache.Window todayWindow(boolean includeCompleted) {
+        LocalDate today = LocalDate.now();
+        return new TaskWindowCache.Window(today, today, includeCompleted);
+    }
+
+    private TaskWindowCache.Window weekWindow(boolean includeCompleted) {
+        LocalDate start = LocalDate.now();
+        return new TaskWindowCache.Window(start, start.plusWeeks(1), includeCompleted);
+    }
+
+    private TaskWindowCache.Window monthWindow(boolean includeCompleted) {
+        LocalDate start = LocalDate.now();
+        return new TaskWindowCache.Window(start, start.plusMonths(1), includeCompleted);
+    }
+
+    private List<TaskSummary> getWindowTasks(TaskWindowCache.Window window) {
+        LocalDate start = window.start();
+        LocalDate end = window.end();
+        List<TaskSummary> inMemory = readEngine.find(start, end, window.includeCompleted() ? null : false);
+        if (inMemory != null) {
+            return inMemory;
+        }
+        // ETag окна считается по зафиксированным изменениям, поэтому выборка читается с основной базы
+        if (start.equals(end)) {
+            return windowCache.get(window, () -> versionTracker.revision(start, end), () -> DataSourceRouting.onPrimary(() -> window.includeCompleted()
+                    ? taskRepository.findSummariesByDueDate(start)
+                    : taskRepository.findSummariesByDueDateAndCompleted(start, false)));
+        }
+        return windowCache.get(window, () -> versionTracker.revision(start, end), () -> DataSourceRouting.onPrimary(() -> window.includeCompleted()
+                ? taskRepository.findSummariesByDueDateBetween(start, end)
+                : taskRepository.findSummariesByDueDateBetweenAndCompleted(start, end, false)));
+    }
+
+    /**
+     * ETag окна или null, если окно отдается из хранилища в памяти: оно видит только изменения
+     * этого экземпляра и может отставать от ревизий дней в базе.
+     */
+    private String windowETag(TaskWindowCache.Window window) {
+        if (readEngine.covers(window.start(), window.end())) {
+            return null;
+        }
+        return versionTracker.windowETag(window.start(), window.end(), window.includeCompleted());
+    }
+}
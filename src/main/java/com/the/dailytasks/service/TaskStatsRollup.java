@@ -0,0 +1,183 @@
+package com.the.dailytasks.service;
+
+import com.the.dailytasks.dto.CompletionStats;
+import com.the.dailytasks.event.TaskChangedEvent;
+import com.the.dailytasks.event.TaskSnapshot;
+import com.the.dailytasks.model.TaskDailyRollup;
+import com.the.dailytasks.repository.TaskRepository;
+import com.the.dailytasks.repository.TaskRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Сводная статистика выполнения задач по дням (таблица task_daily_rollup).
+ * Обновляется приращениями в той же транзакции, что и запись задачи: обработчик
+ * {@link TaskChangedEvent} накапливает приращения по дням, а перед фиксацией транзакции
+ * они записываются одним атомарным upsert на каждый затронутый день.
+ * Перенос даты выполнения учитывается как -1 для старого дня и +1 для нового,
+ * переключение статуса — как изменение количества выполненных задач.
+ * Статистика за недели, месяцы и годы собирается из дневных строк, поэтому
+ * стоимость запроса зависит от числа дней в диапазоне, а не от числа задач.
+ * Каждый затронутый транзакцией день получает новую ревизию, даже если количества
+ * не изменились (например, изменилось только название): по ревизиям дней
+ * {@link TaskVersionTracker} строит ETag выборок за окно дат.
+ */
+@Slf4j
+@Component
+public class TaskStatsRollup {
+
+    private static final LocalDate MIN_DATE = LocalDate.of(1, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
+    private final TaskRollupRepository rollupRepository;
+    private final TaskRepository taskRepository;
+    private final TaskArchive archive;
+    private final TransactionTemplate transactionTemplate;
+
+    public TaskStatsRollup(TaskRollupRepository rollupRepository, TaskRepository taskRepository,
+                           TaskArchive archive, PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.taskRepository = taskRepository;
+        this.archive = archive;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Накопленные в транзакции приращения: дата → {всего, выполнено}.
+     */
+    private final class PendingDeltas implements TransactionSynchronization {
+        private final Map<LocalDate, long[]> deltas = new HashMap<>();
+
+        void add(LocalDate dueDate, long total, long completed) {
+            long[] delta = deltas.computeIfAbsent(dueDate, key -> new long[2]);
+            delta[0] += total;
+            delta[1] += completed;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            deltas.forEach((dueDate, delta) -> rollupRepository.addDelta(dueDate, delta[0], delta[1]));
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TaskStatsRollup.this);
+        }
+
+        @Override
+        public int getOrder() {
+            // Раньше журнала изменений, который блокирует счетчик ревизий до фиксации
+            return Ordered.LOWEST_PRECEDENCE - 1;
+        }
+    }
+
+    /**
+     * Строит статистику при первом запуске, если она пуста, а задачи уже есть.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (rollupRepository.count() == 0 && taskRepository.count() > 0) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Учитывает изменение задачи. Вызывается синхронно в транзакции записи.
+     *
+     * @param event событие изменения задачи
+     */
+    @EventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        TaskSnapshot before = event.before();
+        TaskSnapshot after = event.after();
+        if (before == null && event.type() != TaskChangedEvent.Type.CREATED) {
+            log.warn("Task {} changed without previous state, completion rollup may drift until rebuild",
+                    event.taskId());
+        }
+        PendingDeltas pending = pendingDeltas();
+        if (before != null) {
+            pending.add(before.dueDate(), -1, before.completed() ? -1 : 0);
+        }
+        if (after != null) {
+            pending.add(after.dueDate(), 1, after.completed() ? 1 : 0);
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            transactionTemplate.executeWithoutResult(status -> pending.beforeCommit(false));
+        }
+    }
+
+    /**
+     * Пересчитывает статистику из таблицы task и архива (восстановление после расхождений).
+     * Все задачи архива выполнены. Таблица и архив читаются в одной транзакции, пока архивация
+     * не идет, поэтому задачи, переносимые в архив, не учитываются ни дважды, ни ни разу.
+     *
+     * @return количество дней в статистике
+     */
+    public int rebuild() {
+        long started = System.nanoTime();
+        Integer days = archive.exclusively(() -> transactionTemplate.execute(status -> {
+            int rebuilt = rollupRepository.rebuild();
+            Map<LocalDate, Long> archived = archive.countByDueDate();
+            if (archived.isEmpty()) {
+                return rebuilt;
+            }
+            archived.forEach((dueDate, count) -> rollupRepository.addDelta(dueDate, count, count));
+            return (int) rollupRepository.countByTotalGreaterThan(0);
+        }));
+        log.info("Completion rollup rebuilt: {} days in {} ms", days, (System.nanoTime() - started) / 1_000_000);
+        return days == null ? 0 : days;
+    }
+
+    /**
+     * Возвращает статистику выполнения по периодам. Периоды без задач не возвращаются.
+     *
+     * @param period период группировки
+     * @param start начальная дата диапазона (может быть null — с начала истории)
+     * @param end конечная дата диапазона (может быть null — до конца истории)
+     * @return статистика по периодам в порядке возрастания
+     */
+    public List<CompletionStats> getCompletionStats(StatsPeriod period, LocalDate start, LocalDate end) {
+        List<TaskDailyRollup> days = rollupRepository.findByDueDateBetweenAndTotalGreaterThanOrderByDueDate(
+                start != null ? start : MIN_DATE, end != null ? end : MAX_DATE, 0);
+        Map<LocalDate, long[]> buckets = new LinkedHashMap<>();
+        for (TaskDailyRollup day : days) {
+            long[] bucket = buckets.computeIfAbsent(period.bucketStart(day.getDueDate()), key -> new long[2]);
+            bucket[0] += day.getTotal();
+            bucket[1] += day.getCompleted();
+        }
+        List<CompletionStats> result = new ArrayList<>(buckets.size());
+        buckets.forEach((periodStart, bucket) -> result.add(CompletionStats.of(periodStart, bucket[0], bucket[1])));
+        return result;
+    }
+
+    /**
+     * Возвращает приращения текущей транзакции, регистрируя их при первом обращении.
+     * Вне транзакции возвращает новый набор, который записывается сразу.
+     */
+    private PendingDeltas pendingDeltas() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new PendingDeltas();
+        }
+        PendingDeltas pending = (PendingDeltas) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingDeltas();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+}
@@ -0,0 +1,63 @@
+package com.the.dailytasks.service;
+
+import com.the.dailytasks.config.DataSourceRouting;
+import com.the.dailytasks.repository.TaskRepository;
+import com.the.dailytasks.repository.TaskRollupRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Валидаторы для условных GET-запросов (ETag / If-None-Match), общие для всех экземпляров приложения.
+ * ETag окна дат строится из ревизий дней окна в сводной статистике ({@link TaskStatsRollup}):
+ * ревизия дня увеличивается в транзакции записи задач этого дня на любом экземпляре,
+ * поэтому проверка стоит чтения не больше 32 строк по первичному ключу, а запись задачи
+ * вне окна его ETag не меняет. Ревизии дней только растут, поэтому берется их сумма:
+ * максимум не изменился бы при изменении дня с меньшей ревизией.
+ * Версия задачи читается из таблицы задач без загрузки самой задачи.
+ * Оба значения читаются с основной базы: отстающая реплика вернула бы прежний валидатор.
+ */
+@Component
+public class TaskVersionTracker {
+
+    private final TaskRollupRepository rollupRepository;
+    private final TaskRepository taskRepository;
+
+    public TaskVersionTracker(TaskRollupRepository rollupRepository, TaskRepository taskRepository) {
+        this.rollupRepository = rollupRepository;
+        this.taskRepository = taskRepository;
+    }
+
+    /**
+     * Возвращает зафиксированную ревизию окна дат — сумму ревизий его дней.
+     *
+     * @param start начальная дата окна (включительно)
+     * @param end конечная дата окна (включительно)
+     * @return ревизия окна
+     */
+    public long revision(LocalDate start, LocalDate end) {
+        return DataSourceRouting.onPrimary(() -> rollupRepository.sumRevisions(start, end));
+    }
+
+    /**
+     * Вычисляет ETag выборки за окно дат.
+     *
+     * @param start начальная дата окна (включительно)
+     * @param end конечная дата окна (включительно)
+     * @param includeCompleted включены ли выполненные задачи
+     * @return значение ETag без кавычек
+     */
+    public String windowETag(LocalDate start, LocalDate end, boolean includeCompleted) {
+        return start.toEpochDay() + "-" + end.toEpochDay() + (includeCompleted ? "-a-" : "-o-") + revision(start, end);
+    }
+
+    /**
+     * Возвращает текущую версию задачи.
+     *
+     * @param id идентификатор задачи
+     * @return версия или null, если задачи нет в таблице (удалена или перенесена в архив)
+     */
+    public Long knownVersion(Long id) {
+        return DataSourceRouting.onPrimary(() -> taskRepository.findVersionById(id).orElse(null));
+    }
+}
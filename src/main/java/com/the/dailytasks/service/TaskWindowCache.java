@@ -0,0 +1,168 @@
+package com.the.dailytasks.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.the.dailytasks.dto.CacheStatsView;
+import com.the.dailytasks.dto.TaskSummary;
+import com.the.dailytasks.event.TaskChangedEvent;
+import com.the.dailytasks.event.TaskSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Ограниченный кеш результатов выборок задач за окно дат (сегодня, неделя, месяц).
+ * Запись сбрасывается после фиксации изменения задачи, если старая или новая дата выполнения
+ * этой задачи попадает в окно записи. Записи истекают в полночь, когда окно сдвигается.
+ * Выборка, во время загрузки которой была зафиксирована любая запись, возвращается вызывающему,
+ * но не сохраняется: она могла быть прочитана до фиксации, а сброс не видит загружаемых записей.
+ * Кроме того, запись помечается ревизией окна, прочитанной до загрузки, и отдается
+ * только при той же ревизии: так учитываются и изменения, сделанные через другие экземпляры
+ * приложения, а выборка никогда не старше ETag окна ({@link TaskVersionTracker}).
+ */
+@Component
+public class TaskWindowCache {
+
+    /**
+     * Окно дат выборки.
+     *
+     * @param start начальная дата (включительно)
+     * @param end конечная дата (включительно)
+     * @param includeCompleted включены ли выполненные задачи
+     */
+    public record Window(LocalDate start, LocalDate end, boolean includeCompleted) {
+
+        /**
+         * Проверяет, попадает ли дата в окно.
+         *
+         * @param date дата (может быть null)
+         * @return true, если дата попадает в окно
+         */
+        boolean contains(LocalDate date) {
+            return date != null && !date.isBefore(start) && !date.isAfter(end);
+        }
+    }
+
+    /**
+     * Выборка и ревизия окна, прочитанная до ее загрузки.
+     */
+    private record Entry(long revision, List<TaskSummary> tasks) {
+    }
+
+    private final Cache<Window, Entry> cache;
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final boolean enabled;
+
+    public TaskWindowCache(@Value("${tasks.cache.windows.enabled:true}") boolean enabled,
+                           @Value("${tasks.cache.windows.maximum-size:256}") long maximumSize) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new MidnightExpiry())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Возвращает выборку за окно из кеша или загружает ее.
+     * Параллельные промахи по одному окну загружают его независимо.
+     *
+     * @param window окно дат
+     * @param revisions источник зафиксированной ревизии окна (читается до загрузки)
+     * @param loader загрузчик выборки из базы
+     * @return список кратких представлений задач (неизменяемый)
+     */
+    public List<TaskSummary> get(Window window, LongSupplier revisions, Supplier<List<TaskSummary>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        long revision = revisions.getAsLong();
+        Entry cached = cache.getIfPresent(window);
+        if (cached != null && cached.revision() == revision) {
+            return cached.tasks();
+        }
+        long writesBefore = writes.get();
+        Entry loaded = new Entry(revision, List.copyOf(loader.get()));
+        if (writes.get() == writesBefore) {
+            cache.put(window, loaded);
+            // Запись, зафиксированная между проверкой и сохранением, могла не увидеть новую запись кеша
+            if (writes.get() != writesBefore) {
+                cache.asMap().remove(window, loaded);
+            }
+        }
+        return loaded.tasks();
+    }
+
+    /**
+     * Сбрасывает записи, затронутые изменением задачи, после фиксации транзакции.
+     * Если прежнее состояние задачи неизвестно, сбрасывается весь кеш.
+     *
+     * @param event событие изменения задачи
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        writes.incrementAndGet();
+        TaskSnapshot before = event.before();
+        TaskSnapshot after = event.after();
+        if (before == null && event.type() != TaskChangedEvent.Type.CREATED) {
+            invalidations.addAndGet(cache.estimatedSize());
+            cache.invalidateAll();
+            return;
+        }
+        LocalDate oldDate = before != null ? before.dueDate() : null;
+        LocalDate newDate = after != null ? after.dueDate() : null;
+        for (Window window : cache.asMap().keySet()) {
+            if (window.contains(oldDate) || window.contains(newDate)) {
+                cache.invalidate(window);
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Возвращает статистику кеша.
+     *
+     * @return статистика попаданий, промахов и вытеснений
+     */
+    public CacheStatsView stats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsView(cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.hitRate(), stats.evictionCount(), invalidations.get());
+    }
+
+    /**
+     * Срок жизни записи — до полуночи дня, с которого начинается окно.
+     */
+    private static class MidnightExpiry implements Expiry<Window, Entry> {
+
+        @Override
+        public long expireAfterCreate(Window key, Entry value, long currentTime) {
+            LocalDateTime midnight = key.start().plusDays(1).atStartOfDay();
+            return Math.max(Duration.between(LocalDateTime.now(), midnight).toNanos(), 0);
+        }
+
+        @Override
+        public long expireAfterUpdate(Window key, Entry value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Window key, Entry value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+-- Счетчик ревизий журнала изменений. Ревизии выдаются увеличением единственной строки;
+-- блокировка строки держится до фиксации, поэтому ревизии фиксируются строго по порядку
+-- и зафиксированное значение счетчика — граница видимых изменений для всех экземпляров.
+
+CREATE TABLE IF NOT EXISTS task_change_revision (
+    id            INT    NOT NULL,
+    last_revision BIGINT NOT NULL,
+    CONSTRAINT task_change_revision_pkey PRIMARY KEY (id)
+);
+
+INSERT INTO task_change_revision (id, last_revision)
+SELECT 1, COALESCE(MAX(revision), 0) FROM task_change;
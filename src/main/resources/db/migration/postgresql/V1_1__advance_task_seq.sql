@@ -0,0 +1,6 @@
+-- Базы, созданные до перехода на последовательность (id IDENTITY), содержат id больше ее значения.
+-- После V2 первичный ключ task — (id, due_date), поэтому повтор id база уже не отклонит:
+-- уникальность id обеспечивает только task_seq. Последовательность не сдвигается назад,
+-- так как выданные ею id могут оставаться в архиве и в журнале изменений.
+
+SELECT setval('task_seq', GREATEST(COALESCE(MAX(id), 0), (SELECT last_value FROM task_seq), 1)) FROM task;
@@ -0,0 +1,34 @@
+-- Исходная схема, ранее создававшаяся spring.jpa.hibernate.ddl-auto=update.
+-- IF NOT EXISTS позволяет применить миграцию к существующей базе (baseline-on-migrate).
+
+CREATE SEQUENCE IF NOT EXISTS task_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS task (
+    id          BIGINT       NOT NULL,
+    title       VARCHAR(255),
+    description VARCHAR(255),
+    completed   BOOLEAN      NOT NULL,
+    due_date    DATE         NOT NULL,
+    version     BIGINT       NOT NULL DEFAULT 0,
+    CONSTRAINT task_pkey PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_task_due_date_id ON task (due_date, id);
+CREATE INDEX IF NOT EXISTS idx_task_due_date_completed ON task (due_date, completed);
+
+CREATE TABLE IF NOT EXISTS task_daily_rollup (
+    due_date  DATE   NOT NULL,
+    total     BIGINT NOT NULL,
+    completed BIGINT NOT NULL,
+    CONSTRAINT task_daily_rollup_pkey PRIMARY KEY (due_date)
+);
+
+CREATE TABLE IF NOT EXISTS task_change (
+    task_id    BIGINT                      NOT NULL,
+    revision   BIGINT                      NOT NULL,
+    deleted    BOOLEAN                     NOT NULL,
+    updated_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT task_change_pkey PRIMARY KEY (task_id)
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_task_change_revision ON task_change (revision);
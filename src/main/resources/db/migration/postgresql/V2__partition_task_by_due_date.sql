@@ -0,0 +1,47 @@
+-- Перевод task на секционирование по диапазонам due_date (по месяцам).
+-- Первичный ключ секционированной таблицы обязан включать ключ секционирования: (id, due_date).
+-- Секции называются task_pYYYY_MM; строки вне созданных секций попадают в task_default.
+-- Месячные секции создаются только с текущего месяца: история до него остается в task_default,
+-- а не в сотнях мелких секций, которые перебирал бы каждый поиск по id.
+-- Дальнейшие секции создает TaskPartitionManager.
+
+ALTER TABLE task RENAME TO task_unpartitioned;
+ALTER INDEX IF EXISTS task_pkey RENAME TO task_unpartitioned_pkey;
+DROP INDEX IF EXISTS idx_task_due_date_id;
+DROP INDEX IF EXISTS idx_task_due_date_completed;
+
+CREATE TABLE task (
+    id          BIGINT       NOT NULL,
+    title       VARCHAR(255),
+    description VARCHAR(255),
+    completed   BOOLEAN      NOT NULL,
+    due_date    DATE         NOT NULL,
+    version     BIGINT       NOT NULL DEFAULT 0,
+    CONSTRAINT task_pkey PRIMARY KEY (id, due_date)
+) PARTITION BY RANGE (due_date);
+
+CREATE INDEX idx_task_due_date_id ON task (due_date, id);
+CREATE INDEX idx_task_due_date_completed ON task (due_date, completed);
+
+CREATE TABLE task_default PARTITION OF task DEFAULT;
+
+-- Месячные секции от текущего месяца до года вперед
+DO $$
+DECLARE
+    last_month DATE := date_trunc('month', CURRENT_DATE) + INTERVAL '12 months';
+    m          DATE := date_trunc('month', CURRENT_DATE);
+BEGIN
+    WHILE m <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF task FOR VALUES FROM (%L) TO (%L)',
+                       'task_p' || to_char(m, 'YYYY_MM'), m, (m + INTERVAL '1 month')::date);
+        m := (m + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO task (id, title, description, completed, due_date, version)
+SELECT id, title, description, completed, due_date, version
+FROM task_unpartitioned;
+
+DROP TABLE task_unpartitioned;
+
+ANALYZE task;
@@ -0,0 +1,4 @@
+-- Ревизия дня для ETag выборок за окно дат. Увеличивается в транзакции каждой записи,
+-- затронувшей задачи дня; сумма ревизий дней окна меняется только при изменении задач окна.
+
+ALTER TABLE task_daily_rollup ADD COLUMN revision BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,137 @@
+package com.the.dailytasks;
+
+import com.the.dailytasks.model.Task;
+import com.the.dailytasks.service.TaskService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Реактивный вариант списочных эндпоинтов (профиль reactive) на встроенной H2 через R2DBC.
+ */
+@ActiveProfiles("reactive")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactive;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "tasks.archive.dir=target/test-archive/${random.uuid}",
+        "tasks.reactive.r2dbc.url=r2dbc:h2:mem:///reactive;DB_CLOSE_DELAY=-1",
+        "tasks.reactive.r2dbc.username=sa",
+        "tasks.reactive.r2dbc.password="
+})
+class ReactiveTaskControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private TaskService taskService;
+
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        if (taskService.getTasks(null, null, null, PageRequest.of(0, 1)).isEmpty()) {
+            create("Today", today, false);
+            create("Today done", today, true);
+            create("This week", today.plusDays(3), false);
+            create("This month", today.plusDays(20), false);
+            create("Later", today.plusMonths(2), false);
+        }
+    }
+
+    @Test
+    void getTodayTasks_AsJson_ShouldReturnArrayOfPendingTasks() {
+        // Act
+        List<Task> pending = webTestClient.get().uri("/tasks/today")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBodyList(Task.class).returnResult().getResponseBody();
+        List<Task> all = webTestClient.get().uri("/tasks/today?includeCompleted=true")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Task.class).returnResult().getResponseBody();
+
+        // Assert
+        assertEquals(List.of("Today"), titles(pending));
+        assertEquals(List.of("Today", "Today done"), titles(all));
+        assertEquals(today, pending.getFirst().getDueDate());
+    }
+
+    @Test
+    void getWeekAndMonthTasks_AsNdjson_ShouldStreamOneTaskPerLine() {
+        // Act
+        String week = webTestClient.get().uri("/tasks/week")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).returnResult().getResponseBody();
+        List<Task> month = webTestClient.get().uri("/tasks/month?includeCompleted=true")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Task.class).getResponseBody().collectList().block();
+
+        // Assert
+        List<String> lines = week.lines().toList();
+        assertEquals(2, lines.size());
+        assertTrue(lines.getFirst().startsWith("{") && lines.getFirst().contains("\"title\":\"Today\""));
+        assertTrue(lines.get(1).contains("\"title\":\"This week\""));
+        assertEquals(List.of("Today", "Today done", "This week", "This month"), titles(month));
+    }
+
+    @Test
+    void getAllTasks_Paged_ShouldReturnPageInDueDateOrder() {
+        // Act
+        List<Task> second = webTestClient.get().uri("/tasks?page=1&size=2")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Task.class).returnResult().getResponseBody();
+        List<Task> filtered = webTestClient.get().uri("/tasks?start={start}&completed=false&size=10",
+                        today.plusDays(1))
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Task.class).getResponseBody().collectList().block();
+
+        // Assert
+        assertEquals(List.of("This week", "This month"), titles(second));
+        assertEquals(List.of("This week", "This month", "Later"), titles(filtered));
+    }
+
+    @Test
+    void getAllTasks_WhenPageOrSizeOutOfBounds_ShouldReturnBadRequest() {
+        // Act & Assert
+        webTestClient.get().uri("/tasks?size=0").exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri("/tasks?size=2001").exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri("/tasks?page=-1").exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri("/tasks?size=2000").exchange().expectStatus().isOk();
+    }
+
+    private void create(String title, LocalDate dueDate, boolean completed) {
+        Task task = taskService.createTask(Task.builder().title(title).description("").dueDate(dueDate).build());
+        if (completed) {
+            taskService.toggleCompletion(task.getId());
+        }
+    }
+
+    private static List<String> titles(List<Task> tasks) {
+        return tasks.stream().map(Task::getTitle).toList();
+    }
+}
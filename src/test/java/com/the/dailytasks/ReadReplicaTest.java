@@ -0,0 +1,166 @@
+package com.the.dailytasks;
+
+import com.the.dailytasks.config.DataSourceRouting;
+import com.the.dailytasks.model.Task;
+import com.the.dailytasks.service.TaskService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Чтение с реплики на двух встроенных H2: основная база пуста только на реплике,
+ * поэтому по числу задач видно, куда ушел запрос. Отставание реплики задается строкой lag_probe;
+ * без строки запрос отставания возвращает NULL, как реплика PostgreSQL без потока WAL.
+ */
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replicaprimary;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "tasks.db.replicas.enabled=true",
+        "tasks.db.replicas.urls=" + ReadReplicaTest.REPLICA_URL
+                + ";INIT=RUNSCRIPT FROM 'classpath:db/migration/h2/V1__create_schema.sql'"
+                + "\\\\;CREATE TABLE IF NOT EXISTS lag_probe(lag BIGINT)",
+        "tasks.db.replicas.lag-query=SELECT MAX(lag) FROM lag_probe",
+        "tasks.db.replicas.check-interval-ms=50",
+        "tasks.db.replicas.max-lag-ms=1000"
+})
+class ReadReplicaTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replicasecondary;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void getTasks_WhenReplicaInService_ShouldReadFromReplica() throws Exception {
+        // Arrange
+        setReplicaLag(0L);
+        createTask();
+
+        // Act
+        long fromReplica = countTasks();
+        long fromPrimary = DataSourceRouting.onPrimary(this::countTasks);
+
+        // Assert
+        assertEquals(0, fromReplica);
+        assertTrue(fromPrimary > 0);
+    }
+
+    @Test
+    void getTasks_WhenReplicaLagsOrHasNoStream_ShouldReadFromPrimary() throws Exception {
+        // Arrange
+        createTask();
+
+        // Act
+        setReplicaLag(5000L);
+        long whileLagging = countTasks();
+        setReplicaLag(null);
+        long withoutStream = countTasks();
+
+        // Assert
+        assertTrue(whileLagging > 0);
+        assertTrue(withoutStream > 0);
+    }
+
+    @Test
+    void getTasks_AfterWrite_ShouldReadFromPrimaryWhileCookieIsValid() throws Exception {
+        // Arrange
+        setReplicaLag(0L);
+
+        // Act
+        Cookie cookie = mockMvc.perform(post("/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Written task\",\"description\":\"\",\"dueDate\":\"" + LocalDate.now() + "\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getCookie("tasks-primary-until");
+
+        // Assert
+        assertNotNull(cookie);
+        assertTrue(Long.parseLong(cookie.getValue()) > System.currentTimeMillis());
+        mockMvc.perform(get("/tasks").cookie(cookie))
+                .andExpect(jsonPath("$.content[?(@.title == 'Written task')]").exists());
+        mockMvc.perform(get("/tasks"))
+                .andExpect(jsonPath("$.content").isEmpty());
+    }
+
+    @Test
+    void readOnlyTransaction_OnReplica_ShouldUseReplicaLimiterOnly() throws Exception {
+        // Arrange
+        setReplicaLag(0L);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        // Act
+        double[] active = readOnly.execute(status -> {
+            countTasks();
+            return new double[]{limiterActive("primary"), limiterActive("replica-1")};
+        });
+
+        // Assert
+        assertEquals(0, active[0]);
+        assertEquals(1, active[1]);
+    }
+
+    private double limiterActive(String pool) {
+        return meterRegistry.get("tasks.db.limiter.active").tag("pool", pool).gauge().value();
+    }
+
+    private void createTask() {
+        taskService.createTask(Task.builder().title("Task").description("").dueDate(LocalDate.now()).build());
+    }
+
+    private long countTasks() {
+        return taskService.getTasks(null, null, null, PageRequest.of(0, 10)).getTotalElements();
+    }
+
+    /**
+     * Задает отставание реплики (null — реплика не получает журнал) и ждет, пока проверка его увидит.
+     */
+    private void setReplicaLag(Long lag) throws SQLException, InterruptedException {
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM lag_probe");
+            if (lag != null) {
+                statement.execute("INSERT INTO lag_probe VALUES (" + lag + ")");
+            }
+        }
+        double expected = lag == null ? Double.NaN : lag;
+        long deadline = System.currentTimeMillis() + 5000;
+        while (Double.compare(meterRegistry.get("tasks.db.replica.lag").gauge().value(), expected) != 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "Replica lag check did not observe " + lag);
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.the.dailytasks;
+
+import com.the.dailytasks.config.SlowQueryLog;
+import com.the.dailytasks.config.SlowQueryLogConfig;
+import com.the.dailytasks.dto.SlowQueryView;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:slowquerylog;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "tasks.sql.slow-log.threshold-ms=0"
+})
+class SlowQueryLogTest {
+
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Test
+    void record_WhenResultSetNotClosed_ShouldPublishOnConnectionCloseWithTruncatedParameters() throws Exception {
+        // Arrange
+        String longValue = "x".repeat(1000);
+
+        // Act: ResultSet и оператор не закрываются, соединение возвращается в пул
+        try (Connection connection = dataSource.getConnection()) {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT X FROM SYSTEM_RANGE(1, 3) WHERE ? IS NOT NULL");
+            statement.setString(1, longValue);
+            ResultSet resultSet = statement.executeQuery();
+            assertInstanceOf(ProxyJdbcObject.class, resultSet);
+            while (resultSet.next()) {
+                resultSet.getLong(1);
+            }
+        }
+        SlowQueryView query = slowQueryLog.recent(1).getFirst();
+
+        // Assert
+        assertTrue(query.sql().contains("SYSTEM_RANGE"));
+        assertEquals(3L, query.rows());
+        assertTrue(query.parameters().getFirst().length() < 100);
+    }
+
+    @Test
+    void executeQuery_WhenQueryNotSelected_ShouldReturnDriverResultSet() throws Exception {
+        // Arrange: порог выше времени выполнения, выборочная запись выключена
+        BeanPostProcessor postProcessor = ReflectionTestUtils.invokeMethod(SlowQueryLogConfig.class,
+                "slowQueryLogDataSourcePostProcessor",
+                new MockEnvironment().withProperty("tasks.sql.slow-log.threshold-ms", "60000"),
+                applicationContext.getBeanProvider(SlowQueryLog.class));
+        DataSource proxied = (DataSource) postProcessor.postProcessAfterInitialization(
+                new DriverManagerDataSource("jdbc:h2:mem:slowquerylog-unselected", "sa", ""), "unselected");
+
+        // Act
+        try (Connection connection = proxied.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT X FROM SYSTEM_RANGE(1, 3)");
+             ResultSet resultSet = statement.executeQuery()) {
+            // Assert
+            assertFalse(resultSet instanceof ProxyJdbcObject);
+            assertTrue(resultSet.next());
+        }
+    }
+
+    @Test
+    void constructor_WhenCapacityNotPositive_ShouldReject() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new SlowQueryLog(0));
+    }
+}
@@ -0,0 +1,149 @@
+package com.the.dailytasks;
+
+import com.the.dailytasks.dto.CursorPage;
+import com.the.dailytasks.dto.TaskSummary;
+import com.the.dailytasks.model.Task;
+import com.the.dailytasks.service.DataFormat;
+import com.the.dailytasks.service.TaskArchive;
+import com.the.dailytasks.service.TaskArchiver;
+import com.the.dailytasks.service.TaskExportService;
+import com.the.dailytasks.service.TaskService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:archive-listing;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "tasks.archive.dir=target/test-archive/${random.uuid}",
+        "tasks.archive.min-age-days=-30"
+})
+class TaskArchiveListingTest {
+
+    private static final Sort BY_DUE_DATE = Sort.by("dueDate", "id");
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskArchiver archiver;
+
+    @Autowired
+    private TaskArchive archive;
+
+    @Autowired
+    private TaskExportService exportService;
+
+    private final LocalDate archivedDay = LocalDate.now().plusDays(10);
+    private final LocalDate hotDay = LocalDate.now().plusDays(40);
+
+    @BeforeEach
+    void setUp() {
+        if (archive.segments().isEmpty()) {
+            // Выполненные задачи archivedDay уходят в архив, остальные остаются в таблице
+            for (String title : List.of("Old 1", "Old 2")) {
+                Long id = taskService.createTask(Task.builder().title(title).description("").dueDate(archivedDay).build()).getId();
+                taskService.toggleCompletion(id);
+            }
+            taskService.createTask(Task.builder().title("Open").description("").dueDate(archivedDay).build());
+            taskService.createTask(Task.builder().title("Hot 1").description("").dueDate(hotDay).build());
+            taskService.createTask(Task.builder().title("Hot 2").description("").dueDate(hotDay).build());
+            Long done = taskService.createTask(Task.builder().title("Hot 3").description("").dueDate(hotDay).build()).getId();
+            taskService.toggleCompletion(done);
+            assertEquals(2, archiver.archive());
+        }
+    }
+
+    @Test
+    void getTasks_RangeOverlappingArchive_ShouldMergeArchivedTasksInOrder() {
+        // Act
+        Page<TaskSummary> first = taskService.getTasks(archivedDay, hotDay, null, PageRequest.of(0, 2));
+        Page<TaskSummary> second = taskService.getTasks(archivedDay, hotDay, null, PageRequest.of(1, 2));
+        Page<TaskSummary> completed = taskService.getTasks(archivedDay, hotDay, true, PageRequest.of(0, 10));
+        Page<TaskSummary> open = taskService.getTasks(archivedDay, hotDay, false, PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(List.of("Old 1", "Old 2"), titles(first.getContent()));
+        assertEquals(List.of("Open", "Hot 1"), titles(second.getContent()));
+        assertEquals(6, first.getTotalElements());
+        assertEquals(List.of("Old 1", "Old 2", "Hot 3"), titles(completed.getContent()));
+        assertEquals(3, completed.getTotalElements());
+        assertEquals(List.of("Open", "Hot 1", "Hot 2"), titles(open.getContent()));
+    }
+
+    @Test
+    void getTasks_WithoutRange_ShouldPlaceArchivedTasksAfterTableRows() {
+        // Act
+        Page<TaskSummary> hotOnly = taskService.getTasks(null, null, null, PageRequest.of(0, 4, BY_DUE_DATE));
+        Page<TaskSummary> boundary = taskService.getTasks(null, null, null, PageRequest.of(1, 3, BY_DUE_DATE));
+        Page<TaskSummary> archivedOnly = taskService.getTasks(null, null, true, PageRequest.of(1, 1, BY_DUE_DATE));
+        Page<TaskSummary> beyond = taskService.getTasks(null, null, null, PageRequest.of(2, 3, BY_DUE_DATE));
+
+        // Assert
+        assertEquals(List.of("Open", "Hot 1", "Hot 2", "Hot 3"), titles(hotOnly.getContent()));
+        assertEquals(6, hotOnly.getTotalElements());
+        assertEquals(List.of("Hot 3", "Old 1", "Old 2"), titles(boundary.getContent()));
+        assertEquals(List.of("Old 1"), titles(archivedOnly.getContent()));
+        assertEquals(3, archivedOnly.getTotalElements());
+        assertTrue(beyond.getContent().isEmpty());
+    }
+
+    @Test
+    void scrollTasks_RangeOverlappingArchive_ShouldVisitEveryTaskOnce() {
+        // Act
+        List<TaskSummary> visited = new ArrayList<>();
+        String cursor = null;
+        CursorPage<TaskSummary> page;
+        do {
+            page = taskService.scrollTasks(archivedDay, hotDay, null, cursor, 4, true);
+            visited.addAll(page.content());
+            cursor = page.nextCursor();
+            assertEquals(6L, page.totalElements());
+        } while (page.hasNext());
+
+        // Assert
+        assertEquals(List.of("Old 1", "Old 2", "Open", "Hot 1", "Hot 2", "Hot 3"), titles(visited));
+    }
+
+    @Test
+    void scrollTasks_WithoutRange_ShouldReturnOnlyTableRows() {
+        // Act
+        CursorPage<TaskSummary> page = taskService.scrollTasks(null, null, null, null, 10, true);
+
+        // Assert
+        assertEquals(List.of("Open", "Hot 1", "Hot 2", "Hot 3"), titles(page.content()));
+        assertEquals(4L, page.totalElements());
+    }
+
+    @Test
+    void exportTasks_RangeOverlappingArchive_ShouldExportOnlyTableRows() {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long count = exportService.exportTasks(archivedDay, hotDay, null, DataFormat.NDJSON, out);
+
+        // Assert
+        assertEquals(4, count);
+        assertFalse(out.toString(StandardCharsets.UTF_8).contains("Old "));
+    }
+
+    private static List<String> titles(List<TaskSummary> tasks) {
+        return tasks.stream().map(TaskSummary::title).toList();
+    }
+}
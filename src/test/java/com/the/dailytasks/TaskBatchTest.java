@@ -0,0 +1,145 @@
+package com.the.dailytasks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.the.dailytasks.exception.TaskNotFoundException;
+import com.the.dailytasks.model.Task;
+import com.the.dailytasks.repository.TaskRepository;
+import com.the.dailytasks.service.TaskService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Пакетные эндпоинты POST, PATCH и DELETE /tasks/batch на встроенной H2.
+ */
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:batch;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "tasks.archive.dir=target/test-archive/${random.uuid}"
+})
+class TaskBatchTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDate dueDate = LocalDate.now().plusDays(30);
+
+    @Test
+    void createTasks_ShouldInsertAllTasksTakingOneSequenceValuePerIdBlock() throws Exception {
+        // Arrange
+        List<Task> tasks = IntStream.range(0, 120)
+                .mapToObj(i -> Task.builder().title("Batch " + i).description("").dueDate(dueDate).build())
+                .toList();
+        long sequenceBefore = sequenceValue();
+
+        // Act
+        List<Task> created = createBatch(tasks);
+
+        // Assert: pooled-lo берет из последовательности блок из ID_ALLOCATION_SIZE идентификаторов за раз
+        long blocks = (sequenceValue() - sequenceBefore) / Task.ID_ALLOCATION_SIZE;
+        assertEquals(120, created.size());
+        assertEquals(120, new HashSet<>(created.stream().map(Task::getId).toList()).size());
+        assertTrue(blocks >= 2 && blocks <= 3, "sequence blocks taken: " + blocks);
+        assertTrue(created.stream().allMatch(task -> task.getVersion() != null));
+        assertEquals(120, taskRepository.findAllById(created.stream().map(Task::getId).toList()).size());
+    }
+
+    @Test
+    void updateTasks_WhenOneVersionIsStale_ShouldReturnConflictAndUpdateNothing() throws Exception {
+        // Arrange
+        List<Task> created = createBatch(List.of(
+                Task.builder().title("First").description("").dueDate(dueDate).build(),
+                Task.builder().title("Second").description("").dueDate(dueDate).build()));
+        Task first = copy(created.get(0), "First updated", created.get(0).getVersion());
+        Task stale = copy(created.get(1), "Second updated", created.get(1).getVersion() + 1);
+
+        // Act
+        mockMvc.perform(patch("/tasks/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(first, stale))))
+                .andExpect(status().isConflict());
+        String body = mockMvc.perform(patch("/tasks/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(first))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // Assert
+        assertEquals("Second", taskService.getTaskById(stale.getId()).getTitle());
+        Task updated = objectMapper.readValue(body, new TypeReference<List<Task>>() { }).getFirst();
+        assertEquals("First updated", updated.getTitle());
+        assertEquals("First updated", taskService.getTaskById(first.getId()).getTitle());
+    }
+
+    @Test
+    void deleteTasks_ShouldDeleteAllOrNothing() throws Exception {
+        // Arrange
+        List<Long> ids = createBatch(List.of(
+                Task.builder().title("Delete 1").description("").dueDate(dueDate).build(),
+                Task.builder().title("Delete 2").description("").dueDate(dueDate).build(),
+                Task.builder().title("Keep").description("").dueDate(dueDate).build()))
+                .stream().map(Task::getId).toList();
+        long missing = ids.getLast() + 1_000_000;
+
+        // Act
+        assertThrows(TaskNotFoundException.class, () -> taskService.deleteTasks(List.of(ids.get(0), missing)));
+        mockMvc.perform(delete("/tasks/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(ids.get(0), ids.get(1), ids.get(0)))))
+                .andExpect(status().isNoContent());
+
+        // Assert
+        assertEquals(List.of(ids.get(2)), taskRepository.findAllById(ids).stream().map(Task::getId).toList());
+    }
+
+    private List<Task> createBatch(List<Task> tasks) throws Exception {
+        String body = mockMvc.perform(post("/tasks/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(tasks)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, new TypeReference<>() { });
+    }
+
+    private Task copy(Task task, String title, Long version) {
+        return Task.builder().id(task.getId()).title(title).description(task.getDescription())
+                .dueDate(task.getDueDate()).version(version).build();
+    }
+
+    private long sequenceValue() {
+        return jdbcTemplate.queryForObject(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'TASK_SEQ'", Long.class);
+    }
+}
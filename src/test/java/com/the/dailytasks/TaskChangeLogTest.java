@@ -0,0 +1,139 @@
+package com.the.dailytasks;
+
+import com.the.dailytasks.dto.TaskChangesPage;
+import com.the.dailytasks.dto.TaskDelta;
+import com.the.dailytasks.event.TaskChangedEvent;
+import com.the.dailytasks.event.TaskSnapshot;
+import com.the.dailytasks.model.Task;
+import com.the.dailytasks.repository.TaskChangeRepository;
+import com.the.dailytasks.repository.TaskRepository;
+import com.the.dailytasks.service.TaskArchive;
+import com.the.dailytasks.service.TaskArchiver;
+import com.the.dailytasks.service.TaskChangeLog;
+import com.the.dailytasks.service.TaskService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:changelog;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "tasks.archive.dir=target/test-archive/${random.uuid}",
+        "tasks.archive.min-age-days=-1"
+})
+class TaskChangeLogTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskChangeRepository changeRepository;
+
+    @Autowired
+    private TaskArchive archive;
+
+    @Autowired
+    private TaskArchiver archiver;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void getChanges_WhenTwoInstancesWriteConcurrently_ShouldAssignDistinctOrderedRevisions() throws Exception {
+        // Arrange: второй экземпляр приложения пишет в тот же журнал через свой TaskChangeLog
+        TaskChangeLog otherInstance = new TaskChangeLog(changeRepository, taskRepository, archive, transactionManager);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        String cursor = drain(null).cursor();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add(taskService.createTask(Task.builder()
+                    .title("Task " + i).description("").dueDate(LocalDate.now()).build()).getId());
+        }
+
+        // Act
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> writes = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (i % 2 == 0) {
+                writes.add(executor.submit(() -> taskService.toggleCompletion(id)));
+            } else {
+                writes.add(executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                    Task task = taskRepository.toggleCompleted(id).orElseThrow();
+                    TaskSnapshot before = TaskSnapshot.of(task).withCompleted(!task.isCompleted());
+                    otherInstance.onTaskChanged(TaskChangedEvent.updated(before, task));
+                })));
+            }
+        }
+        for (Future<?> write : writes) {
+            write.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        List<TaskDelta> changes = drain(cursor).changes();
+
+        // Assert
+        assertEquals(ids.size(), changes.size());
+        assertTrue(changes.stream().allMatch(change -> change.task() != null && change.task().completed()));
+        for (int i = 1; i < changes.size(); i++) {
+            assertTrue(changes.get(i).revision() > changes.get(i - 1).revision());
+        }
+    }
+
+    @Test
+    void getChanges_WhenTaskLeftTableWithoutChange_ShouldReturnArchivedStateOrDeletion() {
+        // Arrange
+        String cursor = drain(null).cursor();
+        Long archivedId = taskService.createTask(Task.builder()
+                .title("Archived task").description("").dueDate(LocalDate.now()).build()).getId();
+        taskService.toggleCompletion(archivedId);
+        Long vanishedId = taskService.createTask(Task.builder()
+                .title("Vanished task").description("").dueDate(LocalDate.now()).build()).getId();
+
+        // Act: первая задача переносится в архив, вторая исчезает как при отсоединении секции
+        archiver.archive();
+        jdbcTemplate.update("DELETE FROM task WHERE id = ?", vanishedId);
+        List<TaskDelta> changes = drain(cursor).changes();
+
+        // Assert
+        TaskDelta archived = changes.stream().filter(change -> change.id().equals(archivedId)).findFirst().orElseThrow();
+        assertFalse(archived.deleted());
+        assertEquals("Archived task", archived.task().title());
+        assertTrue(archived.task().completed());
+        TaskDelta vanished = changes.stream().filter(change -> change.id().equals(vanishedId)).findFirst().orElseThrow();
+        assertTrue(vanished.deleted());
+        assertNull(vanished.task());
+    }
+
+    private TaskChangesPage drain(String cursor) {
+        List<TaskDelta> changes = new ArrayList<>();
+        TaskChangesPage page;
+        do {
+            page = taskService.getChanges(cursor, 1000);
+            changes.addAll(page.changes());
+            cursor = page.cursor();
+        } while (page.hasMore());
+        return new TaskChangesPage(changes, false, cursor);
+    }
+}
@@ -0,0 +1,106 @@
+package com.the.dailytasks;
+
+import com.the.dailytasks.event.TaskChangedEvent;
+import com.the.dailytasks.event.TaskSnapshot;
+import com.the.dailytasks.exception.StreamCapacityExceededException;
+import com.the.dailytasks.service.TaskChangeStream;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Рассылка и отправка выполняются вручную через очередь задач исполнителя,
+ * поэтому видно, что успевает накопиться в очередях подписчиков между отправками.
+ */
+class TaskChangeStreamTest {
+
+    private final LocalDate today = LocalDate.now();
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final Queue<Runnable> senders = new ArrayDeque<>();
+    private final TaskChangeStream.Filter all = new TaskChangeStream.Filter(null, null, null);
+
+    @Test
+    void onTaskChanged_ShouldFanOutOffCommittingThreadAndCoalescePerTask() {
+        // Arrange
+        TaskChangeStream stream = new TaskChangeStream(10, 16, 60_000, registry, senders::add);
+        stream.subscribe(all);
+        stream.subscribe(new TaskChangeStream.Filter(null, null, true));
+        runSenders();
+
+        // Act
+        stream.onTaskChanged(created(1));
+        stream.onTaskChanged(updated(1, 1));
+        stream.onTaskChanged(updated(1, 2));
+        stream.onTaskChanged(created(2));
+        stream.onTaskChanged(TaskChangedEvent.deleted(2L, snapshot(2, 0)));
+        stream.onTaskChanged(updated(3, 1));
+        double coalescedBeforeDispatch = counter("tasks.stream.events.coalesced");
+        runSenders();
+
+        // Assert: создание с двумя изменениями — одно событие, создание с удалением — ни одного
+        assertEquals(0, coalescedBeforeDispatch);
+        assertEquals(3, counter("tasks.stream.events.coalesced"));
+        assertEquals(2, counter("tasks.stream.events.sent"));
+        assertEquals(0, counter("tasks.stream.resyncs"));
+    }
+
+    @Test
+    void onTaskChanged_WhenBufferOverflows_ShouldDropOldestAndSendResync() {
+        // Arrange
+        TaskChangeStream stream = new TaskChangeStream(10, 2, 60_000, registry, senders::add);
+        stream.subscribe(all);
+        runSenders();
+
+        // Act
+        for (long id = 1; id <= 5; id++) {
+            stream.onTaskChanged(updated(id, 1));
+        }
+        runSenders();
+
+        // Assert
+        assertEquals(3, counter("tasks.stream.events.dropped"));
+        assertEquals(2, counter("tasks.stream.events.sent"));
+        assertEquals(1, counter("tasks.stream.resyncs"));
+    }
+
+    @Test
+    void subscribe_WhenCapacityReached_ShouldReject() {
+        // Arrange
+        TaskChangeStream stream = new TaskChangeStream(2, 16, 60_000, registry, senders::add);
+        stream.subscribe(all);
+        stream.subscribe(all);
+
+        // Act & Assert
+        assertThrows(StreamCapacityExceededException.class, () -> stream.subscribe(all));
+        assertEquals(2, stream.subscriberCount());
+    }
+
+    private void runSenders() {
+        Runnable task;
+        while ((task = senders.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private double counter(String name) {
+        return registry.get(name).counter().count();
+    }
+
+    private TaskSnapshot snapshot(long id, long version) {
+        return new TaskSnapshot(id, "Task " + id, false, today, version);
+    }
+
+    private TaskChangedEvent created(long id) {
+        return new TaskChangedEvent(TaskChangedEvent.Type.CREATED, id, null, snapshot(id, 0));
+    }
+
+    private TaskChangedEvent updated(long id, long version) {
+        return new TaskChangedEvent(TaskChangedEvent.Type.UPDATED, id, snapshot(id, version - 1), snapshot(id, version));
+    }
+}
@@ -1,14 +1,27 @@
 package com.the.dailytasks;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.the.dailytasks.config.BinaryFormatConfig;
 import com.the.dailytasks.controller.TaskController;
+import com.the.dailytasks.dto.CompletionStats;
+import com.the.dailytasks.dto.CursorPage;
+import com.the.dailytasks.dto.DailyTaskStats;
+import com.the.dailytasks.dto.TaskChangesPage;
+import com.the.dailytasks.dto.TaskDelta;
+import com.the.dailytasks.dto.TaskSummary;
+import com.the.dailytasks.exception.TaskVersionConflictException;
 import com.the.dailytasks.model.Task;
+import com.the.dailytasks.service.SearchMode;
+import com.the.dailytasks.service.StatsPeriod;
 import com.the.dailytasks.service.TaskService;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -16,16 +29,19 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(TaskController.class)
+@Import(BinaryFormatConfig.class)
 class TaskControllerIntegrationTest {
 
     @Autowired
@@ -42,8 +58,8 @@ class TaskControllerIntegrationTest {
         // Arrange
         Task task1 = new Task(1L, "Task 1", "Description 1", false, LocalDate.now());
         Task task2 = new Task(2L, "Task 2", "Description 2", true, LocalDate.now().plusDays(1));
-        List<Task> tasks = Arrays.asList(task1, task2);
-        Page<Task> page = new PageImpl<>(tasks, PageRequest.of(0, 10), tasks.size());
+        List<TaskSummary> tasks = Arrays.asList(TaskSummary.of(task1), TaskSummary.of(task2));
+        Page<TaskSummary> page = new PageImpl<>(tasks, PageRequest.of(0, 10), tasks.size());
 
         Mockito.when(taskService.getTasks(Mockito.isNull(), Mockito.isNull(), Mockito.isNull(), Mockito.any(Pageable.class)))
                 .thenReturn(page);
@@ -64,7 +80,7 @@ class TaskControllerIntegrationTest {
         LocalDate startDate = LocalDate.of(2023, 1, 1);
         LocalDate endDate = LocalDate.of(2023, 1, 31);
         Task task = new Task(1L, "Filtered Task", "Description", false, LocalDate.of(2023, 1, 15));
-        Page<Task> page = new PageImpl<>(Collections.singletonList(task));
+        Page<TaskSummary> page = new PageImpl<>(Collections.singletonList(TaskSummary.of(task)));
 
         Mockito.when(taskService.getTasks(Mockito.eq(startDate), Mockito.eq(endDate), Mockito.eq(false), Mockito.any(Pageable.class)))
                 .thenReturn(page);
@@ -80,12 +96,76 @@ class TaskControllerIntegrationTest {
                 .andExpect(jsonPath("$.totalElements", is(1)));
     }
 
+    @Test
+    void getDailyStats_ShouldReturnCountsPerDay() throws Exception {
+        // Arrange
+        LocalDate startDate = LocalDate.of(2023, 1, 1);
+        LocalDate endDate = LocalDate.of(2023, 12, 31);
+        List<DailyTaskStats> stats = List.of(
+                new DailyTaskStats(LocalDate.of(2023, 1, 15), 3L, 1L),
+                new DailyTaskStats(LocalDate.of(2023, 2, 1), 2L, 2L));
+
+        Mockito.when(taskService.getDailyStats(startDate, endDate)).thenReturn(stats);
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks/stats/daily")
+                        .param("start", "2023-01-01")
+                        .param("end", "2023-12-31")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].dueDate", is("2023-01-15")))
+                .andExpect(jsonPath("$[0].total", is(3)))
+                .andExpect(jsonPath("$[0].completed", is(1)))
+                .andExpect(jsonPath("$[0].open", is(2)))
+                .andExpect(jsonPath("$[1].open", is(0)));
+    }
+
+    @Test
+    void getCompletionStats_ShouldReturnStatsPerPeriod() throws Exception {
+        // Arrange
+        List<CompletionStats> stats = List.of(CompletionStats.of(LocalDate.of(2023, 1, 1), 4, 1));
+
+        Mockito.when(taskService.getCompletionStats(StatsPeriod.MONTH, null, null)).thenReturn(stats);
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks/stats/completion")
+                        .param("period", "MONTH")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].periodStart", is("2023-01-01")))
+                .andExpect(jsonPath("$[0].open", is(3)))
+                .andExpect(jsonPath("$[0].completionRate", is(0.25)));
+    }
+
+    @Test
+    void scrollTasks_ShouldReturnCursorPageWithoutTotal() throws Exception {
+        // Arrange
+        Task task = new Task(1L, "Cursor Task", "Description", false, LocalDate.now());
+        CursorPage<TaskSummary> slice = new CursorPage<>(List.of(TaskSummary.of(task)), 1, true, "next", null);
+
+        Mockito.when(taskService.scrollTasks(Mockito.isNull(), Mockito.isNull(), Mockito.isNull(),
+                        Mockito.eq(""), Mockito.eq(1), Mockito.eq(false)))
+                .thenReturn(slice);
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks")
+                        .param("cursor", "")
+                        .param("size", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title", is("Cursor Task")))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.nextCursor", is("next")))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
     @Test
     void getTodayTasks_ShouldReturnTodayTasks() throws Exception {
         // Arrange
         Task task1 = new Task(1L, "Today Task 1", "Desc", false, LocalDate.now());
         Task task2 = new Task(2L, "Today Task 2", "Desc", true, LocalDate.now());
-        List<Task> tasks = Arrays.asList(task1, task2);
+        List<TaskSummary> tasks = Arrays.asList(TaskSummary.of(task1), TaskSummary.of(task2));
 
         Mockito.when(taskService.getTodayTasks(true)).thenReturn(tasks);
 
@@ -96,7 +176,8 @@ class TaskControllerIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(2)))
                 .andExpect(jsonPath("$[0].title", is("Today Task 1")))
-                .andExpect(jsonPath("$[1].title", is("Today Task 2")));
+                .andExpect(jsonPath("$[1].title", is("Today Task 2")))
+                .andExpect(jsonPath("$[0].description").doesNotExist());
     }
 
     @Test
@@ -135,6 +216,165 @@ class TaskControllerIntegrationTest {
                 .andExpect(jsonPath("$.completed", is(true)));
     }
 
+    @Test
+    void updateTask_WithStaleIfMatch_ShouldReturnConflict() throws Exception {
+        // Arrange
+        Long taskId = 1L;
+        Task updatedTask = new Task(taskId, "Updated Task", "New Description", false, LocalDate.now().plusDays(2));
+
+        Mockito.when(taskService.updateTask(Mockito.eq(taskId), Mockito.argThat(task -> task.getVersion() == 3L)))
+                .thenThrow(new TaskVersionConflictException("Task version mismatch"));
+
+        // Act & Assert
+        mockMvc.perform(put("/tasks/{id}", taskId)
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updatedTask)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void getTaskById_ShouldReturnVersionAsETag() throws Exception {
+        // Arrange
+        Long taskId = 1L;
+        Task task = new Task(taskId, "Versioned Task", "Description", false, LocalDate.now(), 5L);
+
+        Mockito.when(taskService.getTaskById(taskId)).thenReturn(task);
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks/{id}", taskId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"5\""))
+                .andExpect(jsonPath("$.version", is(5)));
+    }
+
+    @Test
+    void getTodayTasks_WithMatchingIfNoneMatch_ShouldReturnNotModified() throws Exception {
+        // Arrange
+        Mockito.when(taskService.getTodayTasksETag(false)).thenReturn("w-7");
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks/today")
+                        .header("If-None-Match", "\"w-6\", W/\"w-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"w-7\""));
+        Mockito.verify(taskService, Mockito.never()).getTodayTasks(Mockito.anyBoolean());
+    }
+
+    @Test
+    void getTodayTasks_ShouldReturnETagPerRepresentation() throws Exception {
+        // Arrange
+        Mockito.when(taskService.getTodayTasksETag(false)).thenReturn("w-7");
+        Mockito.when(taskService.getTodayTasks(false)).thenReturn(List.of());
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks/today").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"w-7\""))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")));
+        mockMvc.perform(get("/tasks/today").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"w-7-cbor\""));
+        mockMvc.perform(get("/tasks/today")
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header("If-None-Match", "\"w-7\""))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/tasks/today")
+                        .header("Accept", "application/x-jackson-smile")
+                        .header("If-None-Match", "\"w-7-smile\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().stringValues("Vary", hasItem("Accept")));
+    }
+
+    @Test
+    void updateTask_WithRepresentationETagInIfMatch_ShouldUseVersion() throws Exception {
+        // Arrange
+        Task task = new Task(1L, "Task", "Description", false, LocalDate.now(), 4L);
+        Mockito.when(taskService.updateTask(Mockito.eq(1L), Mockito.any(Task.class)))
+                .thenReturn(new Task(1L, "Task", "Description", false, LocalDate.now(), 5L));
+
+        // Act & Assert
+        mockMvc.perform(put("/tasks/{id}", 1L)
+                        .header("If-Match", "\"4-cbor\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(task)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"5\""));
+        Mockito.verify(taskService).updateTask(Mockito.eq(1L), Mockito.argThat(sent -> sent.getVersion() == 4L));
+    }
+
+    @Test
+    void getTaskById_WithKnownVersion_ShouldReturnNotModifiedWithoutLoading() throws Exception {
+        // Arrange
+        Long taskId = 1L;
+        Mockito.when(taskService.getKnownTaskVersion(taskId)).thenReturn(5L);
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks/{id}", taskId)
+                        .header("If-None-Match", "\"5\""))
+                .andExpect(status().isNotModified());
+        Mockito.verify(taskService, Mockito.never()).getTaskById(taskId);
+    }
+
+    @Test
+    void getChanges_ShouldReturnChangesAndTombstonesAfterCursor() throws Exception {
+        // Arrange
+        Instant now = Instant.now();
+        TaskChangesPage page = new TaskChangesPage(List.of(
+                new TaskDelta(11, 3L, false, now, TaskSummary.of(new Task(3L, "Changed", "Desc", true, LocalDate.now()))),
+                new TaskDelta(12, 4L, true, now, null)), false, "12");
+
+        Mockito.when(taskService.getChanges("10", 2)).thenReturn(page);
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks/changes")
+                        .param("since", "10")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes", hasSize(2)))
+                .andExpect(jsonPath("$.changes[0].task.title", is("Changed")))
+                .andExpect(jsonPath("$.changes[1].deleted", is(true)))
+                .andExpect(jsonPath("$.changes[1].task").doesNotExist())
+                .andExpect(jsonPath("$.cursor", is("12")))
+                .andExpect(jsonPath("$.hasMore", is(false)));
+    }
+
+    @Test
+    void createTasks_ShouldReturnCreatedBatch() throws Exception {
+        // Arrange
+        Task task1 = new Task(null, "Batch Task 1", "Desc", false, LocalDate.now().plusDays(1));
+        Task task2 = new Task(null, "Batch Task 2", "Desc", false, LocalDate.now().plusDays(2));
+        List<Task> created = Arrays.asList(
+                new Task(1L, "Batch Task 1", "Desc", false, LocalDate.now().plusDays(1)),
+                new Task(2L, "Batch Task 2", "Desc", false, LocalDate.now().plusDays(2)));
+
+        Mockito.when(taskService.createTasks(Mockito.anyList())).thenReturn(created);
+
+        // Act & Assert
+        mockMvc.perform(post("/tasks/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Arrays.asList(task1, task2))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[1].id", is(2)));
+    }
+
+    @Test
+    void deleteTasks_ShouldReturnNoContent() throws Exception {
+        // Arrange
+        List<Long> ids = Arrays.asList(1L, 2L, 3L);
+        Mockito.doNothing().when(taskService).deleteTasks(ids);
+
+        // Act & Assert
+        mockMvc.perform(delete("/tasks/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ids)))
+                .andExpect(status().isNoContent());
+
+        Mockito.verify(taskService, Mockito.times(1)).deleteTasks(ids);
+    }
+
     @Test
     void toggleTaskCompletion_ShouldToggleStatus() throws Exception {
         // Arrange
@@ -171,7 +411,7 @@ class TaskControllerIntegrationTest {
         // Arrange
         Task task1 = new Task(1L, "Week Task 1", "Desc", false, LocalDate.now());
         Task task2 = new Task(2L, "Week Task 2", "Desc", true, LocalDate.now().plusDays(3));
-        List<Task> tasks = Arrays.asList(task1, task2);
+        List<TaskSummary> tasks = Arrays.asList(TaskSummary.of(task1), TaskSummary.of(task2));
 
         Mockito.when(taskService.getWeekTasks(true)).thenReturn(tasks);
 
@@ -190,7 +430,7 @@ class TaskControllerIntegrationTest {
         // Arrange
         Task task1 = new Task(1L, "Month Task 1", "Desc", false, LocalDate.now());
         Task task2 = new Task(2L, "Month Task 2", "Desc", false, LocalDate.now().plusDays(15));
-        List<Task> tasks = Arrays.asList(task1, task2);
+        List<TaskSummary> tasks = Arrays.asList(TaskSummary.of(task1), TaskSummary.of(task2));
 
         Mockito.when(taskService.getMonthTasks(false)).thenReturn(tasks);
 
@@ -204,6 +444,78 @@ class TaskControllerIntegrationTest {
                 .andExpect(jsonPath("$[1].title", is("Month Task 2")));
     }
 
+    @Test
+    void getMonthTasks_WithCborAccept_ShouldReturnCborWithEpochDayDates() throws Exception {
+        // Arrange
+        LocalDate dueDate = LocalDate.of(2025, 4, 12);
+        Task task = new Task(1L, "Month Task", "Desc", false, dueDate, 3L);
+
+        Mockito.when(taskService.getMonthTasks(false)).thenReturn(List.of(TaskSummary.of(task)));
+
+        // Act
+        byte[] body = mockMvc.perform(get("/tasks/month")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        JsonNode first = new ObjectMapper(new CBORFactory()).readTree(body).get(0);
+        assertEquals("Month Task", first.get("title").asText());
+        assertEquals(dueDate.toEpochDay(), first.get("dueDate").asLong());
+        assertEquals(3L, first.get("version").asLong());
+    }
+
+    @Test
+    void searchTasks_WithExactMatch_ShouldUseExactMode() throws Exception {
+        // Arrange
+        Task task = new Task(1L, "Buy milk", "Desc", false, LocalDate.now());
+
+        Mockito.when(taskService.searchTasksByTitle("Buy milk", SearchMode.EXACT, false, 50))
+                .thenReturn(List.of(TaskSummary.of(task)));
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks/search")
+                        .param("title", "Buy milk")
+                        .param("exactMatch", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].title", is("Buy milk")));
+    }
+
+    @Test
+    void searchTasks_WithMode_ShouldPassModeAndIncludeCompleted() throws Exception {
+        // Arrange
+        Task task = new Task(2L, "Milk shopping", "Desc", true, LocalDate.now());
+
+        Mockito.when(taskService.searchTasksByTitle("mil", SearchMode.PREFIX, true, 10))
+                .thenReturn(List.of(TaskSummary.of(task)));
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks/search")
+                        .param("title", "mil")
+                        .param("mode", "PREFIX")
+                        .param("includeCompleted", "true")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title", is("Milk shopping")));
+    }
+
+    @Test
+    void searchTasks_WithoutMode_ShouldUseSubstringMode() throws Exception {
+        // Arrange
+        Task task = new Task(3L, "Buy milk", "Desc", false, LocalDate.now());
+
+        Mockito.when(taskService.searchTasksByTitle("y mi", SearchMode.CONTAINS, false, 50))
+                .thenReturn(List.of(TaskSummary.of(task)));
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks/search")
+                        .param("title", "y mi"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title", is("Buy milk")));
+    }
+
     @Test
     void toggleTaskUnCompletion_ShouldSetUncompleted() throws Exception {
         // Arrange
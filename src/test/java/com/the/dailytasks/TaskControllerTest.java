@@ -1,6 +1,7 @@
 package com.the.dailytasks;
 
 import com.the.dailytasks.controller.TaskController;
+import com.the.dailytasks.dto.TaskSummary;
 import com.the.dailytasks.model.Task;
 import com.the.dailytasks.service.TaskService;
 import org.junit.jupiter.api.BeforeEach;
@@ -43,16 +44,16 @@ class TaskControllerTest {
         LocalDate end = LocalDate.of(2023, 1, 31);
         Boolean completed = false;
         Pageable pageable = PageRequest.of(0, 10);
-        List<Task> tasks = Arrays.asList(
-                new Task(1L, "Task 1", "Description 1", false, LocalDate.now()),
-                new Task(2L, "Task 2", "Description 2", false, LocalDate.now())
+        List<TaskSummary> tasks = Arrays.asList(
+                TaskSummary.of(new Task(1L, "Task 1", "Description 1", false, LocalDate.now())),
+                TaskSummary.of(new Task(2L, "Task 2", "Description 2", false, LocalDate.now()))
         );
-        Page<Task> taskPage = new PageImpl<>(tasks, pageable, tasks.size());
+        Page<TaskSummary> taskPage = new PageImpl<>(tasks, pageable, tasks.size());
 
         when(taskService.getTasks(start, end, completed, pageable)).thenReturn(taskPage);
 
         // Act
-        ResponseEntity<Page<Task>> response = taskController.getAllTasks(start, end, completed, pageable);
+        ResponseEntity<Page<TaskSummary>> response = taskController.getAllTasks(start, end, completed, pageable);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -63,14 +64,14 @@ class TaskControllerTest {
     @Test
     void getTodayTasks_ShouldReturnTodayTasks() {
         // Arrange
-        List<Task> tasks = Arrays.asList(
-                new Task(1L, "Today Task 1", "Description", false, LocalDate.now()),
-                new Task(2L, "Today Task 2", "Description", true, LocalDate.now())
+        List<TaskSummary> tasks = Arrays.asList(
+                TaskSummary.of(new Task(1L, "Today Task 1", "Description", false, LocalDate.now())),
+                TaskSummary.of(new Task(2L, "Today Task 2", "Description", true, LocalDate.now()))
         );
         when(taskService.getTodayTasks(true)).thenReturn(tasks);
 
         // Act
-        ResponseEntity<List<Task>> response = taskController.getTodayTasks(true);
+        ResponseEntity<List<TaskSummary>> response = taskController.getTodayTasks(true, null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -86,7 +87,7 @@ class TaskControllerTest {
         when(taskService.getTaskById(taskId)).thenReturn(task);
 
         // Act
-        ResponseEntity<Task> response = taskController.getTaskById(taskId);
+        ResponseEntity<Task> response = taskController.getTaskById(taskId, null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -120,7 +121,7 @@ class TaskControllerTest {
         when(taskService.updateTask(taskId, updatedTask)).thenReturn(updatedTask);
 
         // Act
-        ResponseEntity<Task> response = taskController.updateTask(taskId, updatedTask);
+        ResponseEntity<Task> response = taskController.updateTask(taskId, null, updatedTask);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -0,0 +1,215 @@
+package com.the.dailytasks;
+
+import com.the.dailytasks.controller.TaskExportController;
+import com.the.dailytasks.model.Task;
+import com.the.dailytasks.service.DataFormat;
+import com.the.dailytasks.service.TaskExportService;
+import com.the.dailytasks.service.TaskService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:export;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "tasks.archive.dir=target/test-archive/${random.uuid}",
+        "tasks.export.clear-interval=2"
+})
+class TaskExportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskExportService exportService;
+
+    @Autowired
+    private TaskExportController exportController;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final LocalDate start = LocalDate.now().plusDays(200);
+    private final LocalDate end = start.plusDays(1);
+
+    @BeforeEach
+    void setUp() {
+        if (taskService.getTasks(start, end.plusDays(1), null, PageRequest.of(0, 1)).isEmpty()) {
+            for (int i = 0; i < 5; i++) {
+                Task task = taskService.createTask(Task.builder()
+                        .title("Task " + i).description(i == 0 ? "with, comma" : "").dueDate(start.plusDays(i % 2)).build());
+                if (i < 2) {
+                    taskService.toggleCompletion(task.getId());
+                }
+            }
+            taskService.createTask(Task.builder().title("Outside").description("").dueDate(end.plusDays(1)).build());
+        }
+    }
+
+    @Test
+    void exportTasks_AsNdjson_ShouldStreamOneLinePerTaskInRange() throws Exception {
+        // Act
+        MvcResult started = mockMvc.perform(get("/tasks/export")
+                        .param("start", start.toString()).param("end", end.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // Assert
+        List<String> lines = body.lines().toList();
+        assertEquals(5, lines.size());
+        assertTrue(lines.stream().allMatch(line -> line.startsWith("{\"id\":")));
+        assertTrue(lines.stream().noneMatch(line -> line.contains("Outside")));
+        assertEquals(900_000L, started.getRequest().getAsyncContext().getTimeout());
+    }
+
+    @Test
+    void exportTasks_AsCsvWithStatusFilter_ShouldStreamOnlyMatchingTasks() throws Exception {
+        // Act
+        MvcResult started = mockMvc.perform(get("/tasks/export")
+                        .param("start", start.toString()).param("end", end.toString())
+                        .param("completed", "true").param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // Assert
+        List<String> lines = body.lines().toList();
+        assertEquals("id,title,description,completed,dueDate,version", lines.getFirst());
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(1).contains(",\"with, comma\",true," + start + ","));
+        assertTrue(lines.stream().skip(1).allMatch(line -> line.contains(",true,")));
+    }
+
+    @Test
+    void exportTasks_WhenConcurrentExportsAtLimit_ShouldReturnServiceUnavailable() throws Exception {
+        // Arrange: все разрешения заняты выгрузками, которые еще пишут ответ
+        Semaphore exports = (Semaphore) ReflectionTestUtils.getField(exportController, "exports");
+        int permits = exports.drainPermits();
+
+        // Act & Assert
+        try {
+            mockMvc.perform(get("/tasks/export")
+                            .param("start", start.toString()).param("end", end.toString()))
+                    .andExpect(status().isServiceUnavailable());
+        } finally {
+            exports.release(permits);
+        }
+        MvcResult started = mockMvc.perform(get("/tasks/export")
+                        .param("start", start.toString()).param("end", end.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+        assertEquals(permits, exports.availablePermits());
+    }
+
+    @Test
+    void exportTasks_WhenTransactionTimeoutExpires_ShouldStopExport() {
+        // Arrange
+        long timeout = (long) ReflectionTestUtils.getField(exportService, "transactionTimeoutSeconds");
+        ReflectionTestUtils.setField(exportService, "transactionTimeoutSeconds", 0L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act & Assert
+        try {
+            assertThrows(TransactionTimedOutException.class,
+                    () -> exportService.exportTasks(start, end, null, DataFormat.NDJSON, out));
+        } finally {
+            ReflectionTestUtils.setField(exportService, "transactionTimeoutSeconds", timeout);
+        }
+    }
+
+    @Test
+    void exportTasks_DirectJdbc_ShouldWriteSameBytesAsEntityExport() {
+        // Arrange: значения, которые по-разному могли бы экранироваться или читаться из ResultSet
+        LocalDate day = start.plusDays(100);
+        if (taskService.getTasks(day, day, null, PageRequest.of(0, 1)).isEmpty()) {
+            List<String> titles = List.of("Quote \" and \\ backslash", "Tab\tnew\nline\u0001bell\u001f",
+                    "Задача ✓ 日本語 😀", "Plain");
+            for (int i = 0; i < titles.size(); i++) {
+                Task task = taskService.createTask(Task.builder()
+                        .title(titles.get(i)).description(i == 0 ? null : titles.get(i)).dueDate(day).build());
+                if (i % 2 == 1) {
+                    taskService.toggleCompletion(task.getId());
+                }
+            }
+        }
+
+        // Act & Assert
+        for (Boolean completed : Arrays.asList(null, true, false)) {
+            byte[] entities = export(day, day, completed, false);
+            assertArrayEquals(entities, export(day, day, completed, true), "completed=" + completed);
+            assertTrue(entities.length > 0);
+        }
+        LocalDate empty = start.plusDays(150);
+        assertArrayEquals(export(empty, empty, null, false), export(empty, empty, null, true));
+        assertEquals(0, export(empty, empty, null, true).length);
+    }
+
+    @Test
+    void exportTasks_ShouldClearPersistenceContextEveryInterval() {
+        // Arrange
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // Act: выгрузка идет в общей транзакции, поэтому видно, сколько задач осталось в контексте
+        int[] managed = transactionTemplate.execute(status -> {
+            long count = exportService.exportTasks(start, end, null, DataFormat.CSV, new ByteArrayOutputStream());
+            int entities = entityManager.unwrap(SharedSessionContractImplementor.class)
+                    .getPersistenceContext().getNumberOfManagedEntities();
+            return new int[]{(int) count, entities};
+        });
+
+        // Assert
+        assertEquals(5, managed[0]);
+        assertEquals(1, managed[1]);
+    }
+
+    private byte[] export(LocalDate from, LocalDate to, Boolean completed, boolean directJdbc) {
+        boolean configured = (boolean) ReflectionTestUtils.getField(exportService, "directJdbc");
+        ReflectionTestUtils.setField(exportService, "directJdbc", directJdbc);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            exportService.exportTasks(from, to, completed, DataFormat.NDJSON, out);
+            return out.toByteArray();
+        } finally {
+            ReflectionTestUtils.setField(exportService, "directJdbc", configured);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.the.dailytasks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.the.dailytasks.dto.ImportReport;
+import com.the.dailytasks.model.Task;
+import com.the.dailytasks.repository.TaskRepository;
+import com.the.dailytasks.service.DataFormat;
+import com.the.dailytasks.service.TaskImportService;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:import;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "tasks.archive.dir=target/test-archive/${random.uuid}",
+        "tasks.import.chunk-size=2"
+})
+class TaskImportTest {
+
+    @Autowired
+    private TaskImportService importService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void importTasks_NdjsonWithInvalidRows_ShouldReportRowsAndPersistValidOnes() {
+        // Arrange: строки 7 и 8 попадают в одну порцию, слишком длинное название отклоняется до записи
+        LocalDate dueDate = LocalDate.now().plusDays(300);
+        String input = String.join("\n",
+                "{\"id\":999,\"title\":\"A\",\"description\":\"d\",\"completed\":true,\"dueDate\":\"" + dueDate + "\"}",
+                "not json",
+                "{\"title\":\"\",\"dueDate\":\"" + dueDate + "\"}",
+                "",
+                "{\"title\":\"B\",\"dueDate\":\"" + LocalDate.now().minusDays(1) + "\"}",
+                "{\"title\":\"C\",\"dueDate\":\"" + dueDate + "\"}",
+                "{\"title\":\"" + "x".repeat(300) + "\",\"dueDate\":\"" + dueDate + "\"}",
+                "{\"title\":\"E\",\"dueDate\":\"" + dueDate + "\"}");
+
+        // Act
+        ImportReport report = importService.importTasks(DataFormat.NDJSON, stream(input));
+
+        // Assert
+        assertEquals(3, report.imported());
+        assertEquals(4, report.rejected());
+        assertEquals(List.of(2L, 3L, 5L, 7L), report.errors().stream().map(ImportReport.RowError::line).toList());
+        assertTrue(report.errors().get(0).message().startsWith("Malformed JSON"));
+        assertEquals("title: Title is mandatory", report.errors().get(1).message());
+        assertEquals("Due date cannot be in the past", report.errors().get(2).message());
+        assertEquals("title: Title must be at most 255 characters", report.errors().get(3).message());
+        List<Map<String, Object>> rows = rowsDue(dueDate);
+        assertEquals(List.of("A", "C", "E"), rows.stream().map(row -> row.get("TITLE")).toList());
+        assertEquals("d", rows.getFirst().get("DESCRIPTION"));
+        assertEquals(true, rows.getFirst().get("COMPLETED"));
+        assertNotEquals(999L, rows.getFirst().get("ID"));
+    }
+
+    @Test
+    void importTasks_CsvWithInvalidRows_ShouldReportRowsAndPersistValidOnes() {
+        // Arrange
+        LocalDate dueDate = LocalDate.now().plusDays(301);
+        String input = String.join("\n",
+                "title,description,completed,dueDate",
+                "\"Quoted, title\",\"multi",
+                "line\",true," + dueDate,
+                ",no title,false," + dueDate,
+                "Bad date,,false,2025-13-40",
+                "Plain,,false," + dueDate,
+                "",
+                "Last,desc,FALSE," + dueDate);
+
+        // Act
+        ImportReport report = importService.importTasks(DataFormat.CSV, stream(input));
+
+        // Assert
+        assertEquals(3, report.imported());
+        assertEquals(2, report.rejected());
+        assertEquals(List.of(new ImportReport.RowError(4, "title: Title is mandatory"),
+                new ImportReport.RowError(5, "Invalid dueDate: 2025-13-40")), report.errors());
+        List<Map<String, Object>> rows = rowsDue(dueDate);
+        assertEquals(List.of("Quoted, title", "Plain", "Last"), rows.stream().map(row -> row.get("TITLE")).toList());
+        assertEquals("multi\nline", rows.getFirst().get("DESCRIPTION"));
+        assertEquals(true, rows.getFirst().get("COMPLETED"));
+        assertNull(rows.get(1).get("DESCRIPTION"));
+    }
+
+    @Test
+    void importTasks_WhenDatabaseRejectsRow_ShouldRetryChunkAndRejectOnlyThatRow() {
+        // Arrange: база отклоняет любую порцию со строкой "Bad"
+        TaskRepository taskRepository = mock(TaskRepository.class);
+        List<String> written = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<Task> tasks = invocation.getArgument(0);
+            if (tasks.stream().anyMatch(task -> task.getTitle().equals("Bad"))) {
+                throw new DataIntegrityViolationException("value rejected");
+            }
+            tasks.forEach(task -> written.add(task.getTitle()));
+            return null;
+        }).when(taskRepository).bulkInsert(anyList());
+        TaskImportService service = new TaskImportService(taskRepository, validator, objectMapper,
+                event -> { }, transactionManager);
+        ReflectionTestUtils.setField(service, "chunkSize", 5);
+        ReflectionTestUtils.setField(service, "maxReportedErrors", 10);
+        String dueDate = LocalDate.now().plusDays(1).toString();
+        String input = Stream.of("A", "B", "Bad", "D", "E", "F")
+                .map(title -> "{\"title\":\"" + title + "\",\"dueDate\":\"" + dueDate + "\"}")
+                .collect(Collectors.joining("\n"));
+
+        // Act
+        ImportReport report = service.importTasks(DataFormat.NDJSON, stream(input));
+
+        // Assert
+        assertEquals(5, report.imported());
+        assertEquals(List.of(new ImportReport.RowError(3, "Row write failed: value rejected")), report.errors());
+        assertEquals(List.of("A", "B", "D", "E", "F"), written);
+    }
+
+    @Test
+    void importTasks_CsvWithoutRequiredColumns_ShouldReject() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.importTasks(DataFormat.CSV, stream("name,date\nTask,2030-01-01")));
+    }
+
+    private List<Map<String, Object>> rowsDue(LocalDate dueDate) {
+        return jdbcTemplate.queryForList(
+                "SELECT id, title, description, completed FROM task WHERE due_date = ? ORDER BY id", dueDate);
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
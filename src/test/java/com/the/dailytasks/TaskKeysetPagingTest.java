@@ -0,0 +1,118 @@
+package com.the.dailytasks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.the.dailytasks.dto.TaskSummary;
+import com.the.dailytasks.model.Task;
+import com.the.dailytasks.service.TaskService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Курсорная пагинация GET /tasks?cursor= на встроенной H2.
+ */
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:keyset-paging;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "tasks.archive.dir=target/test-archive/${random.uuid}"
+})
+class TaskKeysetPagingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final LocalDate start = LocalDate.now().plusDays(300);
+    private final LocalDate end = start.plusDays(2);
+
+    @BeforeEach
+    void setUp() {
+        if (taskService.getTasks(start, end, null, PageRequest.of(0, 1)).isEmpty()) {
+            // Несколько задач на каждую дату: порядок внутри даты определяет только id
+            int[] dayOffsets = {2, 0, 1, 0, 2, 0, 1, 2};
+            for (int i = 0; i < dayOffsets.length; i++) {
+                taskService.createTask(Task.builder()
+                        .title("Task " + i).description("").dueDate(start.plusDays(dayOffsets[i])).build());
+            }
+        }
+    }
+
+    @Test
+    void scrollTasks_OverDuplicateDueDates_ShouldVisitEveryTaskOnceInOrder() throws Exception {
+        // Arrange
+        List<Long> expected = taskService.getTasks(start, end, null, PageRequest.of(0, 100)).getContent().stream()
+                .sorted(Comparator.comparing(TaskSummary::dueDate).thenComparing(TaskSummary::id))
+                .map(TaskSummary::id)
+                .toList();
+
+        // Act: порции по 3 задачи, граница порции проходит внутри даты
+        List<Long> visited = new ArrayList<>();
+        List<JsonNode> pages = new ArrayList<>();
+        String cursor = "";
+        JsonNode page;
+        do {
+            page = scroll(cursor, pages.isEmpty());
+            pages.add(page);
+            page.get("content").forEach(task -> visited.add(task.get("id").asLong()));
+            cursor = page.path("nextCursor").asText(null);
+        } while (page.get("hasNext").asBoolean());
+
+        // Assert
+        assertEquals(8, expected.size());
+        assertEquals(expected, visited);
+        assertEquals(visited.size(), new HashSet<>(visited).size());
+        assertEquals(3, pages.size());
+        assertEquals(8, pages.getFirst().get("totalElements").asLong());
+        assertFalse(pages.get(1).has("totalElements"));
+        assertNull(cursor);
+    }
+
+    @Test
+    void scrollTasks_WithTamperedCursor_ShouldReturnBadRequest() throws Exception {
+        // Arrange
+        String tampered = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("not-a-cursor".getBytes(StandardCharsets.US_ASCII));
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks").param("cursor", tampered).param("size", "3"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/tasks").param("cursor", "%%%").param("size", "3"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode scroll(String cursor, boolean includeTotal) throws Exception {
+        String body = mockMvc.perform(get("/tasks")
+                        .param("start", start.toString()).param("end", end.toString())
+                        .param("cursor", cursor).param("size", "3")
+                        .param("includeTotal", String.valueOf(includeTotal)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
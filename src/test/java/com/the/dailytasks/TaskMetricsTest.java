@@ -0,0 +1,63 @@
+package com.the.dailytasks;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Метрики сервиса, репозитория и числа SQL-запросов на HTTP-запрос.
+ */
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:metrics;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "tasks.archive.dir=target/test-archive/${random.uuid}"
+})
+class TaskMetricsTest {
+
+    private static final String ENDPOINT = "GET /tasks";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void getTasks_WithRange_ShouldPublishServiceRepositoryAndSqlMetrics() throws Exception {
+        // Act
+        mockMvc.perform(get("/tasks")
+                        .param("start", LocalDate.now().toString())
+                        .param("end", LocalDate.now().plusDays(7).toString()))
+                .andExpect(status().isOk());
+
+        // Assert
+        Timer service = registry.find("tasks.service.calls")
+                .tags("method", "getTasks", "endpoint", ENDPOINT, "filter", "start,end", "outcome", "success")
+                .timer();
+        assertNotNull(service);
+        assertEquals(1, service.count());
+        Timer repository = registry.find("tasks.repository.calls").tags("endpoint", ENDPOINT).timer();
+        assertNotNull(repository);
+        assertTrue(repository.count() > 0);
+        DistributionSummary statements = registry.find("tasks.http.sql.statements")
+                .tags("endpoint", ENDPOINT).summary();
+        assertNotNull(statements);
+        assertEquals(1, statements.count());
+        assertTrue(statements.totalAmount() > 0);
+    }
+}
@@ -0,0 +1,126 @@
+package com.the.dailytasks;
+
+import com.the.dailytasks.event.TaskChangedEvent;
+import com.the.dailytasks.service.TaskPartitionManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Миграция V2 и обслуживание секций на настоящем PostgreSQL (нужен Docker, иначе тест пропускается).
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TaskPartitionTest {
+
+    private static final DateTimeFormatter PARTITION = DateTimeFormatter.ofPattern("'task_p'yyyy_MM");
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:17-alpine");
+
+    private static final YearMonth CURRENT = YearMonth.now();
+
+    private static JdbcTemplate jdbcTemplate;
+    private static DataSourceTransactionManager transactionManager;
+
+    @BeforeAll
+    static void migrateExistingData() {
+        // Arrange: база до секционирования с задачами из прошлого, текущего месяца и далекого будущего
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        flyway(dataSource, "1.1").migrate();
+        insert(1, CURRENT.minusYears(3).atDay(10));
+        insert(2, CURRENT.minusMonths(2).atDay(5));
+        insert(3, CURRENT.atDay(1));
+        insert(4, CURRENT.plusMonths(20).atDay(15));
+
+        // Act
+        flyway(dataSource, "2").migrate();
+    }
+
+    @Test
+    @Order(1)
+    void migration_ShouldKeepRowsAndCreateMonthlyPartitionsOnlyFromCurrentMonth() {
+        // Assert
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM task", Long.class));
+        assertEquals("task_default", partitionOf(1));
+        assertEquals("task_default", partitionOf(2));
+        assertEquals(PARTITION.format(CURRENT.atDay(1)), partitionOf(3));
+        assertEquals(13, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_inherits "
+                + "WHERE inhparent = 'task'::regclass AND inhrelid <> 'task_default'::regclass", Long.class));
+        assertEquals("Task 2", jdbcTemplate.queryForObject("SELECT title FROM task WHERE id = 2", String.class));
+    }
+
+    @Test
+    @Order(2)
+    void maintain_ShouldMoveRowsOutOfDefaultAndDetachExpiredPartitions() {
+        // Arrange
+        List<Object> events = new ArrayList<>();
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(mock(SessionFactory.class, RETURNS_DEEP_STUBS));
+        TaskPartitionManager manager = new TaskPartitionManager(jdbcTemplate, entityManagerFactory, events::add,
+                transactionManager, 24, 1);
+
+        // Act: секции на 24 месяца вперед забирают задачу 4, секция позапрошлого месяца — задачу 2
+        manager.maintain();
+        String farPartition = partitionOf(4);
+        ReflectionTestUtils.invokeMethod(manager, "createPartition", CURRENT.minusMonths(2));
+        String oldPartition = partitionOf(2);
+        manager.maintain();
+
+        // Assert
+        assertEquals(PARTITION.format(CURRENT.plusMonths(20).atDay(1)), farPartition);
+        assertEquals(PARTITION.format(CURRENT.minusMonths(2).atDay(1)), oldPartition);
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM task_default WHERE id IN (2, 4)", Long.class));
+        assertEquals(List.of(1L, 3L, 4L), jdbcTemplate.queryForList("SELECT id FROM task ORDER BY id", Long.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + oldPartition, Long.class));
+        assertFalse(manager.partitionMonths().contains(CURRENT.minusMonths(2)));
+        assertEquals(1, events.size());
+        TaskChangedEvent deleted = (TaskChangedEvent) events.getFirst();
+        assertEquals(TaskChangedEvent.Type.DELETED, deleted.type());
+        assertEquals(2L, deleted.taskId());
+    }
+
+    private static Flyway flyway(DriverManagerDataSource dataSource, String target) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/postgresql")
+                .target(target)
+                .load();
+    }
+
+    private static void insert(long id, LocalDate dueDate) {
+        jdbcTemplate.update("INSERT INTO task (id, title, description, completed, due_date, version) "
+                + "VALUES (?, ?, '', false, ?, 0)", id, "Task " + id, dueDate);
+    }
+
+    private static String partitionOf(long id) {
+        return jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM task WHERE id = ?", String.class, id);
+    }
+}
@@ -0,0 +1,198 @@
+package com.the.dailytasks;
+
+import com.the.dailytasks.dto.TaskSummary;
+import com.the.dailytasks.event.TaskChangedEvent;
+import com.the.dailytasks.event.TaskSnapshot;
+import com.the.dailytasks.event.TasksArchivedEvent;
+import com.the.dailytasks.repository.TaskRepository;
+import com.the.dailytasks.service.TaskReadEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TaskReadEngineTest {
+
+    private final LocalDate today = LocalDate.now();
+    private final List<TaskSnapshot> rows = new ArrayList<>();
+    private TaskReadEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        TaskRepository taskRepository = mock(TaskRepository.class);
+        when(taskRepository.findSnapshotsByDueDateBetweenAfter(any(), any(), anyLong(), any())).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(2);
+            Pageable pageable = invocation.getArgument(3);
+            return rows.stream()
+                    .filter(row -> row.id() > afterId)
+                    .sorted((a, b) -> Long.compare(a.id(), b.id()))
+                    .limit(pageable.getPageSize())
+                    .toList();
+        });
+        engine = new TaskReadEngine(taskRepository, true, 31, 366, 2);
+    }
+
+    @Test
+    void find_AfterLoadAndPuts_ShouldReturnTasksOrderedByDateAndId() {
+        // Arrange
+        rows.add(snapshot(5, today.plusDays(1), 0));
+        rows.add(snapshot(3, today.plusDays(1), 0));
+        rows.add(snapshot(9, today, 0));
+        engine.reload();
+
+        // Act
+        engine.onTaskChanged(created(snapshot(4, today.plusDays(1), 0)));
+        engine.onTaskChanged(created(snapshot(1, today.plusDays(2), 0)));
+        List<TaskSummary> tasks = engine.find(today, today.plusDays(2), null);
+
+        // Assert
+        assertEquals(List.of(9L, 3L, 4L, 5L, 1L), ids(tasks));
+        assertNull(engine.find(today.minusDays(40), today, null));
+    }
+
+    @Test
+    void collect_WithSkipLimitAndStatus_ShouldReturnPageAndTotal() {
+        // Arrange
+        engine.reload();
+        for (long id = 1; id <= 6; id++) {
+            engine.onTaskChanged(created(new TaskSnapshot(id, "Task " + id, id % 2 == 0, today, 0L)));
+        }
+        List<TaskSummary> page = new ArrayList<>();
+        List<TaskSummary> completed = new ArrayList<>();
+
+        // Act
+        int total = engine.collect(today, today, null, 2, 3, page);
+        int completedTotal = engine.collect(today, today, true, 0, 10, completed);
+
+        // Assert
+        assertEquals(6, total);
+        assertEquals(List.of(3L, 4L, 5L), ids(page));
+        assertEquals(3, completedTotal);
+        assertEquals(List.of(2L, 4L, 6L), ids(completed));
+    }
+
+    @Test
+    void put_WhenDueDateMoves_ShouldMoveTaskAndIgnoreOlderVersions() {
+        // Arrange
+        engine.reload();
+        engine.onTaskChanged(created(snapshot(1, today, 0)));
+
+        // Act
+        engine.onTaskChanged(updated(snapshot(1, today.plusDays(3), 2)));
+        engine.onTaskChanged(updated(snapshot(1, today, 1)));
+        List<TaskSummary> moved = engine.find(today, today.plusDays(3), null);
+
+        // Assert
+        assertEquals(1, moved.size());
+        assertEquals(today.plusDays(3), moved.getFirst().dueDate());
+        assertEquals(2L, moved.getFirst().version());
+    }
+
+    @Test
+    void put_WhenTaskLeftWindow_ShouldNotReturnOnOlderVersionButOnNewer() {
+        // Arrange
+        engine.reload();
+        engine.onTaskChanged(created(snapshot(1, today, 0)));
+
+        // Act
+        engine.onTaskChanged(updated(snapshot(1, today.plusYears(5), 2)));
+        engine.onTaskChanged(updated(snapshot(1, today, 1)));
+        List<TaskSummary> afterLateUpdate = engine.find(today, today, null);
+        engine.onTaskChanged(updated(snapshot(1, today, 3)));
+        List<TaskSummary> afterReturn = engine.find(today, today, null);
+
+        // Assert
+        assertTrue(afterLateUpdate.isEmpty());
+        assertEquals(List.of(1L), ids(afterReturn));
+    }
+
+    @Test
+    void remove_WhenLateUpdateArrives_ShouldNotResurrectTask() {
+        // Arrange
+        engine.reload();
+        engine.onTaskChanged(created(snapshot(1, today, 0)));
+        engine.onTaskChanged(created(snapshot(2, today, 0)));
+
+        // Act: удаление и перенос в архив фиксируются раньше, чем приходят события предыдущих изменений
+        engine.onTaskChanged(TaskChangedEvent.deleted(1L, snapshot(1, today, 1)));
+        engine.onTasksArchived(new TasksArchivedEvent(List.of(2L, 3L)));
+        engine.onTaskChanged(updated(snapshot(1, today, 1)));
+        engine.onTaskChanged(updated(snapshot(2, today, 5)));
+        engine.onTaskChanged(created(snapshot(3, today, 0)));
+
+        // Assert
+        assertTrue(engine.find(today, today, null).isEmpty());
+    }
+
+    @Test
+    void reload_WhenDeletedBeforeReload_ShouldKeepTombstone() {
+        // Arrange
+        rows.add(snapshot(1, today, 0));
+        engine.reload();
+        engine.onTaskChanged(TaskChangedEvent.deleted(1L, null));
+        rows.clear();
+        rows.add(snapshot(2, today, 0));
+
+        // Act
+        engine.reload();
+        engine.onTaskChanged(updated(snapshot(1, today, 1)));
+
+        // Assert
+        assertEquals(List.of(2L), ids(engine.find(today, today, null)));
+    }
+
+    @Test
+    void put_WhenManyTasks_ShouldGrowStorageAndKeepOrder() {
+        // Arrange
+        engine.reload();
+        int count = 5000;
+
+        // Act: идентификаторы с общим шагом дают длинные цепочки в хеш-таблице
+        for (long i = 1; i <= count; i++) {
+            engine.onTaskChanged(created(snapshot(i * 1024, today.plusDays(i % 7), 0)));
+        }
+        for (long i = 3; i <= count; i += 3) {
+            engine.onTaskChanged(TaskChangedEvent.deleted(i * 1024, null));
+        }
+        for (long i = 1; i <= count; i += 3) {
+            engine.onTaskChanged(updated(snapshot(i * 1024, today.plusDays(10), 1)));
+        }
+        List<TaskSummary> tasks = engine.find(today, today.plusDays(10), null);
+
+        // Assert
+        assertEquals(count - count / 3, tasks.size());
+        for (int i = 1; i < tasks.size(); i++) {
+            TaskSummary previous = tasks.get(i - 1);
+            TaskSummary current = tasks.get(i);
+            int byDate = previous.dueDate().compareTo(current.dueDate());
+            assertTrue(byDate < 0 || byDate == 0 && previous.id() < current.id());
+        }
+        assertTrue(tasks.stream().noneMatch(task -> task.id() / 1024 % 3 == 0));
+        assertEquals((count + 2) / 3, engine.find(today.plusDays(10), today.plusDays(10), null).size());
+    }
+
+    private TaskSnapshot snapshot(long id, LocalDate dueDate, long version) {
+        return new TaskSnapshot(id, "Task " + id, false, dueDate, version);
+    }
+
+    private TaskChangedEvent created(TaskSnapshot task) {
+        return new TaskChangedEvent(TaskChangedEvent.Type.CREATED, task.id(), null, task);
+    }
+
+    private TaskChangedEvent updated(TaskSnapshot task) {
+        return new TaskChangedEvent(TaskChangedEvent.Type.UPDATED, task.id(), null, task);
+    }
+
+    private List<Long> ids(List<TaskSummary> tasks) {
+        return tasks.stream().map(TaskSummary::id).toList();
+    }
+}
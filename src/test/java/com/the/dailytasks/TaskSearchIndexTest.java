@@ -0,0 +1,71 @@
+package com.the.dailytasks;
+
+import com.the.dailytasks.event.TaskChangedEvent;
+import com.the.dailytasks.event.TaskSnapshot;
+import com.the.dailytasks.repository.TaskRepository;
+import com.the.dailytasks.service.SearchMode;
+import com.the.dailytasks.service.TaskSearchIndex;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TaskSearchIndexTest {
+
+    private final TaskRepository taskRepository = mock(TaskRepository.class);
+    private final TaskSearchIndex index = new TaskSearchIndex(taskRepository, true, 2);
+
+    @Test
+    void load_WhenTaskChangesAfterBatchWasRead_ShouldKeepCommittedState() {
+        // Arrange: порция прочитана до фиксации изменений, а в индекс попадает после их событий
+        when(taskRepository.findSnapshotsAfter(eq(0L), any())).thenAnswer(invocation -> {
+            List<TaskSnapshot> stale = List.of(snapshot(1, "Buy milk", false), snapshot(2, "Walk dog", false));
+            index.onTaskChanged(TaskChangedEvent.deleted(1L, stale.get(0)));
+            index.onTaskChanged(new TaskChangedEvent(TaskChangedEvent.Type.UPDATED, 2L, stale.get(1),
+                    snapshot(2, "Walk cat", false)));
+            return stale;
+        });
+        when(taskRepository.findSnapshotsAfter(eq(2L), any())).thenReturn(List.of());
+
+        // Act
+        index.load();
+
+        // Assert
+        assertTrue(index.isReady());
+        assertTrue(index.search("milk", SearchMode.CONTAINS, true, 10).isEmpty());
+        assertTrue(index.search("dog", SearchMode.CONTAINS, true, 10).isEmpty());
+        assertEquals(List.of(2L), index.search("cat", SearchMode.CONTAINS, true, 10));
+    }
+
+    @Test
+    void search_Contains_ShouldMatchSubstringsLikeDatabaseSearch() {
+        // Arrange
+        when(taskRepository.findSnapshotsAfter(eq(0L), any())).thenReturn(List.of(
+                snapshot(1, "Buy milk", false), snapshot(2, "Buttermilk pancakes", false)));
+        when(taskRepository.findSnapshotsAfter(eq(2L), any())).thenReturn(List.of(
+                snapshot(3, "Milkshake", true)));
+        index.load();
+
+        // Act
+        List<Long> inWord = index.search("ILK", SearchMode.CONTAINS, true, 10);
+        List<Long> acrossWords = index.search("y mi", SearchMode.CONTAINS, true, 10);
+        List<Long> shortQuery = index.search("te", SearchMode.CONTAINS, true, 10);
+        List<Long> pending = index.search("milk", SearchMode.CONTAINS, false, 10);
+
+        // Assert
+        assertEquals(List.of(1L, 3L, 2L), inWord);
+        assertEquals(List.of(1L), acrossWords);
+        assertEquals(List.of(2L), shortQuery);
+        assertEquals(List.of(1L, 2L), pending);
+    }
+
+    private TaskSnapshot snapshot(long id, String title, boolean completed) {
+        return new TaskSnapshot(id, title, completed, LocalDate.now(), 0L);
+    }
+}
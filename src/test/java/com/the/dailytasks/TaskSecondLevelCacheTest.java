@@ -0,0 +1,83 @@
+package com.the.dailytasks;
+
+import com.the.dailytasks.config.SqlStatementCounter;
+import com.the.dailytasks.dto.TaskSummary;
+import com.the.dailytasks.model.Task;
+import com.the.dailytasks.service.TaskService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:l2cache;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "tasks.cache.l2.enabled=true",
+        "tasks.cache.windows.enabled=false"
+})
+class TaskSecondLevelCacheTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Test
+    void getTaskById_WhenRepeated_ShouldNotQueryDatabase() {
+        // Arrange
+        Long id = taskService.createTask(Task.builder()
+                .title("Cached task").description("Description").dueDate(LocalDate.now()).build()).getId();
+        taskService.getTaskById(id);
+
+        // Act
+        SqlStatementCounter.reset();
+        Task first = taskService.getTaskById(id);
+        Task second = taskService.getTaskById(id);
+
+        // Assert
+        assertEquals(0, SqlStatementCounter.get());
+        assertEquals("Cached task", first.getTitle());
+        assertEquals(first.getVersion(), second.getVersion());
+    }
+
+    @Test
+    void getWindowTasks_WhenRepeated_ShouldNotQueryDatabase() {
+        // Arrange
+        taskService.createTask(Task.builder().title("Windowed task").description("").dueDate(LocalDate.now()).build());
+        taskService.getTodayTasks(false);
+        taskService.getWeekTasks(false);
+
+        // Act
+        SqlStatementCounter.reset();
+        List<TaskSummary> today = taskService.getTodayTasks(false);
+        List<TaskSummary> week = taskService.getWeekTasks(false);
+
+        // Assert
+        assertEquals(0, SqlStatementCounter.get());
+        assertTrue(today.stream().anyMatch(task -> task.title().equals("Windowed task")));
+        assertTrue(week.stream().anyMatch(task -> task.title().equals("Windowed task")));
+    }
+
+    @Test
+    void toggleCompletion_ShouldInvalidateCachedTaskAndQueryResults() {
+        // Arrange
+        Long id = taskService.createTask(Task.builder()
+                .title("Toggled task").description("").dueDate(LocalDate.now().plusDays(5)).build()).getId();
+        assertFalse(taskService.getTaskById(id).isCompleted());
+        assertTrue(taskService.getWeekTasks(false).stream().anyMatch(task -> task.id().equals(id)));
+
+        // Act
+        taskService.toggleCompletion(id);
+
+        // Assert
+        assertTrue(taskService.getTaskById(id).isCompleted());
+        assertTrue(taskService.getWeekTasks(false).stream().noneMatch(task -> task.id().equals(id)));
+    }
+}
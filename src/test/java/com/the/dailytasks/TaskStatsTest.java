@@ -0,0 +1,133 @@
+package com.the.dailytasks;
+
+import com.the.dailytasks.dto.CompletionStats;
+import com.the.dailytasks.dto.DailyTaskStats;
+import com.the.dailytasks.model.Task;
+import com.the.dailytasks.model.TaskDailyRollup;
+import com.the.dailytasks.repository.TaskRollupRepository;
+import com.the.dailytasks.service.StatsPeriod;
+import com.the.dailytasks.service.TaskArchiver;
+import com.the.dailytasks.service.TaskService;
+import com.the.dailytasks.service.TaskStatsRollup;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stats;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "tasks.archive.dir=target/test-archive/${random.uuid}",
+        "tasks.archive.min-age-days=-30"
+})
+class TaskStatsTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskArchiver archiver;
+
+    @Autowired
+    private TaskStatsRollup statsRollup;
+
+    @Autowired
+    private TaskRollupRepository rollupRepository;
+
+    @Test
+    void getDailyStats_WhenTasksArchived_ShouldCountThemAsCompleted() {
+        // Arrange
+        LocalDate day = LocalDate.now().plusDays(2);
+        Long archivedId = taskService.createTask(Task.builder().title("Archived").description("").dueDate(day).build()).getId();
+        taskService.createTask(Task.builder().title("Open").description("").dueDate(day).build());
+        taskService.toggleCompletion(archivedId);
+
+        // Act
+        int archived = archiver.archive();
+        List<DailyTaskStats> stats = taskService.getDailyStats(day, day);
+
+        // Assert
+        assertEquals(1, archived);
+        assertEquals(List.of(new DailyTaskStats(day, 2, 1, 1)), stats);
+    }
+
+    @Test
+    void getCompletionStats_AfterCreateMoveToggleDelete_ShouldMatchRebuild() {
+        // Arrange: даты за пределами окна архивации теста
+        LocalDate first = LocalDate.now().plusDays(100);
+        LocalDate second = first.plusDays(1);
+        Task kept = taskService.createTask(Task.builder().title("Kept").description("").dueDate(first).build());
+        Task moved = taskService.createTask(Task.builder().title("Moved").description("").dueDate(first).build());
+        Long deletedId = taskService.createTask(Task.builder().title("Deleted").description("").dueDate(second).build()).getId();
+
+        // Act
+        taskService.updateTask(moved.getId(), Task.builder().title("Moved").description("").dueDate(second).build());
+        taskService.toggleCompletion(kept.getId());
+        taskService.toggleCompletion(moved.getId());
+        taskService.deleteTasks(List.of(deletedId));
+        List<CompletionStats> incremental = taskService.getCompletionStats(StatsPeriod.DAY, first, second);
+        statsRollup.rebuild();
+        List<CompletionStats> rebuilt = taskService.getCompletionStats(StatsPeriod.DAY, first, second);
+
+        // Assert
+        assertEquals(List.of(CompletionStats.of(first, 1, 1), CompletionStats.of(second, 1, 1)), incremental);
+        assertEquals(rebuilt, incremental);
+    }
+
+    @Test
+    void deleteTasks_WhenSameTasksDeletedConcurrently_ShouldCountEachDeletionOnce() throws Exception {
+        // Arrange
+        LocalDate day = LocalDate.now().plusDays(200);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 10; round++) {
+                List<Long> ids = new ArrayList<>();
+                for (int i = 0; i < 5; i++) {
+                    ids.add(taskService.createTask(Task.builder()
+                            .title("Task " + i).description("").dueDate(day).build()).getId());
+                }
+
+                // Act
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> deletions = new ArrayList<>();
+                for (int i = 0; i < 2; i++) {
+                    deletions.add(executor.submit(() -> {
+                        start.await();
+                        taskService.deleteTasks(ids);
+                        return null;
+                    }));
+                }
+                start.countDown();
+                int succeeded = 0;
+                for (Future<?> deletion : deletions) {
+                    try {
+                        deletion.get(30, TimeUnit.SECONDS);
+                        succeeded++;
+                    } catch (Exception e) {
+                        // Вторая транзакция не находит задачи или не получает блокировку
+                    }
+                }
+
+                // Assert
+                assertEquals(1, succeeded);
+                TaskDailyRollup rollup = rollupRepository.findById(day).orElseThrow();
+                assertEquals(0, rollup.getTotal());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.the.dailytasks;
+
+import com.the.dailytasks.event.TaskChangedEvent;
+import com.the.dailytasks.event.TaskSnapshot;
+import com.the.dailytasks.model.Task;
+import com.the.dailytasks.repository.TaskChangeRepository;
+import com.the.dailytasks.repository.TaskRepository;
+import com.the.dailytasks.repository.TaskRollupRepository;
+import com.the.dailytasks.service.TaskArchive;
+import com.the.dailytasks.service.TaskChangeLog;
+import com.the.dailytasks.service.TaskService;
+import com.the.dailytasks.service.TaskStatsRollup;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:versiontracker;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "tasks.archive.dir=target/test-archive/${random.uuid}"
+})
+class TaskVersionTrackerTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskChangeRepository changeRepository;
+
+    @Autowired
+    private TaskRollupRepository rollupRepository;
+
+    @Autowired
+    private TaskArchive archive;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void etags_WhenTaskChangedThroughOtherInstance_ShouldChangeAndWindowShouldReload() {
+        // Arrange
+        Task task = taskService.createTask(Task.builder()
+                .title("Shared task").description("").dueDate(LocalDate.now()).build());
+        assertTrue(taskService.getWeekTasks(false).stream().anyMatch(summary -> summary.id().equals(task.getId())));
+        String weekETag = taskService.getWeekTasksETag(false);
+        Long version = taskService.getKnownTaskVersion(task.getId());
+
+        // Act: другой экземпляр переключает задачу; события этого экземпляра не срабатывают
+        TaskChangeLog otherChangeLog = new TaskChangeLog(changeRepository, taskRepository, archive, transactionManager);
+        TaskStatsRollup otherRollup = new TaskStatsRollup(rollupRepository, taskRepository, archive, transactionManager);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Task toggled = taskRepository.toggleCompleted(task.getId()).orElseThrow();
+            TaskChangedEvent event = TaskChangedEvent.updated(TaskSnapshot.of(toggled).withCompleted(false), toggled);
+            otherRollup.onTaskChanged(event);
+            otherChangeLog.onTaskChanged(event);
+        });
+
+        // Assert
+        assertNotEquals(weekETag, taskService.getWeekTasksETag(false));
+        assertNotEquals(version, taskService.getKnownTaskVersion(task.getId()));
+        assertTrue(taskService.getWeekTasks(false).stream().noneMatch(summary -> summary.id().equals(task.getId())));
+    }
+
+    @Test
+    void windowETag_ShouldChangeOnlyWhenTasksOfWindowChange() {
+        // Arrange
+        Task inside = taskService.createTask(Task.builder()
+                .title("Inside").description("").dueDate(LocalDate.now().plusDays(1)).build());
+        String initial = taskService.getWeekTasksETag(true);
+
+        // Act
+        taskService.createTask(Task.builder()
+                .title("Outside").description("").dueDate(LocalDate.now().plusDays(60)).build());
+        String afterOutsideWrite = taskService.getWeekTasksETag(true);
+        taskService.updateTask(inside.getId(), Task.builder()
+                .title("Renamed").description("").dueDate(inside.getDueDate()).build());
+        String afterRename = taskService.getWeekTasksETag(true);
+
+        // Assert
+        assertEquals(initial, afterOutsideWrite);
+        assertNotEquals(initial, afterRename);
+        assertTrue(taskService.getWeekTasks(true).stream().anyMatch(summary -> summary.title().equals("Renamed")));
+    }
+}
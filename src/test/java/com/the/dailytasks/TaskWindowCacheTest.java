@@ -0,0 +1,107 @@
+package com.the.dailytasks;
+
+import com.the.dailytasks.dto.TaskSummary;
+import com.the.dailytasks.event.TaskChangedEvent;
+import com.the.dailytasks.event.TaskSnapshot;
+import com.the.dailytasks.model.Task;
+import com.the.dailytasks.service.TaskWindowCache;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskWindowCacheTest {
+
+    private final LocalDate today = LocalDate.now();
+    private final TaskWindowCache.Window week = new TaskWindowCache.Window(today, today.plusWeeks(1), false);
+
+    @Test
+    void get_WhenWriteCommitsDuringLoad_ShouldNotCacheStaleResult() throws Exception {
+        // Arrange
+        TaskWindowCache cache = new TaskWindowCache(true, 16);
+        Task task = new Task(1L, "Task", "Description", false, today);
+        task.setVersion(0L);
+        List<TaskSummary> stale = List.of(TaskSummary.of(task));
+        CountDownLatch queried = new CountDownLatch(1);
+        CountDownLatch committed = new CountDownLatch(1);
+
+        // Act: выборка прочитана до фиксации, а сохраняется после сброса
+        CompletableFuture<List<TaskSummary>> load = CompletableFuture.supplyAsync(() -> cache.get(week, () -> 1, () -> {
+            queried.countDown();
+            await(committed);
+            return stale;
+        }));
+        assertTrue(queried.await(5, TimeUnit.SECONDS));
+        Task toggled = new Task(1L, "Task", "Description", true, today);
+        toggled.setVersion(1L);
+        cache.onTaskChanged(TaskChangedEvent.updated(TaskSnapshot.of(task), toggled));
+        committed.countDown();
+        List<TaskSummary> firstResult = load.get(5, TimeUnit.SECONDS);
+        List<TaskSummary> secondResult = cache.get(week, () -> 1, List::of);
+
+        // Assert
+        assertEquals(stale, firstResult);
+        assertTrue(secondResult.isEmpty());
+    }
+
+    @Test
+    void get_WhenNoWriteDuringLoad_ShouldServeFromCache() {
+        // Arrange
+        TaskWindowCache cache = new TaskWindowCache(true, 16);
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        cache.get(week, () -> 1, () -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+        Task outside = new Task(2L, "Task", "Description", false, today.plusMonths(2));
+        cache.onTaskChanged(TaskChangedEvent.created(outside));
+        cache.get(week, () -> 1, () -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+
+        // Assert
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_WhenRevisionAdvancedWithoutLocalEvent_ShouldReload() {
+        // Arrange: изменение сделано через другой экземпляр, событие сюда не приходит
+        TaskWindowCache cache = new TaskWindowCache(true, 16);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(week, () -> 1, () -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+
+        // Act
+        cache.get(week, () -> 2, () -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+        cache.get(week, () -> 2, () -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}